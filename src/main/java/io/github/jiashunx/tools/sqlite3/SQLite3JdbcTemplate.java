@@ -6,26 +6,38 @@ import io.github.jiashunx.tools.sqlite3.connection.SQLite3ConnectionPool;
 import io.github.jiashunx.tools.sqlite3.connection.SQLite3PreparedStatement;
 import io.github.jiashunx.tools.sqlite3.exception.SQLite3MappingException;
 import io.github.jiashunx.tools.sqlite3.exception.SQLite3SQLException;
+import io.github.jiashunx.tools.sqlite3.function.RowCallback;
 import io.github.jiashunx.tools.sqlite3.function.VoidFunc;
 import io.github.jiashunx.tools.sqlite3.model.ColumnMetadata;
 import io.github.jiashunx.tools.sqlite3.model.QueryResult;
 import io.github.jiashunx.tools.sqlite3.model.TableModel;
+import io.github.jiashunx.tools.sqlite3.model.WriteAckMode;
+import io.github.jiashunx.tools.sqlite3.model.WriteQueueFullPolicy;
 import io.github.jiashunx.tools.sqlite3.table.SQLPackage;
+import io.github.jiashunx.tools.sqlite3.util.SQLite3RowMapper;
+import io.github.jiashunx.tools.sqlite3.util.SQLite3TableBinder;
 import io.github.jiashunx.tools.sqlite3.util.SQLite3Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author jiashunx
@@ -63,8 +75,53 @@ public class SQLite3JdbcTemplate {
         TRANSACTION_MODE.remove();
     }
 
+    public static final int DEFAULT_GROUP_COMMIT_MAX_BATCH_SIZE = 256;
+
+    public static final int DEFAULT_WRITE_QUEUE_CAPACITY = 10000;
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * sqlite单条sql默认最大参数个数(SQLITE_MAX_VARIABLE_NUMBER, 3.32.0之前版本默认值).
+     */
+    public static final int DEFAULT_MAX_VARIABLE_NUMBER = 999;
+
+    /**
+     * 按ID批量查询时使用临时表的默认ID个数阈值.
+     */
+    public static final int DEFAULT_ID_TEMP_TABLE_THRESHOLD = 10000;
+
+    /**
+     * 按ID批量查询使用的临时表(每个连接独立).
+     */
+    private static final String ID_TEMP_TABLE_NAME = "TOOLS_SQLITE3_QUERY_IDS";
+
     private SQLite3ConnectionPool connectionPool;
 
+    private final ReentrantLock writeExecutorLock = new ReentrantLock();
+
+    private volatile SQLite3WriteExecutor writeExecutor;
+
+    private volatile boolean groupCommitEnabled;
+
+    private int writeExecutorMaxBatchSize = DEFAULT_GROUP_COMMIT_MAX_BATCH_SIZE;
+
+    private int writeQueueCapacity = DEFAULT_WRITE_QUEUE_CAPACITY;
+
+    private WriteAckMode writeAckMode = WriteAckMode.ON_COMMIT;
+
+    private WriteQueueFullPolicy writeQueueFullPolicy = WriteQueueFullPolicy.BLOCK;
+
+    private volatile int batchSize = DEFAULT_BATCH_SIZE;
+
+    private volatile boolean multiRowInsertEnabled;
+
+    private volatile int maxVariableNumber = DEFAULT_MAX_VARIABLE_NUMBER;
+
+    private volatile Boolean upsertClauseSupported;
+
+    private volatile int idTempTableThreshold = DEFAULT_ID_TEMP_TABLE_THRESHOLD;
+
     public SQLite3JdbcTemplate(String fileName) {
         this(SQLite3ConnectionManager.getConnectionPool(fileName));
     }
@@ -80,60 +137,197 @@ public class SQLite3JdbcTemplate {
         return Objects.requireNonNull(connectionPool);
     }
 
-    private SQLite3Connection getWriteConnection() {
-        if (isInTransactionModel()) {
-            return getTransactionConnection();
+    /**
+     * 批量更新时单次executeBatch的最大行数.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batch size must be positive");
         }
-        return getConnectionPool().fetchWriteConnection();
+        this.batchSize = batchSize;
     }
 
-    private void write(Consumer<Connection> consumer) {
-        write(getWriteConnection(), consumer);
+    public int getBatchSize() {
+        return batchSize;
     }
 
-    private void write(SQLite3Connection connection, Consumer<Connection> consumer) {
-        connection.write(c -> {
-            try {
-                consumer.accept(c);
-            } finally {
-                if (!isInTransactionModel()) {
-                    connection.release();
-                }
+    /**
+     * 开启多行插入模式: insert对象列表时单条sql插入多行(INSERT INTO t(..) VALUES(..),(..)...),
+     * 单条sql插入的行数受最大参数个数限制.
+     */
+    public void setMultiRowInsertEnabled(boolean multiRowInsertEnabled) {
+        this.multiRowInsertEnabled = multiRowInsertEnabled;
+    }
+
+    public boolean isMultiRowInsertEnabled() {
+        return multiRowInsertEnabled;
+    }
+
+    /**
+     * 单条sql最大参数个数(与sqlite编译参数SQLITE_MAX_VARIABLE_NUMBER一致).
+     */
+    public void setMaxVariableNumber(int maxVariableNumber) {
+        if (maxVariableNumber <= 0) {
+            throw new IllegalArgumentException("max variable number must be positive");
+        }
+        this.maxVariableNumber = maxVariableNumber;
+    }
+
+    public int getMaxVariableNumber() {
+        return maxVariableNumber;
+    }
+
+    /**
+     * 按ID批量查询时ID个数超过该阈值则写入临时表后关联查询, 否则分段执行IN查询.
+     */
+    public void setIdTempTableThreshold(int idTempTableThreshold) {
+        if (idTempTableThreshold <= 0) {
+            throw new IllegalArgumentException("id temp table threshold must be positive");
+        }
+        this.idTempTableThreshold = idTempTableThreshold;
+    }
+
+    public int getIdTempTableThreshold() {
+        return idTempTableThreshold;
+    }
+
+    public void enableGroupCommit() {
+        enableGroupCommit(DEFAULT_GROUP_COMMIT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * 开启组提交: 非事务模式下的executeUpdate/insert/update由写线程合并至同一事务中执行并提交,
+     * 调用线程阻塞等待所在批次提交完成(注意: 参数绑定等回调在写线程中执行).
+     * @param maxBatchSize 单次事务合并的最大写任务数(写线程已启动时沿用已有配置)
+     */
+    public void enableGroupCommit(int maxBatchSize) {
+        writeExecutorLock.lock();
+        try {
+            if (groupCommitEnabled) {
+                throw new IllegalStateException("group commit is already enabled.");
             }
-        });
+            if (writeExecutor == null) {
+                writeExecutorMaxBatchSize = maxBatchSize;
+            }
+            getWriteExecutor();
+            groupCommitEnabled = true;
+        } finally {
+            writeExecutorLock.unlock();
+        }
     }
 
-    private <R> R write(Function<Connection, R> function) {
-        return write(getWriteConnection(), function);
+    /**
+     * 关闭组提交(写线程继续处理异步写任务, 需关闭写线程时调用{@link #shutdownWriteExecutor()}).
+     */
+    public void disableGroupCommit() {
+        groupCommitEnabled = false;
     }
 
-    private <R> R write(SQLite3Connection connection, Function<Connection, R> function) {
-        return connection.write(c -> {
-            try {
-                return function.apply(c);
-            } finally {
-                if (!isInTransactionModel()) {
-                    connection.release();
-                }
+    public boolean isGroupCommitEnabled() {
+        return groupCommitEnabled;
+    }
+
+    /**
+     * 组提交模式下已提交的事务数.
+     */
+    public long getGroupCommitCount() {
+        SQLite3WriteExecutor executor = writeExecutor;
+        return executor == null ? 0 : executor.getCommitCount();
+    }
+
+    /**
+     * 配置写线程(须在写线程启动前调用, 即开启组提交或首次提交异步写任务之前).
+     * @param maxBatchSize 单次事务合并的最大写任务数
+     * @param queueCapacity 写任务队列容量
+     * @param ackMode 异步写任务确认模式
+     * @param queueFullPolicy 写任务队列已满时的处理策略
+     */
+    public void configureWriteExecutor(int maxBatchSize, int queueCapacity, WriteAckMode ackMode, WriteQueueFullPolicy queueFullPolicy) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("max batch size must be positive");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queue capacity must be positive");
+        }
+        writeExecutorLock.lock();
+        try {
+            if (writeExecutor != null) {
+                throw new IllegalStateException("write executor is already started.");
             }
-        });
+            writeExecutorMaxBatchSize = maxBatchSize;
+            writeQueueCapacity = queueCapacity;
+            writeAckMode = Objects.requireNonNull(ackMode);
+            writeQueueFullPolicy = Objects.requireNonNull(queueFullPolicy);
+        } finally {
+            writeExecutorLock.unlock();
+        }
     }
 
-    private SQLite3Connection getReadConnection() {
+    /**
+     * 关闭写线程(同时关闭组提交), 已入队的写任务执行完成后写线程退出.
+     */
+    public void shutdownWriteExecutor() {
+        writeExecutorLock.lock();
+        try {
+            groupCommitEnabled = false;
+            if (writeExecutor != null) {
+                writeExecutor.shutdown();
+                writeExecutor = null;
+            }
+        } finally {
+            writeExecutorLock.unlock();
+        }
+    }
+
+    /**
+     * 写任务队列中等待执行的任务数.
+     */
+    public int getPendingWriteTaskCount() {
+        SQLite3WriteExecutor executor = writeExecutor;
+        return executor == null ? 0 : executor.getPendingTaskCount();
+    }
+
+    private SQLite3WriteExecutor getWriteExecutor() {
+        SQLite3WriteExecutor executor = writeExecutor;
+        if (executor != null) {
+            return executor;
+        }
+        writeExecutorLock.lock();
+        try {
+            if (writeExecutor == null) {
+                writeExecutor = new SQLite3WriteExecutor(this, writeExecutorMaxBatchSize, writeQueueCapacity
+                        , writeAckMode, writeQueueFullPolicy);
+            }
+            return writeExecutor;
+        } finally {
+            writeExecutorLock.unlock();
+        }
+    }
+
+    private int groupCommit(Supplier<Integer> action) {
+        SQLite3WriteExecutor executor = writeExecutor;
+        // 已处于事务中的写操作直接执行
+        if (!groupCommitEnabled || executor == null || isInTransactionModel()) {
+            return action.get();
+        }
+        return executor.submitAndWait(action);
+    }
+
+    private SQLite3Connection getWriteConnection() {
         if (isInTransactionModel()) {
             return getTransactionConnection();
         }
-        return getConnectionPool().fetchReadConnection();
+        return requireConnection(getConnectionPool().fetchWriteConnection());
     }
 
-    private void query(Consumer<Connection> consumer) {
-        query(getReadConnection(), consumer);
+    private <R> R write(Function<SQLite3Connection, R> function) {
+        return write(getWriteConnection(), function);
     }
 
-    private void query(SQLite3Connection connection, Consumer<Connection> consumer) {
-        connection.read(c -> {
+    private <R> R write(SQLite3Connection connection, Function<SQLite3Connection, R> function) {
+        return connection.write(c -> {
             try {
-                consumer.accept(c);
+                return function.apply(connection);
             } finally {
                 if (!isInTransactionModel()) {
                     connection.release();
@@ -142,14 +336,29 @@ public class SQLite3JdbcTemplate {
         });
     }
 
-    private <R> R query(Function<Connection, R> function) {
+    private SQLite3Connection getReadConnection() {
+        if (isInTransactionModel()) {
+            return getTransactionConnection();
+        }
+        return requireConnection(getConnectionPool().fetchReadConnection());
+    }
+
+    private static SQLite3Connection requireConnection(SQLite3Connection connection) {
+        // 等待连接期间线程被中断时连接池返回null
+        if (connection == null) {
+            throw new SQLite3SQLException("fetch connection failed, current thread is interrupted.");
+        }
+        return connection;
+    }
+
+    private <R> R query(Function<SQLite3Connection, R> function) {
         return query(getReadConnection(), function);
     }
 
-    private <R> R query(SQLite3Connection connection, Function<Connection, R> function) {
+    private <R> R query(SQLite3Connection connection, Function<SQLite3Connection, R> function) {
         return connection.read(c -> {
             try {
-                return function.apply(c);
+                return function.apply(connection);
             } finally {
                 if (!isInTransactionModel()) {
                     connection.release();
@@ -180,7 +389,93 @@ public class SQLite3JdbcTemplate {
 
     public <R> List<R> queryForList(String sql, Consumer<SQLite3PreparedStatement> consumer, Class<R> klass)
             throws SQLite3SQLException, SQLite3MappingException {
-        return SQLite3Utils.parseQueryResult(queryForResult(sql, consumer), klass);
+        Objects.requireNonNull(klass);
+        return query(connection -> {
+            SQLite3PreparedStatement statement = null;
+            ResultSet resultSet = null;
+            try {
+                statement = connection.prepareStatement(sql);
+                if (consumer != null) {
+                    consumer.accept(statement);
+                }
+                resultSet = statement.executeQuery();
+                SQLite3RowMapper<R> rowMapper = SQLite3RowMapper.create(resultSet, klass);
+                List<R> retList = new ArrayList<>();
+                while (resultSet.next()) {
+                    retList.add(rowMapper.mapRow(resultSet));
+                }
+                return retList;
+            } catch (SQLite3MappingException exception) {
+                throw exception;
+            } catch (Throwable exception) {
+                throw new SQLite3SQLException(String.format("execute query failed, sql: %s", sql), exception);
+            } finally {
+                SQLite3Utils.close(resultSet);
+                SQLite3Utils.close(statement);
+            }
+        });
+    }
+
+    /**
+     * 查询并逐行回调处理结果(不缓存结果集).
+     */
+    public void query(String sql, RowCallback callback) throws SQLite3SQLException {
+        query(sql, EMPTY_PREPARED_STATEMENT_CONSUMER, callback);
+    }
+
+    public void query(String sql, Consumer<SQLite3PreparedStatement> consumer, RowCallback callback) throws SQLite3SQLException {
+        Objects.requireNonNull(callback);
+        query(connection -> {
+            SQLite3PreparedStatement statement = null;
+            ResultSet resultSet = null;
+            try {
+                statement = connection.prepareStatement(sql);
+                if (consumer != null) {
+                    consumer.accept(statement);
+                }
+                resultSet = statement.executeQuery();
+                while (resultSet.next()) {
+                    callback.processRow(resultSet);
+                }
+                return EMPTY_OBJECT;
+            } catch (Throwable exception) {
+                throw new SQLite3SQLException(String.format("execute query failed, sql: %s", sql), exception);
+            } finally {
+                SQLite3Utils.close(resultSet);
+                SQLite3Utils.close(statement);
+            }
+        });
+    }
+
+    public <R> Stream<R> queryForStream(String sql, Class<R> klass) throws SQLite3SQLException, SQLite3MappingException {
+        return queryForStream(sql, EMPTY_PREPARED_STATEMENT_CONSUMER, klass);
+    }
+
+    /**
+     * 流式查询: 逐行映射结果, 返回的Stream持有读连接直至关闭(遍历结束或出现异常时自动关闭).
+     * <p>须在同一线程中使用并关闭(建议使用try-with-resources), 关闭前当前线程不可执行写操作.</p>
+     */
+    public <R> Stream<R> queryForStream(String sql, Consumer<SQLite3PreparedStatement> consumer, Class<R> klass)
+            throws SQLite3SQLException, SQLite3MappingException {
+        SQLite3Utils.getClassQueryRetModel(klass);
+        boolean inTransaction = isInTransactionModel();
+        SQLite3Connection connection = getReadConnection();
+        try {
+            connection.lockRead();
+        } catch (Throwable throwable) {
+            if (!inTransaction) {
+                connection.release();
+            }
+            throw throwable;
+        }
+        QueryCursor<R> cursor = new QueryCursor<>(sql, connection, !inTransaction, klass);
+        try {
+            cursor.open(consumer);
+        } catch (Throwable throwable) {
+            cursor.close();
+            throw new SQLite3SQLException(String.format("execute query failed, sql: %s", sql), throwable);
+        }
+        return StreamSupport.stream(cursor, false).onClose(cursor::close);
     }
 
     public boolean queryForBoolean(String sql) throws SQLite3SQLException {
@@ -287,7 +582,7 @@ public class SQLite3JdbcTemplate {
             SQLite3PreparedStatement statement = null;
             ResultSet resultSet = null;
             try {
-                statement = new SQLite3PreparedStatement(connection.prepareStatement(sql));
+                statement = connection.prepareStatement(sql);
                 if (consumer != null) {
                     consumer.accept(statement);
                 }
@@ -382,7 +677,7 @@ public class SQLite3JdbcTemplate {
             SQLite3PreparedStatement statement = null;
             ResultSet resultSet = null;
             try {
-                statement = new SQLite3PreparedStatement(connection.prepareStatement(sql));
+                statement = connection.prepareStatement(sql);
                 resultSet = statement.executeQuery();
                 return SQLite3Utils.parseTableColumnMetadata(resultSet);
             } catch (Throwable exception) {
@@ -398,7 +693,7 @@ public class SQLite3JdbcTemplate {
         boolean hasPrevTransaction = isInTransactionModel();
         SQLite3Connection sqLite3Connection = getWriteConnection();
         setTransactionMode(sqLite3Connection);
-        return write(sqLite3Connection, connection -> {
+        return sqLite3Connection.write(connection -> {
             try {
                 if (!hasPrevTransaction) {
                     connection.setAutoCommit(false);
@@ -427,6 +722,7 @@ public class SQLite3JdbcTemplate {
             } finally {
                 if (!hasPrevTransaction) {
                     resetTransactionMode();
+                    sqLite3Connection.release();
                 }
             }
         });
@@ -450,31 +746,29 @@ public class SQLite3JdbcTemplate {
     }
 
     private int updateOrInsert(List<?> objList, Function<TableModel, String> sqlFunc) throws SQLite3SQLException, SQLite3MappingException {
-        int retValue = 0;
-        List<?> $objList = Objects.requireNonNull(objList);
-        if (!$objList.isEmpty()) {
-            List<String> sqlList = new ArrayList<>();
-            List<Consumer<SQLite3PreparedStatement>> consumerList = new ArrayList<>();
-            $objList.forEach(object -> {
-                Object $object = Objects.requireNonNull(object);
-                Class<?> objClass = $object.getClass();
-                TableModel tableModel = SQLite3Utils.getClassTableModel(objClass);
-                Map<String, ColumnMetadata> columnMetadata = tableModel.getColumnMetadata();
-                if (columnMetadata == null) {
-                    columnMetadata = queryTableColumnMetadata(tableModel.getTableName());
-                    tableModel.setColumnMetadata(columnMetadata);
-                }
-                sqlList.add(sqlFunc.apply(tableModel));
-                consumerList.add(SQLite3Utils.buildTableConsumer($object, tableModel));
-            });
-            int[] intArr = batchUpdate(sqlList.toArray(new String[0]), (index, statement) -> {
-                consumerList.get(index).accept(statement);
-            });
-            for (int value: intArr) {
-                retValue += value;
-            }
+        return groupCommit(() -> doUpdateOrInsert(objList, sqlFunc));
+    }
+
+    /**
+     * 对象列表按TableModel分组(保持组内顺序), 每组使用同一预编译语句批量执行, 所有分组在同一事务中执行.
+     */
+    private int doUpdateOrInsert(List<?> objList, Function<TableModel, String> sqlFunc) throws SQLite3SQLException, SQLite3MappingException {
+        Map<TableModel, List<Object>> objGroupMap = groupByTableModel(objList);
+        if (objGroupMap.isEmpty()) {
+            return 0;
         }
-        return retValue;
+        return doTransaction(() -> {
+            int retValue = 0;
+            for (Map.Entry<TableModel, List<Object>> entry: objGroupMap.entrySet()) {
+                TableModel tableModel = entry.getKey();
+                List<Object> objGroup = entry.getValue();
+                SQLite3TableBinder tableBinder = SQLite3Utils.getTableBinder(tableModel);
+                retValue += batchUpdate(sqlFunc.apply(tableModel), objGroup.size(), (index, statement) -> {
+                    tableBinder.bind(statement, objGroup.get(index));
+                });
+            }
+            return retValue;
+        });
     }
 
     public int insert(Object object) throws SQLite3SQLException, SQLite3MappingException {
@@ -484,52 +778,392 @@ public class SQLite3JdbcTemplate {
     }
 
     public int insert(List<?> objList) throws SQLite3SQLException, SQLite3MappingException {
+        if (multiRowInsertEnabled) {
+            return groupCommit(() -> doMultiRowInsert(objList));
+        }
         return updateOrInsert(objList, TableModel::getInsertSQL);
     }
 
+    /**
+     * 多行插入: 每组对象按单条sql最大行数分段插入, 末段不足最大行数时使用对应行数的sql.
+     */
+    private int doMultiRowInsert(List<?> objList) throws SQLite3SQLException, SQLite3MappingException {
+        Map<TableModel, List<Object>> objGroupMap = groupByTableModel(objList);
+        if (objGroupMap.isEmpty()) {
+            return 0;
+        }
+        int maxVariableNumber = this.maxVariableNumber;
+        return doTransaction(() -> write(connection -> {
+            int retValue = 0;
+            for (Map.Entry<TableModel, List<Object>> entry: objGroupMap.entrySet()) {
+                TableModel tableModel = entry.getKey();
+                List<Object> objGroup = entry.getValue();
+                SQLite3TableBinder tableBinder = SQLite3Utils.getTableBinder(tableModel);
+                int size = objGroup.size();
+                int rowsPerStatement = Math.max(1, maxVariableNumber / tableBinder.getParameterCount());
+                int fullSize = size - size % rowsPerStatement;
+                if (fullSize > 0) {
+                    retValue += executeMultiRowInsert(connection, tableBinder, objGroup, 0, fullSize, rowsPerStatement);
+                }
+                if (fullSize < size) {
+                    retValue += executeMultiRowInsert(connection, tableBinder, objGroup, fullSize, size, size - fullSize);
+                }
+            }
+            return retValue;
+        }));
+    }
+
+    private static int executeMultiRowInsert(SQLite3Connection connection, SQLite3TableBinder tableBinder
+            , List<Object> objGroup, int fromIndex, int toIndex, int rowsPerStatement) throws SQLite3SQLException {
+        String sql = tableBinder.getTableModel().getInsertSQL(rowsPerStatement);
+        int parameterCount = tableBinder.getParameterCount();
+        int effectedRowCount = 0;
+        SQLite3PreparedStatement statement = null;
+        try {
+            statement = connection.prepareStatement(sql);
+            for (int index = fromIndex; index < toIndex; index += rowsPerStatement) {
+                for (int row = 0; row < rowsPerStatement; row++) {
+                    tableBinder.bind(statement, objGroup.get(index + row), row * parameterCount);
+                }
+                effectedRowCount += statement.executeUpdate();
+            }
+            return effectedRowCount;
+        } catch (Throwable exception) {
+            throw new SQLite3SQLException(String.format("execute multi-row insert failed, rows per statement: %d, sql: %s"
+                    , rowsPerStatement, sql), exception);
+        } finally {
+            SQLite3Utils.close(statement);
+        }
+    }
+
+    /**
+     * 对象列表按TableModel分组(保持组内顺序), 并加载各数据表字段定义.
+     */
+    private Map<TableModel, List<Object>> groupByTableModel(List<?> objList) throws SQLite3SQLException, SQLite3MappingException {
+        Map<TableModel, List<Object>> objGroupMap = new LinkedHashMap<>();
+        Objects.requireNonNull(objList).forEach(object -> {
+            Object $object = Objects.requireNonNull(object);
+            TableModel tableModel = SQLite3Utils.getClassTableModel($object.getClass());
+            objGroupMap.computeIfAbsent(tableModel, key -> new ArrayList<>()).add($object);
+        });
+        objGroupMap.keySet().forEach(tableModel -> {
+            if (tableModel.getColumnMetadata() == null) {
+                tableModel.setColumnMetadata(queryTableColumnMetadata(tableModel.getTableName()));
+            }
+        });
+        return objGroupMap;
+    }
+
+    public int upsert(Object object) throws SQLite3SQLException, SQLite3MappingException {
+        List<Object> objectList = new ArrayList<>(1);
+        objectList.add(object);
+        return upsert(objectList);
+    }
+
+    /**
+     * 插入或更新(按主键): sqlite版本支持时使用INSERT ... ON CONFLICT DO UPDATE, 否则每行先按主键更新, 未更新到记录时插入.
+     * <p>数据表主键字段须有主键或唯一约束. 主键以外的唯一约束冲突时抛出异常(不删除其他记录).</p>
+     */
+    public int upsert(List<?> objList) throws SQLite3SQLException, SQLite3MappingException {
+        if (isUpsertClauseSupported()) {
+            return updateOrInsert(objList, TableModel::getUpsertSQL);
+        }
+        return groupCommit(() -> doUpdateThenInsert(objList));
+    }
+
+    /**
+     * 插入或更新(sqlite 3.24.0以下版本): 每行先执行UPDATE ... WHERE id=?, 未更新到记录时执行INSERT, 所有分组在同一事务中执行.
+     * <p>结果与ON CONFLICT(id) DO UPDATE一致; 仅有主键字段的数据表使用INSERT OR IGNORE.</p>
+     */
+    private int doUpdateThenInsert(List<?> objList) throws SQLite3SQLException, SQLite3MappingException {
+        Map<TableModel, List<Object>> objGroupMap = groupByTableModel(objList);
+        if (objGroupMap.isEmpty()) {
+            return 0;
+        }
+        return doTransaction(() -> write(connection -> {
+            int retValue = 0;
+            for (Map.Entry<TableModel, List<Object>> entry: objGroupMap.entrySet()) {
+                TableModel tableModel = entry.getKey();
+                SQLite3TableBinder tableBinder = SQLite3Utils.getTableBinder(tableModel);
+                String updateSQL = tableModel.getColumnModelList().size() == 1 ? null : tableModel.getUpdateSQL();
+                String insertSQL = updateSQL == null ? tableModel.getInsertOrIgnoreSQL() : tableModel.getInsertSQL();
+                String sql = updateSQL;
+                SQLite3PreparedStatement updateStatement = null;
+                SQLite3PreparedStatement insertStatement = null;
+                try {
+                    if (updateSQL != null) {
+                        updateStatement = connection.prepareStatement(updateSQL);
+                    }
+                    sql = insertSQL;
+                    insertStatement = connection.prepareStatement(insertSQL);
+                    for (Object object: entry.getValue()) {
+                        if (updateStatement != null) {
+                            sql = updateSQL;
+                            tableBinder.bind(updateStatement, object);
+                            int effectedRowCount = updateStatement.executeUpdate();
+                            if (effectedRowCount > 0) {
+                                retValue += effectedRowCount;
+                                continue;
+                            }
+                        }
+                        sql = insertSQL;
+                        tableBinder.bind(insertStatement, object);
+                        retValue += insertStatement.executeUpdate();
+                    }
+                } catch (Throwable exception) {
+                    throw new SQLite3SQLException(String.format("execute upsert failed, sql: %s", sql), exception);
+                } finally {
+                    SQLite3Utils.close(insertStatement);
+                    SQLite3Utils.close(updateStatement);
+                }
+            }
+            return retValue;
+        }));
+    }
+
+    /**
+     * sqlite版本是否支持upsert语法(3.24.0及以上版本).
+     */
+    public boolean isUpsertClauseSupported() throws SQLite3SQLException {
+        Boolean supported = upsertClauseSupported;
+        if (supported == null) {
+            String[] versionArr = queryForString("SELECT sqlite_version()").split("\\.");
+            int major = Integer.parseInt(versionArr[0]);
+            int minor = versionArr.length > 1 ? Integer.parseInt(versionArr[1]) : 0;
+            upsertClauseSupported = supported = major > 3 || (major == 3 && minor >= 24);
+        }
+        return supported;
+    }
+
+    /**
+     * 按ID批量查询(同一连接中执行): ID个数不超过临时表阈值时按最大参数个数分段执行IN查询, 否则将ID写入临时表后关联查询.
+     * <p>结果不保证顺序, 不存在的ID无对应结果.</p>
+     */
+    public <R> List<R> queryForListByIds(Class<R> klass, Collection<?> ids) throws SQLite3SQLException, SQLite3MappingException {
+        TableModel tableModel = SQLite3Utils.getClassTableModel(Objects.requireNonNull(klass));
+        List<Object> idList = new ArrayList<>(Objects.requireNonNull(ids).size());
+        ids.forEach(id -> {
+            idList.add(Objects.requireNonNull(id));
+        });
+        if (idList.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+        if (idList.size() > idTempTableThreshold) {
+            return query(connection -> queryForListByIdTempTable(connection, tableModel, idList, klass));
+        }
+        int maxVariableNumber = this.maxVariableNumber;
+        return query(connection -> {
+            List<R> retList = new ArrayList<>(idList.size());
+            for (int fromIndex = 0; fromIndex < idList.size(); fromIndex += maxVariableNumber) {
+                queryForListByIdsChunk(connection, tableModel, idList.subList(fromIndex
+                        , Math.min(fromIndex + maxVariableNumber, idList.size())), maxVariableNumber, klass, retList);
+            }
+            return retList;
+        });
+    }
+
+    private static <R> void queryForListByIdsChunk(SQLite3Connection connection, TableModel tableModel
+            , List<Object> idList, int maxVariableNumber, Class<R> klass, List<R> retList) throws SQLite3SQLException, SQLite3MappingException {
+        // 参数个数补齐至2的幂(不超过最大参数个数, 以最后一个ID填充), 减少不同sql的数量以复用预编译语句
+        int size = idList.size();
+        int parameterCount = size == 1 ? 1 : Math.min(Integer.highestOneBit(size - 1) << 1, Math.max(maxVariableNumber, size));
+        String sql = tableModel.getSelectByIdsSQL(parameterCount);
+        SQLite3PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = connection.prepareStatement(sql);
+            for (int index = 0; index < parameterCount; index++) {
+                statement.setObject(index + 1, idList.get(Math.min(index, size - 1)));
+            }
+            resultSet = statement.executeQuery();
+            SQLite3RowMapper<R> rowMapper = SQLite3RowMapper.create(resultSet, klass);
+            while (resultSet.next()) {
+                retList.add(rowMapper.mapRow(resultSet));
+            }
+        } catch (SQLite3MappingException exception) {
+            throw exception;
+        } catch (Throwable exception) {
+            throw new SQLite3SQLException(String.format("execute query failed, sql: %s", sql), exception);
+        } finally {
+            SQLite3Utils.close(resultSet);
+            SQLite3Utils.close(statement);
+        }
+    }
+
+    private <R> List<R> queryForListByIdTempTable(SQLite3Connection connection, TableModel tableModel
+            , List<Object> idList, Class<R> klass) throws SQLite3SQLException, SQLite3MappingException {
+        int batchSize = this.batchSize;
+        String sql = null;
+        SQLite3PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            sql = "CREATE TEMP TABLE IF NOT EXISTS " + ID_TEMP_TABLE_NAME + "(ID PRIMARY KEY)";
+            executeTempTableUpdate(connection, sql);
+            sql = "DELETE FROM temp." + ID_TEMP_TABLE_NAME;
+            executeTempTableUpdate(connection, sql);
+            sql = "INSERT OR IGNORE INTO temp." + ID_TEMP_TABLE_NAME + "(ID) VALUES(?)";
+            statement = connection.prepareStatement(sql);
+            for (int index = 0; index < idList.size(); index++) {
+                statement.setObject(1, idList.get(index));
+                statement.addBatch();
+                if ((index + 1) % batchSize == 0) {
+                    statement.executeBatch();
+                }
+            }
+            if (idList.size() % batchSize != 0) {
+                statement.executeBatch();
+            }
+            SQLite3Utils.close(statement);
+            sql = tableModel.getSelectJoinIdsSQL("temp." + ID_TEMP_TABLE_NAME, "ID");
+            statement = connection.prepareStatement(sql);
+            resultSet = statement.executeQuery();
+            SQLite3RowMapper<R> rowMapper = SQLite3RowMapper.create(resultSet, klass);
+            List<R> retList = new ArrayList<>(idList.size());
+            while (resultSet.next()) {
+                retList.add(rowMapper.mapRow(resultSet));
+            }
+            return retList;
+        } catch (SQLite3MappingException exception) {
+            throw exception;
+        } catch (Throwable exception) {
+            throw new SQLite3SQLException(String.format("execute query with id temp table failed, sql: %s", sql), exception);
+        } finally {
+            SQLite3Utils.close(resultSet);
+            SQLite3Utils.close(statement);
+            try {
+                executeTempTableUpdate(connection, "DELETE FROM temp." + ID_TEMP_TABLE_NAME);
+            } catch (Throwable exception) {
+                logger.warn("clear id temp table failed", exception);
+            }
+        }
+    }
+
+    private static void executeTempTableUpdate(SQLite3Connection connection, String sql) throws SQLite3SQLException {
+        SQLite3PreparedStatement statement = null;
+        try {
+            statement = connection.prepareStatement(sql);
+            statement.executeUpdate();
+        } finally {
+            SQLite3Utils.close(statement);
+        }
+    }
+
+    /**
+     * 查询写连接的PRAGMA data_version(不等待): 仅其他连接(其他进程或其他连接池)提交修改后变化, 本连接池的写入不改变该值.
+     * <p>写连接或连接池全局写锁被占用时不查询, 返回-1. 写连接处于事务中(非自动提交)时查询后提交, 以释放读取时获取的共享锁并在下次查询时读取最新值.</p>
+     */
+    public long tryQueryDataVersion() throws SQLite3SQLException {
+        SQLite3Connection sqLite3Connection = getConnectionPool().tryFetchWriteConnection();
+        if (sqLite3Connection == null) {
+            return -1;
+        }
+        String sql = "PRAGMA data_version";
+        long[] dataVersion = {-1};
+        try {
+            sqLite3Connection.tryWrite(connection -> {
+                SQLite3PreparedStatement statement = null;
+                ResultSet resultSet = null;
+                try {
+                    statement = sqLite3Connection.prepareStatement(sql);
+                    resultSet = statement.executeQuery();
+                    dataVersion[0] = resultSet.next() ? resultSet.getLong(1) : 0L;
+                } catch (Throwable exception) {
+                    throw new SQLite3SQLException(String.format("execute query failed, sql: %s", sql), exception);
+                } finally {
+                    SQLite3Utils.close(resultSet);
+                    SQLite3Utils.close(statement);
+                }
+                try {
+                    if (!connection.getAutoCommit()) {
+                        connection.commit();
+                    }
+                } catch (SQLException exception) {
+                    throw new SQLite3SQLException(String.format("commit failed, sql: %s", sql), exception);
+                }
+            });
+        } finally {
+            sqLite3Connection.release();
+        }
+        return dataVersion[0];
+    }
+
     public int[] batchUpdate(String[] sqlArr) throws SQLite3SQLException {
         return batchUpdate(sqlArr, (index, statement) -> {});
     }
 
+    /**
+     * 批量执行sql, 连续相同的sql使用同一预编译语句按批量大小分批执行(addBatch/executeBatch).
+     * @return 各sql影响的记录数
+     */
     public int[] batchUpdate(String[] sqlArr, BiConsumer<Integer, SQLite3PreparedStatement> consumer) throws SQLite3SQLException {
+        int batchSize = this.batchSize;
         return doTransaction(() -> write(connection -> {
             int[] effectedRowArr = new int[sqlArr.length];
-            SQLite3PreparedStatement statement = null;
-            try {
-                for (int index = 0; index < sqlArr.length; index++) {
-                    String sql = sqlArr[index];
-                    try {
-                        statement = new SQLite3PreparedStatement(connection.prepareStatement(sql));
+            for (int start = 0, end; start < sqlArr.length; start = end) {
+                String sql = sqlArr[start];
+                end = start + 1;
+                while (end < sqlArr.length && end - start < batchSize && sqlArr[end].equals(sql)) {
+                    end++;
+                }
+                SQLite3PreparedStatement statement = null;
+                try {
+                    statement = connection.prepareStatement(sql);
+                    if (end - start == 1) {
                         if (consumer != null) {
-                            consumer.accept(index, statement);
+                            consumer.accept(start, statement);
+                        }
+                        effectedRowArr[start] = statement.executeUpdate();
+                    } else {
+                        for (int index = start; index < end; index++) {
+                            if (consumer != null) {
+                                consumer.accept(index, statement);
+                            }
+                            statement.addBatch();
                         }
-                        effectedRowArr[index] = statement.executeUpdate();
-                    } catch (Throwable exception) {
-                        throw new SQLite3SQLException(String.format("execute batch update failed, single sql: %s", sql), exception);
-                    } finally {
-                        SQLite3Utils.close(statement);
-                        statement = null;
+                        int[] effectedRows = statement.executeBatch();
+                        System.arraycopy(effectedRows, 0, effectedRowArr, start, effectedRows.length);
                     }
+                    invalidateStatementCacheIfNecessary(sql);
+                } catch (Throwable exception) {
+                    throw new SQLite3SQLException(String.format("execute batch update failed, single sql: %s", sql), exception);
+                } finally {
+                    SQLite3Utils.close(statement);
                 }
-                return effectedRowArr;
-            } finally {
-                SQLite3Utils.close(statement);
             }
+            return effectedRowArr;
         }));
     }
 
     public int batchUpdate(String sql, int rowCount, BiConsumer<Integer, SQLite3PreparedStatement> consumer) throws SQLite3SQLException {
+        return batchUpdate(sql, rowCount, batchSize, consumer);
+    }
+
+    /**
+     * 批量执行同一sql(addBatch/executeBatch), 每累积batchSize行执行一次.
+     * @return 影响的记录总数
+     */
+    public int batchUpdate(String sql, int rowCount, int batchSize, BiConsumer<Integer, SQLite3PreparedStatement> consumer) throws SQLite3SQLException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batch size must be positive");
+        }
         return doTransaction(() -> write(connection -> {
             int effectedRowCount = 0;
             SQLite3PreparedStatement statement = null;
             try {
-                statement = new SQLite3PreparedStatement(connection.prepareStatement(sql));
+                statement = connection.prepareStatement(sql);
+                int batchRowCount = 0;
                 for (int i = 0; i < rowCount; i++) {
                     if (consumer != null) {
                         consumer.accept(i, statement);
                     }
-                    effectedRowCount += statement.executeUpdate();
-                    statement.clearParameters();
+                    statement.addBatch();
+                    if (++batchRowCount == batchSize) {
+                        effectedRowCount += sumEffectedRows(statement.executeBatch());
+                        batchRowCount = 0;
+                    }
+                }
+                if (batchRowCount > 0) {
+                    effectedRowCount += sumEffectedRows(statement.executeBatch());
                 }
                 return effectedRowCount;
             } catch (Throwable exception) {
@@ -540,19 +1174,35 @@ public class SQLite3JdbcTemplate {
         }));
     }
 
+    private static int sumEffectedRows(int[] effectedRows) {
+        int effectedRowCount = 0;
+        for (int value: effectedRows) {
+            if (value > 0) {
+                effectedRowCount += value;
+            }
+        }
+        return effectedRowCount;
+    }
+
     public int executeUpdate(String sql) throws SQLite3SQLException {
         return executeUpdate(sql, EMPTY_PREPARED_STATEMENT_CONSUMER);
     }
 
     public int executeUpdate(String sql, Consumer<SQLite3PreparedStatement> consumer) throws SQLite3SQLException {
+        return groupCommit(() -> doExecuteUpdate(sql, consumer));
+    }
+
+    private int doExecuteUpdate(String sql, Consumer<SQLite3PreparedStatement> consumer) throws SQLite3SQLException {
         return doTransaction(() -> write(connection -> {
             SQLite3PreparedStatement statement = null;
             try {
-                statement = new SQLite3PreparedStatement(connection.prepareStatement(sql));
+                statement = connection.prepareStatement(sql);
                 if (consumer != null) {
                     consumer.accept(statement);
                 }
-                return statement.executeUpdate();
+                int effectedRowCount = statement.executeUpdate();
+                invalidateStatementCacheIfNecessary(sql);
+                return effectedRowCount;
             } catch (Throwable exception) {
                 throw new SQLite3SQLException(String.format("execute update failed, sql: %s", sql), exception);
             } finally {
@@ -561,6 +1211,53 @@ public class SQLite3JdbcTemplate {
         }));
     }
 
+    /**
+     * 执行DDL后失效连接池中所有连接缓存的预编译语句.
+     */
+    private void invalidateStatementCacheIfNecessary(String sql) {
+        String $sql = sql.trim();
+        if ($sql.regionMatches(true, 0, "CREATE", 0, 6)
+                || $sql.regionMatches(true, 0, "ALTER", 0, 5)
+                || $sql.regionMatches(true, 0, "DROP", 0, 4)) {
+            getConnectionPool().invalidateStatementCache();
+        }
+    }
+
+    /**
+     * 异步执行更新(由写线程在独立事务中执行, 不参与调用线程当前事务).
+     */
+    public CompletableFuture<Integer> executeUpdateAsync(String sql) {
+        return executeUpdateAsync(sql, EMPTY_PREPARED_STATEMENT_CONSUMER);
+    }
+
+    public CompletableFuture<Integer> executeUpdateAsync(String sql, Consumer<SQLite3PreparedStatement> consumer) {
+        return getWriteExecutor().submit(() -> doExecuteUpdate(sql, consumer));
+    }
+
+    public CompletableFuture<Integer> insertAsync(Object object) {
+        List<Object> objectList = new ArrayList<>(1);
+        objectList.add(object);
+        return insertAsync(objectList);
+    }
+
+    public CompletableFuture<Integer> insertAsync(List<?> objList) {
+        return getWriteExecutor().submit(() -> doUpdateOrInsert(objList, TableModel::getInsertSQL));
+    }
+
+    public CompletableFuture<Integer> updateAsync(Object object) {
+        List<Object> objectList = new ArrayList<>(1);
+        objectList.add(object);
+        return updateAsync(objectList);
+    }
+
+    public CompletableFuture<Integer> updateAsync(List<?> objList) {
+        return getWriteExecutor().submit(() -> doUpdateOrInsert(objList, TableModel::getUpdateSQL));
+    }
+
+    public CompletableFuture<Integer> batchUpdateAsync(String sql, int rowCount, BiConsumer<Integer, SQLite3PreparedStatement> consumer) {
+        return getWriteExecutor().submit(() -> batchUpdate(sql, rowCount, consumer));
+    }
+
     public void initSQLPackage(SQLPackage sqlPackage) throws NullPointerException, SQLite3SQLException {
         if (sqlPackage == null) {
             throw new NullPointerException();
@@ -620,4 +1317,74 @@ public class SQLite3JdbcTemplate {
         }
     }
 
+    /**
+     * 流式查询游标, 关闭时释放结果集/语句/读锁/读连接.
+     */
+    private static class QueryCursor<R> extends Spliterators.AbstractSpliterator<R> {
+        private final String sql;
+        private final SQLite3Connection connection;
+        private final boolean releaseConnection;
+        private final Class<R> klass;
+        private SQLite3PreparedStatement statement;
+        private ResultSet resultSet;
+        private SQLite3RowMapper<R> rowMapper;
+        private boolean closed;
+
+        private QueryCursor(String sql, SQLite3Connection connection, boolean releaseConnection, Class<R> klass) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.sql = sql;
+            this.connection = connection;
+            this.releaseConnection = releaseConnection;
+            this.klass = klass;
+        }
+
+        private void open(Consumer<SQLite3PreparedStatement> consumer) throws SQLException {
+            statement = connection.prepareStatement(sql);
+            if (consumer != null) {
+                consumer.accept(statement);
+            }
+            resultSet = statement.executeQuery();
+            rowMapper = SQLite3RowMapper.create(resultSet, klass);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            if (closed) {
+                return false;
+            }
+            R row;
+            try {
+                if (!resultSet.next()) {
+                    close();
+                    return false;
+                }
+                row = rowMapper.mapRow(resultSet);
+            } catch (Throwable throwable) {
+                close();
+                if (throwable instanceof SQLite3MappingException) {
+                    throw (SQLite3MappingException) throwable;
+                }
+                throw new SQLite3SQLException(String.format("read query result failed, sql: %s", sql), throwable);
+            }
+            action.accept(row);
+            return true;
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                SQLite3Utils.close(resultSet);
+                SQLite3Utils.close(statement);
+            } finally {
+                connection.unlockRead();
+                if (releaseConnection) {
+                    connection.release();
+                }
+            }
+        }
+    }
+
 }
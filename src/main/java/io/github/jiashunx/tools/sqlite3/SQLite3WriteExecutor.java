@@ -0,0 +1,258 @@
+package io.github.jiashunx.tools.sqlite3;
+
+import io.github.jiashunx.tools.sqlite3.connection.SQLite3Connection;
+import io.github.jiashunx.tools.sqlite3.exception.SQLite3Exception;
+import io.github.jiashunx.tools.sqlite3.exception.SQLite3SQLException;
+import io.github.jiashunx.tools.sqlite3.model.WriteAckMode;
+import io.github.jiashunx.tools.sqlite3.model.WriteQueueFullPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * 写任务执行器(组提交/异步写).
+ * <p>多线程并发提交的写任务进入有界队列, 由单独的写线程批量取出并在同一个事务中执行(每个任务使用独立的savepoint),
+ * 整批任务仅提交一次. 单个任务执行失败仅回滚该任务, 不影响同批次其他任务.</p>
+ * @author jiashunx
+ */
+class SQLite3WriteExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SQLite3WriteExecutor.class);
+
+    private static final AtomicInteger counter = new AtomicInteger(0);
+
+    private final SQLite3JdbcTemplate jdbcTemplate;
+    private final int maxBatchSize;
+    private final WriteAckMode ackMode;
+    private final WriteQueueFullPolicy queueFullPolicy;
+    private final BlockingQueue<WriteTask> taskQueue;
+    private final Thread writeThread;
+    private final ReentrantReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private volatile boolean running = true;
+    private final AtomicLong commitCount = new AtomicLong(0);
+
+    SQLite3WriteExecutor(SQLite3JdbcTemplate jdbcTemplate, int maxBatchSize, int queueCapacity
+            , WriteAckMode ackMode, WriteQueueFullPolicy queueFullPolicy) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("max batch size must be positive");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queue capacity must be positive");
+        }
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate);
+        this.maxBatchSize = maxBatchSize;
+        this.ackMode = Objects.requireNonNull(ackMode);
+        this.queueFullPolicy = Objects.requireNonNull(queueFullPolicy);
+        this.taskQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writeThread = new Thread(this::runWriteLoop, "sqlite3-write-executor-" + counter.incrementAndGet());
+        this.writeThread.setDaemon(true);
+        this.writeThread.start();
+    }
+
+    /**
+     * 提交写任务并等待其所在批次提交完成.
+     */
+    int submitAndWait(Supplier<Integer> action) throws SQLite3SQLException {
+        WriteTask task = new WriteTask(action, false);
+        stateLock.readLock().lock();
+        try {
+            if (!running) {
+                // 执行器已关闭, 由调用线程直接执行
+                return action.get();
+            }
+            taskQueue.put(task);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new SQLite3SQLException("submit write task interrupted.", exception);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        try {
+            return task.future.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new SQLite3SQLException("wait write task interrupted.", exception);
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof SQLite3Exception) {
+                throw (SQLite3Exception) cause;
+            }
+            throw new SQLite3SQLException(cause);
+        }
+    }
+
+    /**
+     * 异步提交写任务, 按确认模式在入队或事务提交后完成, 队列已满时按队列满处理策略阻塞或拒绝.
+     */
+    CompletableFuture<Integer> submit(Supplier<Integer> action) {
+        boolean ackOnEnqueue = ackMode == WriteAckMode.ON_ENQUEUE;
+        WriteTask task = new WriteTask(action, ackOnEnqueue);
+        stateLock.readLock().lock();
+        try {
+            if (!running) {
+                return failedFuture(new SQLite3SQLException("write executor is shutdown."));
+            }
+            if (queueFullPolicy == WriteQueueFullPolicy.BLOCK) {
+                taskQueue.put(task);
+            } else if (!taskQueue.offer(task)) {
+                return failedFuture(new SQLite3SQLException(String.format(
+                        "write queue is full, capacity: %d", taskQueue.size() + taskQueue.remainingCapacity())));
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return failedFuture(new SQLite3SQLException("submit write task interrupted.", exception));
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        if (ackOnEnqueue) {
+            return CompletableFuture.completedFuture(Statement.SUCCESS_NO_INFO);
+        }
+        return task.future;
+    }
+
+    private static CompletableFuture<Integer> failedFuture(Throwable throwable) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+
+    /**
+     * 关闭执行器, 已提交的任务执行完成后写线程退出.
+     */
+    void shutdown() {
+        stateLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+    }
+
+    long getCommitCount() {
+        return commitCount.get();
+    }
+
+    /**
+     * 队列中等待执行的写任务数.
+     */
+    int getPendingTaskCount() {
+        return taskQueue.size();
+    }
+
+    private void runWriteLoop() {
+        List<WriteTask> batch = new ArrayList<>(maxBatchSize);
+        while (running || !taskQueue.isEmpty()) {
+            try {
+                WriteTask task = taskQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (task == null) {
+                    continue;
+                }
+                batch.add(task);
+                taskQueue.drainTo(batch, maxBatchSize - 1);
+                executeBatch(batch);
+            } catch (InterruptedException exception) {
+                if (logger.isWarnEnabled()) {
+                    logger.warn("write thread [{}] interrupted.", Thread.currentThread().getName());
+                }
+            } catch (Throwable throwable) {
+                if (logger.isErrorEnabled()) {
+                    logger.error("write thread [{}] execute batch failed.", Thread.currentThread().getName(), throwable);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void executeBatch(List<WriteTask> batch) {
+        int size = batch.size();
+        Integer[] results = new Integer[size];
+        Throwable[] errors = new Throwable[size];
+        try {
+            jdbcTemplate.doTransaction(() -> {
+                SQLite3Connection connection = SQLite3JdbcTemplate.getTransactionConnection();
+                for (int index = 0; index < size; index++) {
+                    Savepoint savepoint = connection.write(c -> {
+                        try {
+                            return c.setSavepoint();
+                        } catch (SQLException exception) {
+                            throw new SQLite3SQLException("set savepoint failed.", exception);
+                        }
+                    });
+                    try {
+                        results[index] = batch.get(index).action.get();
+                        connection.write(c -> {
+                            try {
+                                c.releaseSavepoint(savepoint);
+                            } catch (SQLException exception) {
+                                throw new SQLite3SQLException("release savepoint failed.", exception);
+                            }
+                        });
+                    } catch (Throwable throwable) {
+                        errors[index] = throwable;
+                        // 仅回滚当前任务
+                        connection.write(c -> {
+                            try {
+                                c.rollback(savepoint);
+                                c.releaseSavepoint(savepoint);
+                            } catch (SQLException exception) {
+                                throw new SQLite3SQLException("rollback to savepoint failed.", exception);
+                            }
+                        });
+                    }
+                }
+            });
+            commitCount.incrementAndGet();
+        } catch (Throwable throwable) {
+            // 事务提交失败, 同批次所有任务均失败
+            for (WriteTask task: batch) {
+                task.completeExceptionally(throwable);
+            }
+            return;
+        }
+        for (int index = 0; index < size; index++) {
+            if (errors[index] != null) {
+                batch.get(index).completeExceptionally(errors[index]);
+            } else {
+                batch.get(index).future.complete(results[index]);
+            }
+        }
+    }
+
+    private static class WriteTask {
+        private final Supplier<Integer> action;
+        private final CompletableFuture<Integer> future = new CompletableFuture<>();
+        /**
+         * 入队即确认的任务执行失败时无调用方接收异常, 记录日志.
+         */
+        private final boolean ackOnEnqueue;
+
+        private WriteTask(Supplier<Integer> action, boolean ackOnEnqueue) {
+            this.action = Objects.requireNonNull(action);
+            this.ackOnEnqueue = ackOnEnqueue;
+        }
+
+        private void completeExceptionally(Throwable throwable) {
+            if (ackOnEnqueue && logger.isErrorEnabled()) {
+                logger.error("execute write task failed (acknowledged on enqueue).", throwable);
+            }
+            future.completeExceptionally(throwable);
+        }
+    }
+
+}
@@ -1,13 +1,18 @@
 package io.github.jiashunx.tools.sqlite3.connection;
 
 import io.github.jiashunx.tools.sqlite3.exception.ConnectionStatusChangedException;
+import io.github.jiashunx.tools.sqlite3.exception.SQLite3SQLException;
 import io.github.jiashunx.tools.sqlite3.function.VoidFunc;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -24,12 +29,18 @@ public abstract class SQLite3Connection {
     private final SQLite3ConnectionPool connectionPool;
     private final Connection connection;
     private volatile boolean closed;
+    /**
+     * 连接借用状态(由连接容器维护).
+     */
+    private final AtomicInteger state = new AtomicInteger(SQLite3ConnectionBag.STATE_NOT_IN_USE);
     private final ReentrantReadWriteLock statusLock = new ReentrantReadWriteLock();
+    private final SQLite3StatementCache statementCache;
     private String name;
 
     public SQLite3Connection(SQLite3ConnectionPool connectionPool, Connection connection) {
         this.connectionPool = Objects.requireNonNull(connectionPool);
         this.connection = Objects.requireNonNull(connection);
+        this.statementCache = new SQLite3StatementCache(connectionPool);
     }
 
     public void release() {
@@ -44,16 +55,7 @@ public abstract class SQLite3Connection {
     }
 
     public <R> R read(Function<Connection, R> function) throws ConnectionStatusChangedException {
-        AtomicReference<R> reference = new AtomicReference<>();
-        checkStatus(() -> {
-            connectionPool.getActionReadLock().lock();
-            try {
-                reference.set(function.apply(this.connection));
-            } finally {
-                connectionPool.getActionReadLock().unlock();;
-            }
-        });
-        return reference.get();
+        return doAction(connectionPool.getActionReadLock(), function);
     }
 
     public void write(Consumer<Connection> consumer) throws ConnectionStatusChangedException {
@@ -64,22 +66,120 @@ public abstract class SQLite3Connection {
     }
 
     public <R> R write(Function<Connection, R> function) throws ConnectionStatusChangedException {
+        return doAction(connectionPool.getActionWriteLock(), function);
+    }
+
+    /**
+     * 尝试获取写操作锁并执行(不等待).
+     * @return 连接池全局写锁被占用时不执行并返回false
+     */
+    public boolean tryWrite(Consumer<Connection> consumer) throws ConnectionStatusChangedException {
+        boolean[] executed = {false};
+        checkStatus(() -> {
+            if (!connectionPool.isActionLockEnabled()) {
+                consumer.accept(connection);
+                executed[0] = true;
+                return;
+            }
+            Lock actionLock = connectionPool.getActionWriteLock();
+            if (!actionLock.tryLock()) {
+                return;
+            }
+            try {
+                consumer.accept(connection);
+                executed[0] = true;
+            } finally {
+                actionLock.unlock();
+            }
+        });
+        return executed[0];
+    }
+
+    /**
+     * 获取读操作锁并返回底层连接, 用于跨方法调用持有连接的游标式读取(如流式查询).
+     * <p>须在同一线程中调用{@link #unlockRead()}释放, 释放前连接不可关闭.</p>
+     */
+    public Connection lockRead() throws ConnectionStatusChangedException {
+        statusLock.readLock().lock();
+        if (closed) {
+            statusLock.readLock().unlock();
+            throw new ConnectionStatusChangedException("connection is closed.");
+        }
+        if (connectionPool.isActionLockEnabled()) {
+            getReadActionLock().lock();
+        }
+        return connection;
+    }
+
+    public void unlockRead() {
+        if (connectionPool.isActionLockEnabled()) {
+            getReadActionLock().unlock();
+        }
+        statusLock.readLock().unlock();
+    }
+
+    protected Lock getReadActionLock() {
+        return connectionPool.getActionReadLock();
+    }
+
+    private <R> R doAction(Lock actionLock, Function<Connection, R> function) throws ConnectionStatusChangedException {
         AtomicReference<R> reference = new AtomicReference<>();
         checkStatus(() -> {
-            connectionPool.getActionWriteLock().lock();
+            // WAL模式下读写并发由sqlite自身控制, 不使用连接池全局读写锁
+            if (!connectionPool.isActionLockEnabled()) {
+                reference.set(function.apply(connection));
+                return;
+            }
+            actionLock.lock();
             try {
                 reference.set(function.apply(connection));
             } finally {
-                connectionPool.getActionWriteLock().unlock();
+                actionLock.unlock();
             }
         });
         return reference.get();
     }
 
-    synchronized void close() throws ConnectionStatusChangedException {
-        checkStatus(() -> {});
+    /**
+     * 获取预编译语句(优先从连接语句缓存中获取), 语句关闭时归还至缓存.
+     * <p>须在{@link #read(Function)}/{@link #write(Function)}回调中调用.</p>
+     */
+    public SQLite3PreparedStatement prepareStatement(String sql) throws SQLite3SQLException {
+        // 先记录schema版本再获取语句, 期间schema变更时语句归还后将被关闭
+        long schemaVersion = statementCache.getSchemaVersion();
+        PreparedStatement statement = statementCache.borrow(sql);
+        if (statement == null) {
+            try {
+                statement = connection.prepareStatement(sql);
+            } catch (SQLException exception) {
+                throw new SQLite3SQLException(exception);
+            }
+        }
+        return new SQLite3PreparedStatement(statement, statementCache, sql, schemaVersion);
+    }
+
+    /**
+     * 语句缓存命中次数.
+     */
+    public long getStatementCacheHitCount() {
+        return statementCache.getHitCount();
+    }
+
+    /**
+     * 语句缓存未命中次数.
+     */
+    public long getStatementCacheMissCount() {
+        return statementCache.getMissCount();
+    }
+
+    void close() throws ConnectionStatusChangedException {
+        // 关闭状态的检查与变更均在状态写锁内完成, 无需额外同步
         writeStatus(() -> {
+            if (closed) {
+                throw new ConnectionStatusChangedException("connection is closed.");
+            }
             try {
+                statementCache.close();
                 connection.close();
             } catch (Throwable throwable) {
                 if (logger.isErrorEnabled()) {
@@ -124,6 +224,22 @@ public abstract class SQLite3Connection {
         }
     }
 
+    boolean compareAndSetState(int expectState, int newState) {
+        return state.compareAndSet(expectState, newState);
+    }
+
+    void setState(int newState) {
+        state.set(newState);
+    }
+
+    int getState() {
+        return state.get();
+    }
+
+    SQLite3ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
     void setName(String name) {
         this.name = name;
     }
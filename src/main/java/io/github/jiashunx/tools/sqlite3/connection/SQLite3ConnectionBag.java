@@ -0,0 +1,172 @@
+package io.github.jiashunx.tools.sqlite3.connection;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 连接容器(参考HikariCP ConcurrentBag实现).
+ * <p>借用连接时依次尝试: 当前线程最近归还的连接 -&gt; 共享连接列表 -&gt; 等待其他线程通过交接队列直接移交连接.
+ * 连接状态通过CAS变更, 借用与归还均无需加锁.</p>
+ * @author jiashunx
+ */
+class SQLite3ConnectionBag {
+
+    static final int STATE_NOT_IN_USE = 0;
+    static final int STATE_IN_USE = 1;
+    static final int STATE_REMOVED = -1;
+
+    /**
+     * 线程本地缓存的最大连接数.
+     */
+    private static final int THREAD_LOCAL_MAX_SIZE = 16;
+
+    private final CopyOnWriteArrayList<SQLite3Connection> sharedList = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<List<WeakReference<SQLite3Connection>>> threadList = ThreadLocal.withInitial(() -> new ArrayList<>(THREAD_LOCAL_MAX_SIZE));
+    /**
+     * 交接队列(移交连接, 关闭时移交CLOSED唤醒等待线程).
+     */
+    private final SynchronousQueue<Object> handoffQueue = new SynchronousQueue<>(true);
+    private final AtomicInteger waiters = new AtomicInteger(0);
+    private volatile boolean closed;
+
+    private static final Object CLOSED = new Object();
+
+    /**
+     * 借用连接.
+     * @param timeoutNanos 超时时间(纳秒), 小于等于0时一直等待
+     * @return 超时未获取到连接或容器已关闭时返回null
+     */
+    SQLite3Connection borrow(long timeoutNanos) throws InterruptedException {
+        List<WeakReference<SQLite3Connection>> list = threadList.get();
+        for (int index = list.size() - 1; index >= 0; index--) {
+            SQLite3Connection connection = list.remove(index).get();
+            if (connection != null && connection.compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                return connection;
+            }
+        }
+        waiters.incrementAndGet();
+        try {
+            for (SQLite3Connection connection: sharedList) {
+                if (connection.compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                    return connection;
+                }
+            }
+            // 先增加等待线程数再检查关闭状态: close在设置关闭状态后唤醒全部等待线程
+            if (timeoutNanos <= 0) {
+                while (!closed) {
+                    Object object = handoffQueue.take();
+                    if (object != CLOSED && ((SQLite3Connection) object).compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                        return (SQLite3Connection) object;
+                    }
+                }
+                return null;
+            }
+            long deadline = System.nanoTime() + timeoutNanos;
+            long remaining = timeoutNanos;
+            while (remaining > 0 && !closed) {
+                Object object = handoffQueue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (object != null && object != CLOSED
+                        && ((SQLite3Connection) object).compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                    return (SQLite3Connection) object;
+                }
+                remaining = deadline - System.nanoTime();
+            }
+            return null;
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * 尝试借用连接(不等待).
+     * @return 无空闲连接或容器已关闭时返回null
+     */
+    SQLite3Connection tryBorrow() {
+        List<WeakReference<SQLite3Connection>> list = threadList.get();
+        for (int index = list.size() - 1; index >= 0; index--) {
+            SQLite3Connection connection = list.remove(index).get();
+            if (connection != null && connection.compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                return connection;
+            }
+        }
+        for (SQLite3Connection connection: sharedList) {
+            if (connection.compareAndSetState(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                return connection;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 归还连接, 重复归还或归还已移除的连接将被忽略.
+     */
+    void requite(SQLite3Connection connection) {
+        if (!connection.compareAndSetState(STATE_IN_USE, STATE_NOT_IN_USE)) {
+            return;
+        }
+        // 存在等待线程时将连接直接移交给其中一个等待线程
+        for (int index = 0; waiters.get() > 0; index++) {
+            if (connection.getState() != STATE_NOT_IN_USE || handoffQueue.offer(connection)) {
+                return;
+            } else if ((index & 0xff) == 0xff) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+            } else {
+                Thread.yield();
+            }
+        }
+        List<WeakReference<SQLite3Connection>> list = threadList.get();
+        if (list.size() < THREAD_LOCAL_MAX_SIZE) {
+            list.add(new WeakReference<>(connection));
+        }
+    }
+
+    void add(SQLite3Connection connection) {
+        connection.setState(STATE_NOT_IN_USE);
+        sharedList.add(connection);
+        // 新增连接时若存在等待线程则直接移交
+        while (waiters.get() > 0 && connection.getState() == STATE_NOT_IN_USE && !handoffQueue.offer(connection)) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * 移除已借用(预留)的连接.
+     */
+    boolean remove(SQLite3Connection connection) {
+        if (!connection.compareAndSetState(STATE_IN_USE, STATE_REMOVED)) {
+            return false;
+        }
+        return sharedList.remove(connection);
+    }
+
+    /**
+     * 关闭容器(连接均已移除后调用): 之后借用连接返回null, 并唤醒等待中的线程.
+     */
+    void close() {
+        closed = true;
+        while (waiters.get() > 0) {
+            if (!handoffQueue.offer(CLOSED)) {
+                Thread.yield();
+            }
+        }
+    }
+
+    List<SQLite3Connection> values() {
+        return new ArrayList<>(sharedList);
+    }
+
+    int size() {
+        return sharedList.size();
+    }
+
+    int getWaitingThreadCount() {
+        return waiters.get();
+    }
+
+}
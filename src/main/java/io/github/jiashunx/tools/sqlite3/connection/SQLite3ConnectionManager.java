@@ -1,13 +1,18 @@
 package io.github.jiashunx.tools.sqlite3.connection;
 
+import io.github.jiashunx.tools.sqlite3.model.ConcurrencyMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author jiashunx
@@ -18,6 +23,8 @@ public class SQLite3ConnectionManager {
 
     private static final Map<String, SQLite3ConnectionPool> POOL_MAP  = new HashMap<>();
 
+    private static final ReentrantLock POOL_MAP_LOCK = new ReentrantLock();
+
     public static final int DEFAULT_POOL_SIZE = 16;
     public static final int MAX_POOL_SIZE = 256;
     public static final int MIN_POOL_SIZE = 2;
@@ -38,8 +45,21 @@ public class SQLite3ConnectionManager {
         return getConnectionPool(fileName, DEFAULT_POOL_SIZE, username, password);
     }
 
-    public synchronized static SQLite3ConnectionPool getConnectionPool(String fileName, int poolSize
+    public static SQLite3ConnectionPool getConnectionPool(String fileName, ConcurrencyMode concurrencyMode) {
+        return getConnectionPool(fileName, DEFAULT_POOL_SIZE, concurrencyMode);
+    }
+
+    public static SQLite3ConnectionPool getConnectionPool(String fileName, int poolSize, ConcurrencyMode concurrencyMode) {
+        return getConnectionPool(fileName, poolSize, DEFAULT_USERNAME, DEFAULT_PASSWORD, concurrencyMode);
+    }
+
+    public static SQLite3ConnectionPool getConnectionPool(String fileName, int poolSize
             , String username, String password) {
+        return getConnectionPool(fileName, poolSize, username, password, ConcurrencyMode.SERIALIZED);
+    }
+
+    public static SQLite3ConnectionPool getConnectionPool(String fileName, int poolSize
+            , String username, String password, ConcurrencyMode concurrencyMode) {
         if (fileName == null || fileName.trim().isEmpty()) {
             throw new IllegalArgumentException("sqlite db filename can not be null or empty");
         }
@@ -48,6 +68,10 @@ public class SQLite3ConnectionManager {
                     "sqlite db pool size can not less than %d and not large than %d"
                     , MIN_POOL_SIZE, MAX_POOL_SIZE));
         }
+        if (concurrencyMode == null) {
+            throw new IllegalArgumentException("sqlite db concurrency mode can not be null");
+        }
+        POOL_MAP_LOCK.lock();
         try {
             File dbFile = new File(fileName);
             String dbFilePath = dbFile.getAbsolutePath().replace("\\", "/");
@@ -60,6 +84,10 @@ public class SQLite3ConnectionManager {
             String $password = String.valueOf(password);
             SQLite3ConnectionPool pool = POOL_MAP.get(dbFilePath);
             if (pool != null) {
+                if (pool.getConcurrencyMode() != concurrencyMode && logger.isWarnEnabled()) {
+                    logger.warn("connection pool [{}] already exists with concurrency mode: {}, ignore concurrency mode: {}"
+                            , pool.getPoolName(), pool.getConcurrencyMode(), concurrencyMode);
+                }
                 if (poolSize > pool.getReadConnectionPoolSize()) {
                     pringLog($url, $username, $password);
                     for (int i = 0, size = poolSize - pool.getReadConnectionPoolSize(); i < size; i++) {
@@ -70,21 +98,43 @@ public class SQLite3ConnectionManager {
             }
             pringLog($url, $username, $password);
             Connection writeConnection = DriverManager.getConnection($url, $username, $password);
+            ConcurrencyMode $concurrencyMode = concurrencyMode;
+            // journal_mode=WAL 持久化在数据库文件中, 在写连接上设置后对后续创建的连接均生效
+            if ($concurrencyMode == ConcurrencyMode.WAL && !enableWALJournalMode(writeConnection, dbFilePath)) {
+                $concurrencyMode = ConcurrencyMode.SERIALIZED;
+            }
             Connection[] readConnectionArr = new Connection[poolSize - 1];
             for (int i = 0 ; i < poolSize - 1; i++) {
                 readConnectionArr[i] = DriverManager.getConnection($url, $username, $password);;
             }
-            pool = new SQLite3ConnectionPool(writeConnection, readConnectionArr);
+            pool = new SQLite3ConnectionPool($concurrencyMode, writeConnection, readConnectionArr);
             POOL_MAP.put(dbFilePath, pool);
             return pool;
         } catch (Throwable throwable) {
             if (logger.isErrorEnabled()) {
                 logger.error("create sqlite connection failed.", throwable);
             }
+        } finally {
+            POOL_MAP_LOCK.unlock();
         }
         return null;
     }
 
+    private static boolean enableWALJournalMode(Connection connection, String dbFilePath) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA journal_mode=WAL")) {
+            String journalMode = resultSet.next() ? resultSet.getString(1) : null;
+            if ("wal".equalsIgnoreCase(journalMode)) {
+                return true;
+            }
+            if (logger.isWarnEnabled()) {
+                logger.warn("sqlite db [{}] enable WAL journal mode failed, current journal mode: {}, fallback to concurrency mode: {}"
+                        , dbFilePath, journalMode, ConcurrencyMode.SERIALIZED);
+            }
+            return false;
+        }
+    }
+
     private static void pringLog(String $url, String $username, String $password) {
         if (logger.isInfoEnabled()) {
             logger.info("create sqlite connection, url: {}, username: {}, password: {}", $url, $username, $password);
@@ -3,15 +3,19 @@ package io.github.jiashunx.tools.sqlite3.connection;
 import io.github.jiashunx.tools.sqlite3.exception.ConnectionStatusChangedException;
 import io.github.jiashunx.tools.sqlite3.exception.PoolStatusChangedException;
 import io.github.jiashunx.tools.sqlite3.function.VoidFunc;
+import io.github.jiashunx.tools.sqlite3.model.ConcurrencyMode;
 import io.github.jiashunx.tools.sqlite3.model.ConnectionPoolStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.LinkedList;
+import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
@@ -22,104 +26,113 @@ public class SQLite3ConnectionPool {
     private static final Logger logger = LoggerFactory.getLogger(SQLite3ConnectionPool.class);
 
     private static final AtomicInteger counter = new AtomicInteger(0);
+
+    /**
+     * 默认每个连接缓存的预编译语句数.
+     */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
     private final ReentrantReadWriteLock actionLock = new ReentrantReadWriteLock();
+    private final ReentrantLock poolLock = new ReentrantLock();
 
     private final String poolName;
 
-    private final LinkedList<SQLite3Connection> readConnectionPool = new LinkedList<>();
-    private int readConnectionPoolSize;
+    private final ConcurrencyMode concurrencyMode;
+
+    private volatile int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+
+    /**
+     * schema版本(DDL执行后递增, 用于失效连接缓存的预编译语句).
+     */
+    private final AtomicLong schemaVersion = new AtomicLong(0);
+
+    private final SQLite3ConnectionBag readConnectionBag = new SQLite3ConnectionBag();
     private volatile ConnectionPoolStatus readConnectionPoolStatus;
 
-    private final LinkedList<SQLite3Connection> writeConnectionPool = new LinkedList<>();
-    private final int writeConnectionPoolSize;
+    private final SQLite3ConnectionBag writeConnectionBag = new SQLite3ConnectionBag();
     private volatile ConnectionPoolStatus writeConnectionPoolStatus;
 
     public SQLite3ConnectionPool(Connection writeConnection, Connection... readConnectionArr) throws SQLException {
+        this(ConcurrencyMode.SERIALIZED, writeConnection, readConnectionArr);
+    }
+
+    public SQLite3ConnectionPool(ConcurrencyMode concurrencyMode, Connection writeConnection, Connection... readConnectionArr) throws SQLException {
         if (readConnectionArr.length == 0) {
             throw new IllegalArgumentException("there is no read-only connection");
         }
+        this.concurrencyMode = Objects.requireNonNull(concurrencyMode);
         this.poolName = "sqlite-pool-" + counter.incrementAndGet();
         SQLite3Connection _writeConnection = new SQLite3WriteOnlyConnection(this, Objects.requireNonNull(writeConnection));
         _writeConnection.setName(this.poolName + "-write-1");
-        this.writeConnectionPool.add(_writeConnection);
-        this.writeConnectionPoolSize = this.writeConnectionPool.size();
+        this.writeConnectionBag.add(_writeConnection);
         this.writeConnectionPoolStatus = ConnectionPoolStatus.RUNNING;
         for (int index = 0; index < readConnectionArr.length; index++) {
             Connection connection = Objects.requireNonNull(readConnectionArr[index]);
             SQLite3ReadOnlyConnection readConnection = new SQLite3ReadOnlyConnection(this, connection);
             readConnection.setName(this.poolName + "-read-" + (index + 1));
-            this.readConnectionPool.add(readConnection);
+            this.readConnectionBag.add(readConnection);
         }
-        this.readConnectionPoolSize = this.readConnectionPool.size();
         this.readConnectionPoolStatus = ConnectionPoolStatus.RUNNING;
     }
 
-    public synchronized void addConnection(Connection connection) throws PoolStatusChangedException {
-        readConnectionPoolStatusCheck();
-        if (connection != null) {
-            SQLite3ReadOnlyConnection _connection = new SQLite3ReadOnlyConnection(this, connection);
-            synchronized (readConnectionPool) {
-                _connection.setName(getPoolName() + "-read-" + (readConnectionPool.size() + 1));
-                readConnectionPool.addLast(_connection);
-                readConnectionPool.notifyAll();
-                readConnectionPoolSize++;
+    public void addConnection(Connection connection) throws PoolStatusChangedException {
+        poolLock.lock();
+        try {
+            readConnectionPoolStatusCheck();
+            if (connection != null) {
+                SQLite3ReadOnlyConnection _connection = new SQLite3ReadOnlyConnection(this, connection);
+                _connection.setName(getPoolName() + "-read-" + (readConnectionBag.size() + 1));
+                readConnectionBag.add(_connection);
             }
+        } finally {
+            poolLock.unlock();
         }
     }
 
     public int getReadConnectionPoolSize() {
-        return readConnectionPoolSize;
+        return readConnectionBag.size();
     }
 
     public void release(SQLite3Connection connection) {
         if (connection instanceof SQLite3ReadOnlyConnection) {
-            release(readConnectionPool, connection);
+            readConnectionBag.requite(connection);
             return;
         }
         if (connection instanceof SQLite3WriteOnlyConnection) {
-            release(writeConnectionPool, connection);
+            writeConnectionBag.requite(connection);
         }
     }
 
-    private void release(LinkedList<SQLite3Connection> pool, SQLite3Connection connection) {
-        if (pool != null && connection != null) {
-            synchronized (pool) {
-                // 连接释放后通知消费者连接池已归还连接
-                if (!pool.contains(connection)) {
-                    pool.addLast(connection);
-                }
-                pool.notifyAll();
-            }
-        }
-    }
-
-    public synchronized void close() throws InterruptedException, PoolStatusChangedException, ConnectionStatusChangedException {
-        synchronized (writeConnectionPool) {
+    public void close() throws InterruptedException, PoolStatusChangedException, ConnectionStatusChangedException {
+        poolLock.lockInterruptibly();
+        try {
             writeConnectionPoolStatus = ConnectionPoolStatus.CLOSING;
-            while (writeConnectionPool.size() != writeConnectionPoolSize) {
-                writeConnectionPool.wait();
-            }
-            for (SQLite3Connection connection: writeConnectionPool) {
-                connection.close();
-            }
+            closeConnections(writeConnectionBag);
             writeConnectionPoolStatus = ConnectionPoolStatus.SHUTDOWN;
-        }
-        synchronized (readConnectionPool) {
             readConnectionPoolStatus = ConnectionPoolStatus.CLOSING;
-            while (readConnectionPool.size() != readConnectionPoolSize) {
-                readConnectionPool.wait();
-            }
-            for (SQLite3Connection connection: readConnectionPool) {
+            closeConnections(readConnectionBag);
+            readConnectionPoolStatus = ConnectionPoolStatus.SHUTDOWN;
+        } finally {
+            poolLock.unlock();
+        }
+    }
+
+    private void closeConnections(SQLite3ConnectionBag bag) throws InterruptedException, ConnectionStatusChangedException {
+        // 逐个借出连接(等待使用中的连接归还)后移除并关闭
+        while (bag.size() > 0) {
+            SQLite3Connection connection = bag.borrow(0);
+            if (bag.remove(connection)) {
                 connection.close();
             }
-            readConnectionPoolStatus = ConnectionPoolStatus.SHUTDOWN;
         }
+        // 唤醒仍在等待连接的线程(重新检查连接池状态后抛出PoolStatusChangedException)
+        bag.close();
     }
 
     public SQLite3Connection fetchWriteConnection() throws PoolStatusChangedException {
         try {
             return fetchWriteConnection(0);
         } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
             if (logger.isErrorEnabled()) {
                 logger.error("fetch write connection from pool [{}] failed", getPoolName(), exception);
             }
@@ -128,13 +141,32 @@ public class SQLite3ConnectionPool {
     }
 
     public SQLite3Connection fetchWriteConnection(long timeoutMillis) throws InterruptedException, PoolStatusChangedException {
-        return fetchConnection(writeConnectionPool, timeoutMillis, this::writeConnectionPoolStatusCheck);
+        return fetchConnection(writeConnectionBag, TimeUnit.MILLISECONDS.toNanos(timeoutMillis), this::writeConnectionPoolStatusCheck);
+    }
+
+    /**
+     * 获取写连接(可响应中断).
+     * @param timeout 超时时间, 小于等于0时一直等待
+     * @return 超时未获取到连接时返回null
+     */
+    public SQLite3Connection fetchWriteConnection(Duration timeout) throws InterruptedException, PoolStatusChangedException {
+        return fetchConnection(writeConnectionBag, toNanos(timeout), this::writeConnectionPoolStatusCheck);
+    }
+
+    /**
+     * 尝试获取写连接(不等待).
+     * @return 写连接被占用时返回null
+     */
+    public SQLite3Connection tryFetchWriteConnection() throws PoolStatusChangedException {
+        writeConnectionPoolStatusCheck();
+        return checkBorrowed(writeConnectionBag, writeConnectionBag.tryBorrow(), this::writeConnectionPoolStatusCheck);
     }
 
     public SQLite3Connection fetchReadConnection() throws PoolStatusChangedException {
         try {
             return fetchReadConnection(0);
         } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
             if (logger.isErrorEnabled()) {
                 logger.error("fetch read connection from pool [{}] failed", getPoolName(), exception);
             }
@@ -143,33 +175,106 @@ public class SQLite3ConnectionPool {
     }
 
     public SQLite3Connection fetchReadConnection(long timeoutMillis) throws InterruptedException, PoolStatusChangedException {
-        return fetchConnection(readConnectionPool, timeoutMillis, this::readConnectionPoolStatusCheck);
+        return fetchConnection(readConnectionBag, TimeUnit.MILLISECONDS.toNanos(timeoutMillis), this::readConnectionPoolStatusCheck);
     }
 
-    private SQLite3Connection fetchConnection(LinkedList<SQLite3Connection> pool, long timeoutMillis, VoidFunc statusChecker)
+    /**
+     * 获取读连接(可响应中断).
+     * @param timeout 超时时间, 小于等于0时一直等待
+     * @return 超时未获取到连接时返回null
+     */
+    public SQLite3Connection fetchReadConnection(Duration timeout) throws InterruptedException, PoolStatusChangedException {
+        return fetchConnection(readConnectionBag, toNanos(timeout), this::readConnectionPoolStatusCheck);
+    }
+
+    private static long toNanos(Duration timeout) {
+        Objects.requireNonNull(timeout);
+        // 超出long范围时视为一直等待
+        return timeout.getSeconds() >= TimeUnit.NANOSECONDS.toSeconds(Long.MAX_VALUE) ? 0 : timeout.toNanos();
+    }
+
+    private SQLite3Connection fetchConnection(SQLite3ConnectionBag bag, long timeoutNanos, VoidFunc statusChecker)
             throws InterruptedException, PoolStatusChangedException {
-        synchronized (pool) {
-            if (timeoutMillis <= 0) {
-                while (pool.isEmpty()) {
-                    pool.wait();
-                }
-                statusChecker.apply();
-                return pool.removeFirst();
-            } else {
-                long future = System.currentTimeMillis() + timeoutMillis;
-                long remaining = timeoutMillis;
-                while (pool.isEmpty() && remaining > 0) {
-                    pool.wait(remaining);
-                    remaining = future - System.currentTimeMillis();
-                }
-                statusChecker.apply();
-                SQLite3Connection connection = null;
-                if (!pool.isEmpty()) {
-                    connection = pool.removeFirst();
-                }
-                return connection;
+        statusChecker.apply();
+        return checkBorrowed(bag, bag.borrow(timeoutNanos), statusChecker);
+    }
+
+    private static SQLite3Connection checkBorrowed(SQLite3ConnectionBag bag, SQLite3Connection connection, VoidFunc statusChecker)
+            throws PoolStatusChangedException {
+        try {
+            statusChecker.apply();
+        } catch (PoolStatusChangedException exception) {
+            // 等待期间连接池状态变更, 归还连接
+            if (connection != null) {
+                bag.requite(connection);
             }
+            throw exception;
+        }
+        return connection;
+    }
+
+    /**
+     * 等待获取读连接的线程数.
+     */
+    public int getReadConnectionWaitingThreadCount() {
+        return readConnectionBag.getWaitingThreadCount();
+    }
+
+    /**
+     * 等待获取写连接的线程数.
+     */
+    public int getWriteConnectionWaitingThreadCount() {
+        return writeConnectionBag.getWaitingThreadCount();
+    }
+
+    /**
+     * 设置每个连接缓存的预编译语句数, 小于等于0时不缓存.
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * 失效所有连接缓存的预编译语句(schema变更后调用).
+     */
+    public void invalidateStatementCache() {
+        schemaVersion.incrementAndGet();
+    }
+
+    long getSchemaVersion() {
+        return schemaVersion.get();
+    }
+
+    /**
+     * 所有连接语句缓存命中次数.
+     */
+    public long getStatementCacheHitCount() {
+        long count = 0;
+        for (SQLite3Connection connection: writeConnectionBag.values()) {
+            count += connection.getStatementCacheHitCount();
+        }
+        for (SQLite3Connection connection: readConnectionBag.values()) {
+            count += connection.getStatementCacheHitCount();
+        }
+        return count;
+    }
+
+    /**
+     * 所有连接语句缓存未命中次数.
+     */
+    public long getStatementCacheMissCount() {
+        long count = 0;
+        for (SQLite3Connection connection: writeConnectionBag.values()) {
+            count += connection.getStatementCacheMissCount();
         }
+        for (SQLite3Connection connection: readConnectionBag.values()) {
+            count += connection.getStatementCacheMissCount();
+        }
+        return count;
     }
 
     private void readConnectionPoolStatusCheck() throws PoolStatusChangedException {
@@ -194,6 +299,17 @@ public class SQLite3ConnectionPool {
         return poolName;
     }
 
+    public ConcurrencyMode getConcurrencyMode() {
+        return concurrencyMode;
+    }
+
+    /**
+     * 是否使用连接池全局读写锁控制读写操作(WAL模式下由sqlite自身控制并发).
+     */
+    public boolean isActionLockEnabled() {
+        return concurrencyMode == ConcurrencyMode.SERIALIZED;
+    }
+
     public ReentrantReadWriteLock getActionLock() {
         return actionLock;
     }
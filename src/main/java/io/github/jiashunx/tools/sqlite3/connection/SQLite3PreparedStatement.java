@@ -16,9 +16,23 @@ import java.util.Objects;
 public class SQLite3PreparedStatement implements AutoCloseable {
 
     private final PreparedStatement preparedStatement;
+    /**
+     * 语句所属连接的语句缓存(为null时关闭即释放语句).
+     */
+    private final SQLite3StatementCache statementCache;
+    private final String sql;
+    private final long schemaVersion;
+    private boolean returned;
 
     public SQLite3PreparedStatement(PreparedStatement preparedStatement) {
+        this(preparedStatement, null, null, 0);
+    }
+
+    SQLite3PreparedStatement(PreparedStatement preparedStatement, SQLite3StatementCache statementCache, String sql, long schemaVersion) {
         this.preparedStatement = Objects.requireNonNull(preparedStatement);
+        this.statementCache = statementCache;
+        this.sql = sql;
+        this.schemaVersion = schemaVersion;
     }
 
     public ResultSet executeQuery() throws SQLite3SQLException {
@@ -477,7 +491,17 @@ public class SQLite3PreparedStatement implements AutoCloseable {
         }
     }
 
+    /**
+     * 关闭语句, 由连接缓存的语句将归还至缓存(重复关闭将被忽略).
+     */
     public void close() throws SQLite3SQLException {
+        if (statementCache != null) {
+            if (!returned) {
+                returned = true;
+                statementCache.requite(sql, preparedStatement, schemaVersion);
+            }
+            return;
+        }
         try {
             preparedStatement.close();
         } catch (SQLException exception) {
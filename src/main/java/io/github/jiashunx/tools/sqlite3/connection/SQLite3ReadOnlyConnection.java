@@ -25,4 +25,9 @@ public class SQLite3ReadOnlyConnection extends SQLite3Connection {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public boolean tryWrite(Consumer<Connection> consumer) throws ConnectionStatusChangedException, UnsupportedOperationException {
+        throw new UnsupportedOperationException();
+    }
+
 }
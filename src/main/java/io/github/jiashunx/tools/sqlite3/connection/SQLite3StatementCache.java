@@ -0,0 +1,164 @@
+package io.github.jiashunx.tools.sqlite3.connection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 连接级预编译语句缓存(LRU, 以sql为key).
+ * <p>借用时将语句从缓存中移出, 归还时清除参数后放回, 同一sql同时被多次借用时仅缓存其中一个语句.
+ * 连接池schema版本变更后缓存中的语句全部失效.</p>
+ * @author jiashunx
+ */
+class SQLite3StatementCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SQLite3StatementCache.class);
+
+    private final SQLite3ConnectionPool connectionPool;
+    private final LinkedHashMap<String, PreparedStatement> statementMap = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+    private long schemaVersion;
+    private boolean closed;
+
+    SQLite3StatementCache(SQLite3ConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+        this.schemaVersion = connectionPool.getSchemaVersion();
+    }
+
+    /**
+     * 从缓存中取出语句, 未命中时返回null.
+     */
+    PreparedStatement borrow(String sql) {
+        if (connectionPool.getStatementCacheSize() <= 0) {
+            return null;
+        }
+        PreparedStatement statement;
+        lock.lock();
+        try {
+            checkSchemaVersion();
+            statement = statementMap.remove(sql);
+        } finally {
+            lock.unlock();
+        }
+        if (statement != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return statement;
+    }
+
+    /**
+     * 归还语句, 缓存已满时淘汰最久未使用的语句.
+     * @param schemaVersion 语句预编译时的schema版本
+     */
+    void requite(String sql, PreparedStatement statement, long schemaVersion) {
+        int maxSize = connectionPool.getStatementCacheSize();
+        boolean cached = false;
+        List<PreparedStatement> evictedList = new ArrayList<>(1);
+        if (maxSize > 0) {
+            try {
+                if (statement.isClosed()) {
+                    return;
+                }
+                statement.clearParameters();
+                statement.clearBatch();
+                lock.lock();
+                try {
+                    checkSchemaVersion();
+                    if (!closed && schemaVersion == this.schemaVersion && !statementMap.containsKey(sql)) {
+                        statementMap.put(sql, statement);
+                        cached = true;
+                        Iterator<PreparedStatement> iterator = statementMap.values().iterator();
+                        while (statementMap.size() > maxSize && iterator.hasNext()) {
+                            evictedList.add(iterator.next());
+                            iterator.remove();
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            } catch (SQLException exception) {
+                // 执行出错时驱动可能已释放语句(语句不可再使用), 不再缓存
+                if (logger.isDebugEnabled()) {
+                    logger.debug("reset prepared statement failed, sql: {}", sql, exception);
+                }
+            }
+        }
+        if (!cached) {
+            close(statement);
+        }
+        evictedList.forEach(SQLite3StatementCache::close);
+    }
+
+    /**
+     * 当前schema版本(预编译语句时记录).
+     */
+    long getSchemaVersion() {
+        return connectionPool.getSchemaVersion();
+    }
+
+    /**
+     * 关闭缓存中的所有语句, 关闭后归还的语句直接关闭.
+     */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getHitCount() {
+        return hitCount.get();
+    }
+
+    long getMissCount() {
+        return missCount.get();
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return statementMap.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkSchemaVersion() {
+        long currentSchemaVersion = connectionPool.getSchemaVersion();
+        if (currentSchemaVersion != schemaVersion) {
+            schemaVersion = currentSchemaVersion;
+            clear();
+        }
+    }
+
+    private void clear() {
+        statementMap.values().forEach(SQLite3StatementCache::close);
+        statementMap.clear();
+    }
+
+    private static void close(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException exception) {
+            if (logger.isErrorEnabled()) {
+                logger.error("close prepared statement failed.", exception);
+            }
+        }
+    }
+
+}
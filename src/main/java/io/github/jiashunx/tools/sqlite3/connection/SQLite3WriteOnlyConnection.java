@@ -3,6 +3,7 @@ package io.github.jiashunx.tools.sqlite3.connection;
 import io.github.jiashunx.tools.sqlite3.exception.ConnectionStatusChangedException;
 
 import java.sql.Connection;
+import java.util.concurrent.locks.Lock;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -24,4 +25,9 @@ public class SQLite3WriteOnlyConnection extends SQLite3Connection {
         return super.write(function);
     }
 
+    @Override
+    protected Lock getReadActionLock() {
+        return getConnectionPool().getActionWriteLock();
+    }
+
 }
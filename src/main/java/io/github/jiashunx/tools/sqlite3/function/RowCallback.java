@@ -0,0 +1,12 @@
+package io.github.jiashunx.tools.sqlite3.function;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 逐行处理查询结果(不缓存结果集, 不可在回调外持有ResultSet).
+ * @author jiashunx
+ */
+public interface RowCallback {
+    void processRow(ResultSet resultSet) throws SQLException;
+}
@@ -0,0 +1,27 @@
+package io.github.jiashunx.tools.sqlite3.mapping;
+
+import io.github.jiashunx.tools.sqlite3.model.CacheEvictionPolicy;
+import io.github.jiashunx.tools.sqlite3.model.EntityCacheOptions;
+
+import java.lang.annotation.*;
+
+/**
+ * SQLite3Service实体缓存配置(标注于SQLite3Service子类或实体类, 子类优先), 参见EntityCacheOptions.
+ * @author jiashunx
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface SQLite3Cache {
+    boolean enabled() default true;
+    CacheEvictionPolicy evictionPolicy() default CacheEvictionPolicy.LRU;
+    int maxSize() default 0;
+    long expireAfterWriteMillis() default 0;
+    long expireAfterAccessMillis() default 0;
+    int negativeMaxSize() default EntityCacheOptions.DEFAULT_NEGATIVE_MAX_SIZE;
+    long negativeExpireAfterWriteMillis() default 0;
+    long batchLoadWindowMicros() default 0;
+    int batchLoadMaxSize() default EntityCacheOptions.DEFAULT_BATCH_LOAD_MAX_SIZE;
+    long offHeapMaxBytes() default 0;
+}
@@ -0,0 +1,18 @@
+package io.github.jiashunx.tools.sqlite3.mapping;
+
+import io.github.jiashunx.tools.sqlite3.model.CacheIndexType;
+
+import java.lang.annotation.*;
+
+/**
+ * 实体缓存二级索引(标注于@SQLite3Column字段): 缓存全表数据后SQLite3Service.findBy/findByRange查询缓存索引, 不查询数据库.
+ * <p>仅对开启缓存且缓存不限制数量/不过期的SQLite3Service生效.</p>
+ * @author jiashunx
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface SQLite3Index {
+    CacheIndexType type() default CacheIndexType.HASH;
+}
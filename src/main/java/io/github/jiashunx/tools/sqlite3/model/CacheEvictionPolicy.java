@@ -0,0 +1,19 @@
+package io.github.jiashunx.tools.sqlite3.model;
+
+/**
+ * 实体缓存淘汰策略(缓存数量达到上限时).
+ * @author jiashunx
+ */
+public enum CacheEvictionPolicy {
+
+    /**
+     * 淘汰最久未访问的实体.
+     */
+    LRU,
+    /**
+     * W-TinyLFU: 新实体先进入容量1%的窗口区(LRU), 从窗口区淘汰的实体与主区最久未访问的实体比较访问频率(计数草图估算),
+     * 频率较高者保留在主区. 可避免一次性扫描大量不同ID时冲掉热点实体.
+     */
+    TINY_LFU;
+
+}
@@ -0,0 +1,18 @@
+package io.github.jiashunx.tools.sqlite3.model;
+
+/**
+ * 实体缓存二级索引类型.
+ * @author jiashunx
+ */
+public enum CacheIndexType {
+
+    /**
+     * 哈希索引(ConcurrentHashMap): 支持等值查询.
+     */
+    HASH,
+    /**
+     * 有序索引(ConcurrentSkipListMap): 支持等值及范围查询, 字段类型需实现Comparable.
+     */
+    SORTED;
+
+}
@@ -0,0 +1,222 @@
+package io.github.jiashunx.tools.sqlite3.model;
+
+import java.util.Arrays;
+
+/**
+ * 实体缓存统计快照(计数自缓存创建起累计).
+ * @author jiashunx
+ */
+public class CacheStats {
+
+    /**
+     * 加载耗时直方图各区间上限(微秒), 直方图最后一个区间为大于最后一个上限的加载次数.
+     */
+    private static final long[] LOAD_LATENCY_BUCKET_BOUNDS_MICROS = {100, 500, 1000, 5000, 10000, 50000, 100000, 500000, 1000000};
+
+    /**
+     * 命中实体次数.
+     */
+    private long hitCount;
+    /**
+     * 命中不存在的ID次数.
+     */
+    private long negativeHitCount;
+    /**
+     * 未命中次数.
+     */
+    private long missCount;
+    private long loadSuccessCount;
+    private long loadFailureCount;
+    private long totalLoadTimeNanos;
+    /**
+     * 加载耗时直方图(区间见getLoadLatencyBucketBoundsMicros).
+     */
+    private long[] loadLatencyHistogram;
+    /**
+     * 因数量上限淘汰的实体数.
+     */
+    private long evictionCount;
+    /**
+     * 因过期移除的实体数.
+     */
+    private long expirationCount;
+    private int size;
+    private int negativeSize;
+    /**
+     * 等待淘汰锁的时间(纳秒).
+     */
+    private long evictionLockWaitNanos;
+    /**
+     * 等待SQLite3Service缓存锁(entityCacheMapLock)的时间(纳秒).
+     */
+    private long entityCacheLockWaitNanos;
+
+    public static long[] getLoadLatencyBucketBoundsMicros() {
+        return LOAD_LATENCY_BUCKET_BOUNDS_MICROS.clone();
+    }
+
+    /**
+     * 加载耗时所在直方图区间.
+     */
+    public static int getLoadLatencyBucketIndex(long loadTimeNanos) {
+        long micros = loadTimeNanos / 1000;
+        for (int index = 0; index < LOAD_LATENCY_BUCKET_BOUNDS_MICROS.length; index++) {
+            if (micros <= LOAD_LATENCY_BUCKET_BOUNDS_MICROS[index]) {
+                return index;
+            }
+        }
+        return LOAD_LATENCY_BUCKET_BOUNDS_MICROS.length;
+    }
+
+    public static int getLoadLatencyBucketCount() {
+        return LOAD_LATENCY_BUCKET_BOUNDS_MICROS.length + 1;
+    }
+
+    public long getRequestCount() {
+        return hitCount + negativeHitCount + missCount;
+    }
+
+    /**
+     * 命中率(含命中不存在的ID), 无请求时为1.
+     */
+    public double getHitRate() {
+        long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double) (hitCount + negativeHitCount) / requestCount;
+    }
+
+    public long getLoadCount() {
+        return loadSuccessCount + loadFailureCount;
+    }
+
+    /**
+     * 平均加载耗时(纳秒).
+     */
+    public double getAverageLoadPenaltyNanos() {
+        long loadCount = getLoadCount();
+        return loadCount == 0 ? 0.0 : (double) totalLoadTimeNanos / loadCount;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public long getNegativeHitCount() {
+        return negativeHitCount;
+    }
+
+    public void setNegativeHitCount(long negativeHitCount) {
+        this.negativeHitCount = negativeHitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+
+    public long getLoadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    public void setLoadSuccessCount(long loadSuccessCount) {
+        this.loadSuccessCount = loadSuccessCount;
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    public void setLoadFailureCount(long loadFailureCount) {
+        this.loadFailureCount = loadFailureCount;
+    }
+
+    public long getTotalLoadTimeNanos() {
+        return totalLoadTimeNanos;
+    }
+
+    public void setTotalLoadTimeNanos(long totalLoadTimeNanos) {
+        this.totalLoadTimeNanos = totalLoadTimeNanos;
+    }
+
+    public long[] getLoadLatencyHistogram() {
+        return loadLatencyHistogram;
+    }
+
+    public void setLoadLatencyHistogram(long[] loadLatencyHistogram) {
+        this.loadLatencyHistogram = loadLatencyHistogram;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public void setEvictionCount(long evictionCount) {
+        this.evictionCount = evictionCount;
+    }
+
+    public long getExpirationCount() {
+        return expirationCount;
+    }
+
+    public void setExpirationCount(long expirationCount) {
+        this.expirationCount = expirationCount;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getNegativeSize() {
+        return negativeSize;
+    }
+
+    public void setNegativeSize(int negativeSize) {
+        this.negativeSize = negativeSize;
+    }
+
+    public long getEvictionLockWaitNanos() {
+        return evictionLockWaitNanos;
+    }
+
+    public void setEvictionLockWaitNanos(long evictionLockWaitNanos) {
+        this.evictionLockWaitNanos = evictionLockWaitNanos;
+    }
+
+    public long getEntityCacheLockWaitNanos() {
+        return entityCacheLockWaitNanos;
+    }
+
+    public void setEntityCacheLockWaitNanos(long entityCacheLockWaitNanos) {
+        this.entityCacheLockWaitNanos = entityCacheLockWaitNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hitCount=" + hitCount +
+                ", negativeHitCount=" + negativeHitCount +
+                ", missCount=" + missCount +
+                ", hitRate=" + getHitRate() +
+                ", loadSuccessCount=" + loadSuccessCount +
+                ", loadFailureCount=" + loadFailureCount +
+                ", averageLoadPenaltyNanos=" + getAverageLoadPenaltyNanos() +
+                ", loadLatencyHistogram=" + Arrays.toString(loadLatencyHistogram) +
+                ", evictionCount=" + evictionCount +
+                ", expirationCount=" + expirationCount +
+                ", size=" + size +
+                ", negativeSize=" + negativeSize +
+                ", evictionLockWaitNanos=" + evictionLockWaitNanos +
+                ", entityCacheLockWaitNanos=" + entityCacheLockWaitNanos +
+                '}';
+    }
+}
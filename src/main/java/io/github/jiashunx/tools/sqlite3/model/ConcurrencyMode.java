@@ -0,0 +1,18 @@
+package io.github.jiashunx.tools.sqlite3.model;
+
+/**
+ * 连接池读写并发模式.
+ * @author jiashunx
+ */
+public enum ConcurrencyMode {
+
+    /**
+     * 默认模式: 使用连接池全局读写锁, 写操作执行期间阻塞所有读操作.
+     */
+    SERIALIZED,
+    /**
+     * WAL模式: 开启journal_mode=WAL, 不使用连接池全局读写锁, 由sqlite自身控制并发(一写多读, 读操作读取快照数据).
+     */
+    WAL;
+
+}
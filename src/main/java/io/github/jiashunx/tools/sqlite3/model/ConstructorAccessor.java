@@ -0,0 +1,63 @@
+package io.github.jiashunx.tools.sqlite3.model;
+
+import io.github.jiashunx.tools.sqlite3.exception.SQLite3MappingException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.Objects;
+
+/**
+ * 无参构造方法访问器(基于MethodHandle, 替代Class.newInstance).
+ * <p>class无可访问的无参构造方法时, 创建实例时抛出异常.</p>
+ * @author jiashunx
+ */
+public class ConstructorAccessor<T> {
+
+    private final Class<T> klass;
+    /**
+     * ()Object
+     */
+    private final MethodHandle constructor;
+    private final Throwable cause;
+
+    public ConstructorAccessor(Class<T> klass) throws NullPointerException {
+        this.klass = Objects.requireNonNull(klass);
+        MethodHandle handle = null;
+        Throwable throwable = null;
+        try {
+            try {
+                handle = MethodHandles.privateLookupIn(klass, MethodHandles.lookup())
+                        .findConstructor(klass, MethodType.methodType(void.class));
+            } catch (IllegalAccessException exception) {
+                Constructor<T> declaredConstructor = klass.getDeclaredConstructor();
+                declaredConstructor.setAccessible(true);
+                handle = MethodHandles.lookup().unreflectConstructor(declaredConstructor);
+            }
+            handle = handle.asType(MethodType.methodType(Object.class));
+        } catch (Throwable exception) {
+            handle = null;
+            throwable = exception;
+        }
+        this.constructor = handle;
+        this.cause = throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T newInstance() throws SQLite3MappingException {
+        if (constructor == null) {
+            throw new SQLite3MappingException(String.format("create class [%s] instance failed.", klass.getName()), cause);
+        }
+        try {
+            return (T) (Object) constructor.invokeExact();
+        } catch (Throwable throwable) {
+            throw new SQLite3MappingException(String.format("create class [%s] instance failed.", klass.getName()), throwable);
+        }
+    }
+
+    public Class<T> getKlass() {
+        return klass;
+    }
+
+}
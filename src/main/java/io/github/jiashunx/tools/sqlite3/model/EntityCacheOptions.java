@@ -0,0 +1,146 @@
+package io.github.jiashunx.tools.sqlite3.model;
+
+/**
+ * 实体缓存配置.
+ * <p>maxSize/expireAfterWriteMillis/expireAfterAccessMillis小于等于0时表示不限制;
+ * 不限制数量且不过期的缓存在调用listAll后缓存全表数据.</p>
+ * <p>offHeapMaxBytes大于0时实体存储于堆外内存(按容量上限淘汰, 不使用evictionPolicy及maxSize),
+ * 全表数据超出容量上限(发生淘汰)时listAll直接查询数据库.</p>
+ * @author jiashunx
+ */
+public class EntityCacheOptions {
+
+    public static final int DEFAULT_NEGATIVE_MAX_SIZE = 10000;
+
+    public static final int DEFAULT_BATCH_LOAD_MAX_SIZE = 128;
+
+    /**
+     * 缓存淘汰策略.
+     */
+    private CacheEvictionPolicy evictionPolicy = CacheEvictionPolicy.LRU;
+    /**
+     * 最大缓存实体数.
+     */
+    private int maxSize;
+    /**
+     * 写入后过期时间(毫秒).
+     */
+    private long expireAfterWriteMillis;
+    /**
+     * 最后一次访问后过期时间(毫秒).
+     */
+    private long expireAfterAccessMillis;
+    /**
+     * 不存在的ID(查询未命中)最大缓存数, 小于等于0时不缓存.
+     */
+    private int negativeMaxSize = DEFAULT_NEGATIVE_MAX_SIZE;
+    /**
+     * 不存在的ID写入后过期时间(毫秒).
+     */
+    private long negativeExpireAfterWriteMillis;
+    /**
+     * 合并加载等待时间(微秒), 大于0时开启合并加载: 并发未命中的ID在等待时间内或达到合并加载最大ID数时合并为一次批量查询.
+     */
+    private long batchLoadWindowMicros;
+    /**
+     * 合并加载最大ID数.
+     */
+    private int batchLoadMaxSize = DEFAULT_BATCH_LOAD_MAX_SIZE;
+    /**
+     * 堆外缓存容量上限(字节), 大于0时开启堆外缓存.
+     */
+    private long offHeapMaxBytes;
+
+    /**
+     * 是否缓存全表数据(不限制数量且不过期).
+     */
+    public boolean isUnbounded() {
+        return maxSize <= 0 && expireAfterWriteMillis <= 0 && expireAfterAccessMillis <= 0;
+    }
+
+    /**
+     * 是否开启堆外缓存.
+     */
+    public boolean isOffHeapEnabled() {
+        return offHeapMaxBytes > 0;
+    }
+
+    public CacheEvictionPolicy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    public void setEvictionPolicy(CacheEvictionPolicy evictionPolicy) {
+        this.evictionPolicy = evictionPolicy;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getExpireAfterWriteMillis() {
+        return expireAfterWriteMillis;
+    }
+
+    public void setExpireAfterWriteMillis(long expireAfterWriteMillis) {
+        this.expireAfterWriteMillis = expireAfterWriteMillis;
+    }
+
+    public long getExpireAfterAccessMillis() {
+        return expireAfterAccessMillis;
+    }
+
+    public void setExpireAfterAccessMillis(long expireAfterAccessMillis) {
+        this.expireAfterAccessMillis = expireAfterAccessMillis;
+    }
+
+    public int getNegativeMaxSize() {
+        return negativeMaxSize;
+    }
+
+    public void setNegativeMaxSize(int negativeMaxSize) {
+        this.negativeMaxSize = negativeMaxSize;
+    }
+
+    /**
+     * 是否开启合并加载.
+     */
+    public boolean isBatchLoadEnabled() {
+        return batchLoadWindowMicros > 0;
+    }
+
+    public long getNegativeExpireAfterWriteMillis() {
+        return negativeExpireAfterWriteMillis;
+    }
+
+    public void setNegativeExpireAfterWriteMillis(long negativeExpireAfterWriteMillis) {
+        this.negativeExpireAfterWriteMillis = negativeExpireAfterWriteMillis;
+    }
+
+    public long getBatchLoadWindowMicros() {
+        return batchLoadWindowMicros;
+    }
+
+    public void setBatchLoadWindowMicros(long batchLoadWindowMicros) {
+        this.batchLoadWindowMicros = batchLoadWindowMicros;
+    }
+
+    public int getBatchLoadMaxSize() {
+        return batchLoadMaxSize;
+    }
+
+    public void setBatchLoadMaxSize(int batchLoadMaxSize) {
+        this.batchLoadMaxSize = batchLoadMaxSize;
+    }
+
+    public long getOffHeapMaxBytes() {
+        return offHeapMaxBytes;
+    }
+
+    public void setOffHeapMaxBytes(long offHeapMaxBytes) {
+        this.offHeapMaxBytes = offHeapMaxBytes;
+    }
+}
@@ -0,0 +1,221 @@
+package io.github.jiashunx.tools.sqlite3.model;
+
+import io.github.jiashunx.tools.sqlite3.exception.SQLite3MappingException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Objects;
+
+/**
+ * 字段访问器(基于MethodHandle, 创建时一次性完成访问权限检查).
+ * <p>基本类型字段提供对应类型的get/set方法, 读写时不发生装箱/拆箱.</p>
+ * @author jiashunx
+ */
+public class FieldAccessor {
+
+    private final Field field;
+    private final Class<?> fieldType;
+    /**
+     * (Object)Object
+     */
+    private final MethodHandle getter;
+    /**
+     * (Object,Object)void
+     */
+    private final MethodHandle setter;
+    /**
+     * (Object)fieldType
+     */
+    private final MethodHandle exactGetter;
+    /**
+     * (Object,fieldType)void
+     */
+    private final MethodHandle exactSetter;
+
+    public FieldAccessor(Field field) throws NullPointerException, SQLite3MappingException {
+        this.field = Objects.requireNonNull(field);
+        this.fieldType = field.getType();
+        try {
+            MethodHandle getterHandle, setterHandle;
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+                getterHandle = lookup.unreflectGetter(field);
+                setterHandle = lookup.unreflectSetter(field);
+            } catch (IllegalAccessException exception) {
+                // 模块未开放或final字段: 关闭访问检查后创建
+                field.setAccessible(true);
+                getterHandle = MethodHandles.lookup().unreflectGetter(field);
+                setterHandle = MethodHandles.lookup().unreflectSetter(field);
+            }
+            this.exactGetter = getterHandle.asType(MethodType.methodType(fieldType, Object.class));
+            this.exactSetter = setterHandle.asType(MethodType.methodType(void.class, Object.class, fieldType));
+            this.getter = getterHandle.asType(MethodType.methodType(Object.class, Object.class));
+            this.setter = setterHandle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (Throwable throwable) {
+            throw new SQLite3MappingException(String.format("create accessor of field [%s] failed.", field), throwable);
+        }
+    }
+
+    public Object get(Object target) throws SQLite3MappingException {
+        try {
+            return (Object) getter.invokeExact(target);
+        } catch (Throwable throwable) {
+            throw getFailed(throwable);
+        }
+    }
+
+    public void set(Object target, Object value) throws SQLite3MappingException {
+        try {
+            setter.invokeExact(target, value);
+        } catch (Throwable throwable) {
+            throw setFailed(throwable);
+        }
+    }
+
+    public boolean getBoolean(Object target) throws SQLite3MappingException {
+        try {
+            return (boolean) exactGetter.invokeExact(target);
+        } catch (Throwable throwable) {
+            throw getFailed(throwable);
+        }
+    }
+
+    public void setBoolean(Object target, boolean value) throws SQLite3MappingException {
+        try {
+            exactSetter.invokeExact(target, value);
+        } catch (Throwable throwable) {
+            throw setFailed(throwable);
+        }
+    }
+
+    public byte getByte(Object target) throws SQLite3MappingException {
+        try {
+            return (byte) exactGetter.invokeExact(target);
+        } catch (Throwable throwable) {
+            throw getFailed(throwable);
+        }
+    }
+
+    public void setByte(Object target, byte value) throws SQLite3MappingException {
+        try {
+            exactSetter.invokeExact(target, value);
+        } catch (Throwable throwable) {
+            throw setFailed(throwable);
+        }
+    }
+
+    public short getShort(Object target) throws SQLite3MappingException {
+        try {
+            return (short) exactGetter.invokeExact(target);
+        } catch (Throwable throwable) {
+            throw getFailed(throwable);
+        }
+    }
+
+    public void setShort(Object target, short value) throws SQLite3MappingException {
+        try {
+            exactSetter.invokeExact(target, value);
+        } catch (Throwable throwable) {
+            throw setFailed(throwable);
+        }
+    }
+
+    public char getChar(Object target) throws SQLite3MappingException {
+        try {
+            return (char) exactGetter.invokeExact(target);
+        } catch (Throwable throwable) {
+            throw getFailed(throwable);
+        }
+    }
+
+    public void setChar(Object target, char value) throws SQLite3MappingException {
+        try {
+            exactSetter.invokeExact(target, value);
+        } catch (Throwable throwable) {
+            throw setFailed(throwable);
+        }
+    }
+
+    public int getInt(Object target) throws SQLite3MappingException {
+        try {
+            return (int) exactGetter.invokeExact(target);
+        } catch (Throwable throwable) {
+            throw getFailed(throwable);
+        }
+    }
+
+    public void setInt(Object target, int value) throws SQLite3MappingException {
+        try {
+            exactSetter.invokeExact(target, value);
+        } catch (Throwable throwable) {
+            throw setFailed(throwable);
+        }
+    }
+
+    public long getLong(Object target) throws SQLite3MappingException {
+        try {
+            return (long) exactGetter.invokeExact(target);
+        } catch (Throwable throwable) {
+            throw getFailed(throwable);
+        }
+    }
+
+    public void setLong(Object target, long value) throws SQLite3MappingException {
+        try {
+            exactSetter.invokeExact(target, value);
+        } catch (Throwable throwable) {
+            throw setFailed(throwable);
+        }
+    }
+
+    public float getFloat(Object target) throws SQLite3MappingException {
+        try {
+            return (float) exactGetter.invokeExact(target);
+        } catch (Throwable throwable) {
+            throw getFailed(throwable);
+        }
+    }
+
+    public void setFloat(Object target, float value) throws SQLite3MappingException {
+        try {
+            exactSetter.invokeExact(target, value);
+        } catch (Throwable throwable) {
+            throw setFailed(throwable);
+        }
+    }
+
+    public double getDouble(Object target) throws SQLite3MappingException {
+        try {
+            return (double) exactGetter.invokeExact(target);
+        } catch (Throwable throwable) {
+            throw getFailed(throwable);
+        }
+    }
+
+    public void setDouble(Object target, double value) throws SQLite3MappingException {
+        try {
+            exactSetter.invokeExact(target, value);
+        } catch (Throwable throwable) {
+            throw setFailed(throwable);
+        }
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public Class<?> getFieldType() {
+        return fieldType;
+    }
+
+    private SQLite3MappingException getFailed(Throwable throwable) {
+        return new SQLite3MappingException(String.format("get field [%s] value failed.", field), throwable);
+    }
+
+    private SQLite3MappingException setFailed(Throwable throwable) {
+        return new SQLite3MappingException(String.format("set field [%s] value failed.", field), throwable);
+    }
+
+}
@@ -1,5 +1,7 @@
 package io.github.jiashunx.tools.sqlite3.model;
 
+import io.github.jiashunx.tools.sqlite3.exception.SQLite3MappingException;
+
 import java.util.Map;
 
 /**
@@ -7,6 +9,7 @@ import java.util.Map;
  */
 public class QueryRetClassModel {
     private Class<?> klass;
+    private ConstructorAccessor<?> constructorAccessor;
     private Map<String, QueryRetColumnModel> retColumnModelMap;
 
     public Class<?> getKlass() {
@@ -15,6 +18,11 @@ public class QueryRetClassModel {
 
     public void setKlass(Class<?> klass) {
         this.klass = klass;
+        this.constructorAccessor = new ConstructorAccessor<>(klass);
+    }
+
+    public Object newInstance() throws SQLite3MappingException {
+        return constructorAccessor.newInstance();
     }
 
     public Map<String, QueryRetColumnModel> getRetColumnModelMap() {
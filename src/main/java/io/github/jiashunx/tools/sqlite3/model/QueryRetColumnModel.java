@@ -14,11 +14,11 @@ public class QueryRetColumnModel {
     private String fieldName;
     private Class<?> fieldType;
     private Field field;
+    private FieldAccessor fieldAccessor;
 
     public void setFieldValue(Object object, Object value) {
         try {
-            field.setAccessible(true);
-            field.set(object, value);
+            fieldAccessor.set(object, value);
         } catch (Throwable throwable) {
             throw new SQLite3MappingException(String.format(
                     "set class[%s] field[%s] value faile.", klassName, fieldName), throwable);
@@ -63,5 +63,10 @@ public class QueryRetColumnModel {
 
     public void setField(Field field) {
         this.field = field;
+        this.fieldAccessor = new FieldAccessor(field);
+    }
+
+    public FieldAccessor getFieldAccessor() {
+        return fieldAccessor;
     }
 }
@@ -16,11 +16,11 @@ public class TableColumnModel {
     private String fieldName;
     private Class<?> fieldType;
     private Field field;
+    private FieldAccessor fieldAccessor;
 
     public Object getFieldValue(Object object) {
         try {
-            field.setAccessible(true);
-            return field.get(object);
+            return fieldAccessor.get(object);
         } catch (Throwable throwable) {
             throw new SQLite3MappingException(String.format(
                     "get field %s[class: %s, table: %s] value failed.", fieldName, klassName, tableName), throwable);
@@ -81,5 +81,10 @@ public class TableColumnModel {
 
     public void setField(Field field) {
         this.field = field;
+        this.fieldAccessor = new FieldAccessor(field);
+    }
+
+    public FieldAccessor getFieldAccessor() {
+        return fieldAccessor;
     }
 }
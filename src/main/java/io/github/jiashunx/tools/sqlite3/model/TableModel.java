@@ -2,9 +2,9 @@ package io.github.jiashunx.tools.sqlite3.model;
 
 import io.github.jiashunx.tools.sqlite3.exception.SQLite3MappingException;
 
-import java.lang.reflect.Field;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
@@ -15,6 +15,10 @@ public class TableModel {
      * class对象.
      */
     private Class<?> klass;
+    /**
+     * 无参构造方法访问器.
+     */
+    private ConstructorAccessor<?> constructorAccessor;
     /**
      * class名称.
      */
@@ -41,7 +45,59 @@ public class TableModel {
      */
     private Map<String, ColumnMetadata> columnMetadata;
 
+    /**
+     * 缓存的sql(字段模型确定后不再变化, 首次获取时生成).
+     */
+    private volatile String insertSQL;
+    private volatile String updateSQL;
+    private volatile String selectAllSQL;
+    private volatile String selectSQL;
+    private volatile String deleteSQL;
+    private volatile String upsertSQL;
+    private volatile String insertOrIgnoreSQL;
+    /**
+     * 多行插入sql(按单条sql插入的行数缓存).
+     */
+    private final Map<Integer, String> multiRowInsertSQLMap = new ConcurrentHashMap<>();
+    /**
+     * 按ID批量查询sql(按ID个数缓存).
+     */
+    private final Map<Integer, String> selectByIdsSQLMap = new ConcurrentHashMap<>();
+
     public String getInsertSQL() {
+        String sql = insertSQL;
+        if (sql == null) {
+            insertSQL = sql = buildInsertSQL();
+        }
+        return sql;
+    }
+
+    /**
+     * 多行插入sql: INSERT INTO t(c1..cn) VALUES(?..),(?..)...
+     * @param rowCount 单条sql插入的行数
+     */
+    public String getInsertSQL(int rowCount) {
+        if (rowCount <= 0) {
+            throw new IllegalArgumentException("row count must be positive");
+        }
+        if (rowCount == 1) {
+            return getInsertSQL();
+        }
+        return multiRowInsertSQLMap.computeIfAbsent(rowCount, this::buildMultiRowInsertSQL);
+    }
+
+    private String buildMultiRowInsertSQL(int rowCount) {
+        String insertSQL = getInsertSQL();
+        String valuesSQL = insertSQL.substring(insertSQL.lastIndexOf(" VALUES(") + " VALUES".length());
+        StringBuilder builder = new StringBuilder(insertSQL.length() + (valuesSQL.length() + 1) * (rowCount - 1));
+        builder.append(insertSQL);
+        for (int index = 1; index < rowCount; index++) {
+            builder.append(",").append(valuesSQL);
+        }
+        return builder.toString();
+    }
+
+    private String buildInsertSQL() {
         StringBuilder builder = new StringBuilder("INSERT INTO ");
         builder.append(tableName).append("(");
         columnModelList.forEach(columnModel -> {
@@ -58,6 +114,14 @@ public class TableModel {
     }
 
     public String getUpdateSQL() {
+        String sql = updateSQL;
+        if (sql == null) {
+            updateSQL = sql = buildUpdateSQL();
+        }
+        return sql;
+    }
+
+    private String buildUpdateSQL() {
         StringBuilder builder = new StringBuilder("UPDATE ");
         builder.append(tableName).append(" SET ");
         columnModelList.forEach(columnModel -> {
@@ -71,8 +135,48 @@ public class TableModel {
         return builder.toString();
     }
 
+    /**
+     * 插入或更新sql: INSERT ... ON CONFLICT(id) DO UPDATE SET ...(sqlite 3.24.0及以上版本支持, 主键字段须有主键或唯一约束).
+     * <p>参数顺序与插入sql一致.</p>
+     */
+    public String getUpsertSQL() {
+        String sql = upsertSQL;
+        if (sql == null) {
+            StringBuilder builder = new StringBuilder(getInsertSQL());
+            builder.append(" ON CONFLICT(").append(idColumnModel.getColumnName()).append(") DO ");
+            if (columnModelList.size() == 1) {
+                builder.append("NOTHING");
+            } else {
+                builder.append("UPDATE SET ");
+                columnModelList.forEach(columnModel -> {
+                    if (!columnModel.isIdColumn()) {
+                        builder.append(columnModel.getColumnName()).append("=excluded.").append(columnModel.getColumnName()).append(",");
+                    }
+                });
+                builder.deleteCharAt(builder.length() - 1);
+            }
+            upsertSQL = sql = builder.toString();
+        }
+        return sql;
+    }
+
+    /**
+     * 插入或忽略sql: INSERT OR IGNORE INTO ...(约束冲突时不插入, 参数顺序与插入sql一致).
+     */
+    public String getInsertOrIgnoreSQL() {
+        String sql = insertOrIgnoreSQL;
+        if (sql == null) {
+            insertOrIgnoreSQL = sql = "INSERT OR IGNORE" + getInsertSQL().substring("INSERT".length());
+        }
+        return sql;
+    }
+
     public String getSelectAllSQL() {
-        return getSelectAllSQL(builder -> {});
+        String sql = selectAllSQL;
+        if (sql == null) {
+            selectAllSQL = sql = getSelectAllSQL(builder -> {});
+        }
+        return sql;
     }
 
     public String getSelectAllSQL(Consumer<StringBuilder> consumer) {
@@ -82,7 +186,11 @@ public class TableModel {
     }
 
     public String getSelectSQL() {
-        return getSelectSQL(builder -> {});
+        String sql = selectSQL;
+        if (sql == null) {
+            selectSQL = sql = getSelectSQL(builder -> {});
+        }
+        return sql;
     }
 
     public String getSelectSQL(Consumer<StringBuilder> consumer) {
@@ -91,8 +199,37 @@ public class TableModel {
         return builder.toString();
     }
 
+    /**
+     * 按ID批量查询sql: SELECT * FROM t WHERE id IN (?,?...)
+     * @param idCount ID个数
+     */
+    public String getSelectByIdsSQL(int idCount) {
+        if (idCount <= 0) {
+            throw new IllegalArgumentException("id count must be positive");
+        }
+        return selectByIdsSQLMap.computeIfAbsent(idCount, count -> {
+            StringBuilder builder = new StringBuilder(getSelectAllSQL() + "WHERE " + idColumnModel.getColumnName() + " IN (");
+            for (int index = 0; index < count; index++) {
+                builder.append(index == 0 ? "?" : ",?");
+            }
+            return builder.append(")").toString();
+        });
+    }
+
+    /**
+     * 关联ID临时表查询sql: SELECT t.* FROM t INNER JOIN idTable i ON t.id=i.idColumn
+     */
+    public String getSelectJoinIdsSQL(String idTableName, String idColumnName) {
+        return "SELECT T.* FROM " + tableName + " T INNER JOIN " + idTableName + " I ON T."
+                + idColumnModel.getColumnName() + "=I." + idColumnName;
+    }
+
     public String getDeleteSQL() {
-        return getDeleteSQL(builder -> {});
+        String sql = deleteSQL;
+        if (sql == null) {
+            deleteSQL = sql = getDeleteSQL(builder -> {});
+        }
+        return sql;
     }
 
     public String getDeleteSQL(Consumer<StringBuilder> consumer) {
@@ -103,20 +240,16 @@ public class TableModel {
 
     public Object newInstance() {
         try {
-            return klass.newInstance();
+            return constructorAccessor.newInstance();
+        } catch (SQLite3MappingException exception) {
+            throw exception;
         } catch (Throwable throwable) {
             throw new SQLite3MappingException(String.format("create class [%s] instance failed.", klassName), throwable);
         }
     }
 
     public Object getIdFieldValue(Object object) {
-        Field idField = idColumnModel.getField();
-        try {
-            idField.setAccessible(true);
-            return idField.get(object);
-        } catch (Throwable throwable) {
-            throw new SQLite3MappingException(String.format("get id field[%s] value faild.", idField), throwable);
-        }
+        return idColumnModel.getFieldAccessor().get(object);
     }
 
     public Class<?> getKlass() {
@@ -125,6 +258,7 @@ public class TableModel {
 
     public void setKlass(Class<?> klass) {
         this.klass = klass;
+        this.constructorAccessor = new ConstructorAccessor<>(klass);
     }
 
     public String getKlassName() {
@@ -0,0 +1,18 @@
+package io.github.jiashunx.tools.sqlite3.model;
+
+/**
+ * 异步写操作的确认时机.
+ * @author jiashunx
+ */
+public enum WriteAckMode {
+
+    /**
+     * 写任务进入队列后即完成(结果为java.sql.Statement.SUCCESS_NO_INFO, 执行失败仅记录日志).
+     */
+    ON_ENQUEUE,
+    /**
+     * 写任务所在事务提交后完成(结果为实际影响行数).
+     */
+    ON_COMMIT;
+
+}
@@ -0,0 +1,18 @@
+package io.github.jiashunx.tools.sqlite3.model;
+
+/**
+ * 写任务队列已满时的处理策略.
+ * @author jiashunx
+ */
+public enum WriteQueueFullPolicy {
+
+    /**
+     * 阻塞提交线程直至队列有空闲位置.
+     */
+    BLOCK,
+    /**
+     * 拒绝写任务(返回异常完成的CompletableFuture).
+     */
+    REJECT;
+
+}
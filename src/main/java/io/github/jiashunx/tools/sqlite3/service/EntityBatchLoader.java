@@ -0,0 +1,153 @@
+package io.github.jiashunx.tools.sqlite3.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 合并加载器: 多个线程并发加载不同ID时, 在等待时间内或达到最大ID数时合并为一次批量加载.
+ * <p>每批首个加载的线程负责执行批量加载(等待时间结束或批次已满后执行), 其他线程等待加载结果, 不使用额外线程.</p>
+ * @author jiashunx
+ */
+public class EntityBatchLoader<K, V> {
+
+    private final Function<List<K>, Map<K, V>> batchFunction;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * 批次已满(唤醒等待中的首个加载线程).
+     */
+    private final Condition batchFull = lock.newCondition();
+    /**
+     * 当前收集ID的批次(由lock保护).
+     */
+    private Batch<K, V> currentBatch;
+
+    /**
+     * @param batchFunction 批量加载(返回已存在的ID与值映射)
+     * @param windowMicros 等待时间(微秒)
+     * @param maxBatchSize 单批最大ID数
+     */
+    public EntityBatchLoader(Function<List<K>, Map<K, V>> batchFunction, long windowMicros, int maxBatchSize)
+            throws NullPointerException, IllegalArgumentException {
+        if (windowMicros <= 0) {
+            throw new IllegalArgumentException("batch load window must be positive");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("batch load max size must be positive");
+        }
+        this.batchFunction = Objects.requireNonNull(batchFunction);
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * 加载(阻塞至所在批次加载完成), ID不存在时返回null.
+     */
+    public V load(K key) {
+        Objects.requireNonNull(key);
+        Batch<K, V> batch;
+        CompletableFuture<V> future;
+        boolean leader = false;
+        lock.lock();
+        try {
+            batch = currentBatch;
+            if (batch == null) {
+                batch = currentBatch = new Batch<>();
+                leader = true;
+            }
+            future = batch.futureMap.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (batch.futureMap.size() >= maxBatchSize) {
+                // 批次已满: 结束等待, 立即执行
+                seal(batch);
+                batchFull.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (leader) {
+            awaitWindow(batch);
+            batch.execute(batchFunction);
+        }
+        return await(future);
+    }
+
+    /**
+     * 等待批次收集结束(等待时间结束或批次已满).
+     */
+    private void awaitWindow(Batch<K, V> batch) {
+        boolean interrupted = false;
+        lock.lock();
+        try {
+            long remaining = windowNanos;
+            while (!batch.sealed && remaining > 0) {
+                try {
+                    remaining = batchFull.awaitNanos(remaining);
+                } catch (InterruptedException exception) {
+                    // 中断时立即执行批次, 结束后恢复中断状态
+                    interrupted = true;
+                    break;
+                }
+            }
+            seal(batch);
+        } finally {
+            lock.unlock();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void seal(Batch<K, V> batch) {
+        batch.sealed = true;
+        if (currentBatch == batch) {
+            currentBatch = null;
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(exception);
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    private static class Batch<K, V> {
+        private final Map<K, CompletableFuture<V>> futureMap = new LinkedHashMap<>();
+        private boolean sealed;
+
+        /**
+         * 执行批量加载(批次收集结束后调用, futureMap不再变化).
+         */
+        private void execute(Function<List<K>, Map<K, V>> batchFunction) {
+            try {
+                Map<K, V> valueMap = batchFunction.apply(new ArrayList<>(futureMap.keySet()));
+                futureMap.forEach((key, future) -> future.complete(valueMap.get(key)));
+            } catch (Throwable throwable) {
+                futureMap.values().forEach(future -> future.completeExceptionally(throwable));
+            }
+        }
+    }
+
+}
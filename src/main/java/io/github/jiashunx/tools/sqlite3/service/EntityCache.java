@@ -0,0 +1,984 @@
+package io.github.jiashunx.tools.sqlite3.service;
+
+import io.github.jiashunx.tools.sqlite3.model.CacheEvictionPolicy;
+import io.github.jiashunx.tools.sqlite3.model.CacheStats;
+import io.github.jiashunx.tools.sqlite3.model.EntityCacheOptions;
+import io.github.jiashunx.tools.sqlite3.util.SQLite3EntityCodec;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 实体缓存(按ID缓存实体, 支持数量上限淘汰及过期), 同时维护有数量上限的不存在ID缓存(查询未命中的ID).
+ * <p>读取缓存不加锁(访问记录写入有损环形缓冲区, 由获取到淘汰锁的线程批量回放至淘汰策略);
+ * 未命中时同一ID仅由一个线程加载, 其他线程等待其加载结果. 过期实体在访问时移除, 亦可调用cleanUp主动清理.</p>
+ * <p>写穿透: 写操作在数据库写入前调用beginWrite, 写入后调用completeWrite/abortWrite, 数据库写入期间不持有缓存锁.
+ * 每个ID维护版本号(写入开始及结束时递增), 加载结果仅在加载期间该ID无写入时才写入缓存, 因此并发加载查询到的旧数据不会覆盖新写入的数据;
+ * 同一ID存在并发写入时, 写入结束后移除该ID的缓存(由下次查询重新加载).</p>
+ * <p>开启堆外缓存(EntityCacheOptions.offHeapMaxBytes)时实体存储于堆外内存(OffHeapEntityStore), 每次读取返回新解码的实体对象.</p>
+ * @author jiashunx
+ */
+public class EntityCache<K, V> {
+
+    private final EntityCacheOptions options;
+    private final EntityStore<K, V> store;
+    private final Store<K, Boolean> negativeStore;
+    /**
+     * 加载中的ID.
+     */
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loadingMap = new ConcurrentHashMap<>();
+    /**
+     * 写入中或加载中的ID的状态(写入及加载均结束后移除), 同一ID的状态变更及缓存发布在compute中原子执行.
+     */
+    private final ConcurrentHashMap<K, KeyState> keyStateMap = new ConcurrentHashMap<>();
+    /**
+     * 写入序号(任意ID写入开始及结束时递增).
+     */
+    private final AtomicLong writeSequence = new AtomicLong(0);
+    /**
+     * 清空次数(invalidateAll时递增): 清空前开始的加载在清空后不写入缓存.
+     */
+    private final AtomicLong clearEpoch = new AtomicLong(0);
+    /**
+     * 进行中的写入数(beginWrite时递增, 写入结束时递减).
+     */
+    private final AtomicInteger pendingWriteCount = new AtomicInteger(0);
+    /**
+     * 统计计数(仅统计get(key, loader)/getAll的调用).
+     */
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder negativeHitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadTimeNanos = new LongAdder();
+    private final LongAdder[] loadLatencyHistogram = new LongAdder[CacheStats.getLoadLatencyBucketCount()];
+    /**
+     * 二级索引(写入/移除/清空缓存时维护).
+     */
+    private final List<EntityIndex<K, V>> indexList = new CopyOnWriteArrayList<>();
+
+    public EntityCache(EntityCacheOptions options) throws NullPointerException {
+        this(options, null);
+    }
+
+    /**
+     * @param codec 实体编解码器(开启堆外缓存时不可为null)
+     */
+    public EntityCache(EntityCacheOptions options, SQLite3EntityCodec codec) throws NullPointerException {
+        this.options = Objects.requireNonNull(options);
+        this.store = options.isOffHeapEnabled()
+                ? new OffHeapEntityStore<>(Objects.requireNonNull(codec), options.getOffHeapMaxBytes()
+                        , options.getExpireAfterWriteMillis(), options.getExpireAfterAccessMillis(), this::onRemoval)
+                : new Store<>(options.getEvictionPolicy(), options.getMaxSize()
+                        , options.getExpireAfterWriteMillis(), options.getExpireAfterAccessMillis(), this::onRemoval);
+        this.negativeStore = options.getNegativeMaxSize() > 0
+                ? new Store<>(CacheEvictionPolicy.LRU, options.getNegativeMaxSize(), options.getNegativeExpireAfterWriteMillis(), 0, null)
+                : null;
+        for (int index = 0; index < loadLatencyHistogram.length; index++) {
+            loadLatencyHistogram[index] = new LongAdder();
+        }
+    }
+
+    /**
+     * 获取缓存的实体, 未缓存或已过期时返回null(不计入命中统计).
+     */
+    public V get(K key) {
+        return store.get(Objects.requireNonNull(key));
+    }
+
+    /**
+     * 获取缓存的实体, 未缓存时调用loader加载(同一ID同时仅加载一次), loader返回null时缓存为不存在的ID.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = store.get(Objects.requireNonNull(key));
+        if (value != null) {
+            hitCount.increment();
+            return value;
+        }
+        if (isNegativeCached(key)) {
+            negativeHitCount.increment();
+            return null;
+        }
+        missCount.increment();
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> loadingFuture = loadingMap.putIfAbsent(key, future);
+        if (loadingFuture != null) {
+            return await(loadingFuture);
+        }
+        try {
+            value = store.get(key);
+            if (value == null && !isNegativeCached(key)) {
+                value = load(key, loader);
+            }
+            future.complete(value);
+            return value;
+        } catch (Throwable throwable) {
+            future.completeExceptionally(throwable);
+            throw throwable;
+        } finally {
+            loadingMap.remove(key, future);
+        }
+    }
+
+    /**
+     * 加载并在加载期间该ID无写入时写入缓存.
+     */
+    private V load(K key, Function<? super K, ? extends V> loader) {
+        long epoch = clearEpoch.get();
+        long stamp = beginLoad(key);
+        V value = null;
+        boolean loaded = false;
+        long startTime = System.nanoTime();
+        try {
+            value = loader.apply(key);
+            loaded = true;
+            return value;
+        } finally {
+            recordLoad(System.nanoTime() - startTime, loaded);
+            endLoad(key, value, stamp, epoch, loaded);
+        }
+    }
+
+    /**
+     * 批量获取缓存的实体, 未缓存的ID调用loader批量加载(loader返回查询到的ID与实体映射),
+     * 加载期间无写入的ID写入缓存, 不存在的ID缓存为不存在.
+     * @return ID与实体映射(按keys顺序, 不含不存在的ID)
+     */
+    public Map<K, V> getAll(Collection<? extends K> keys, Function<? super List<K>, ? extends Map<K, V>> loader) {
+        Map<K, V> cachedMap = new HashMap<>();
+        Set<K> missingKeySet = new LinkedHashSet<>();
+        for (K key: keys) {
+            if (cachedMap.containsKey(Objects.requireNonNull(key)) || missingKeySet.contains(key)) {
+                continue;
+            }
+            V value = store.get(key);
+            if (value != null) {
+                hitCount.increment();
+                cachedMap.put(key, value);
+            } else if (isNegativeCached(key)) {
+                negativeHitCount.increment();
+            } else {
+                missCount.increment();
+                missingKeySet.add(key);
+            }
+        }
+        if (!missingKeySet.isEmpty()) {
+            List<K> missingKeyList = new ArrayList<>(missingKeySet);
+            long epoch = clearEpoch.get();
+            long[] stamps = new long[missingKeyList.size()];
+            for (int index = 0; index < stamps.length; index++) {
+                stamps[index] = beginLoad(missingKeyList.get(index));
+            }
+            Map<K, V> loadedMap = null;
+            long startTime = System.nanoTime();
+            try {
+                loadedMap = loader.apply(missingKeyList);
+            } finally {
+                recordLoad(System.nanoTime() - startTime, loadedMap != null);
+                for (int index = 0; index < stamps.length; index++) {
+                    K key = missingKeyList.get(index);
+                    endLoad(key, loadedMap == null ? null : loadedMap.get(key), stamps[index], epoch, loadedMap != null);
+                }
+            }
+            loadedMap.forEach((key, value) -> {
+                if (value != null && missingKeySet.contains(key)) {
+                    cachedMap.put(key, value);
+                }
+            });
+        }
+        Map<K, V> retMap = new LinkedHashMap<>();
+        for (K key: keys) {
+            V value = cachedMap.get(key);
+            if (value != null) {
+                retMap.put(key, value);
+            }
+        }
+        return retMap;
+    }
+
+    private void recordLoad(long loadTimeNanos, boolean success) {
+        (success ? loadSuccessCount : loadFailureCount).increment();
+        totalLoadTimeNanos.add(loadTimeNanos);
+        loadLatencyHistogram[CacheStats.getLoadLatencyBucketIndex(loadTimeNanos)].increment();
+    }
+
+    /**
+     * 统计快照(entityCacheLockWaitNanos由SQLite3Service填充).
+     */
+    public CacheStats stats() {
+        CacheStats cacheStats = new CacheStats();
+        cacheStats.setHitCount(hitCount.sum());
+        cacheStats.setNegativeHitCount(negativeHitCount.sum());
+        cacheStats.setMissCount(missCount.sum());
+        cacheStats.setLoadSuccessCount(loadSuccessCount.sum());
+        cacheStats.setLoadFailureCount(loadFailureCount.sum());
+        cacheStats.setTotalLoadTimeNanos(totalLoadTimeNanos.sum());
+        long[] histogram = new long[loadLatencyHistogram.length];
+        for (int index = 0; index < histogram.length; index++) {
+            histogram[index] = loadLatencyHistogram[index].sum();
+        }
+        cacheStats.setLoadLatencyHistogram(histogram);
+        cacheStats.setEvictionCount(store.getEvictionCount());
+        cacheStats.setExpirationCount(store.getExpirationCount());
+        cacheStats.setSize(size());
+        cacheStats.setNegativeSize(negativeSize());
+        cacheStats.setEvictionLockWaitNanos(store.getEvictionLockWaitNanos()
+                + (negativeStore == null ? 0 : negativeStore.getEvictionLockWaitNanos()));
+        return cacheStats;
+    }
+
+    /**
+     * 开始加载, 返回加载时的版本号(加载开始时该ID存在写入则返回-1).
+     */
+    private long beginLoad(K key) {
+        long[] stamp = new long[1];
+        keyStateMap.compute(key, (k, state) -> {
+            if (state == null) {
+                state = new KeyState();
+            }
+            state.loaders++;
+            stamp[0] = state.pendingWrites > 0 ? -1 : state.version;
+            return state;
+        });
+        return stamp[0];
+    }
+
+    /**
+     * 结束加载: 加载成功且加载期间该ID无写入、缓存未清空时写入缓存(value为null表示不存在).
+     */
+    private void endLoad(K key, V value, long stamp, long epoch, boolean loaded) {
+        keyStateMap.computeIfPresent(key, (k, state) -> {
+            if (loaded && stamp >= 0 && state.pendingWrites == 0 && state.version == stamp && clearEpoch.get() == epoch) {
+                publish(k, value);
+                // 写入后再次检查: 与invalidateAll并发时移除写入的数据
+                if (clearEpoch.get() != epoch) {
+                    invalidate(k);
+                }
+            }
+            state.loaders--;
+            return state.isIdle() ? null : state;
+        });
+    }
+
+    /**
+     * 开始写入(数据库写入前调用), 返回版本号(completeWrite时传入).
+     */
+    public long beginWrite(K key) {
+        long[] stamp = new long[1];
+        keyStateMap.compute(Objects.requireNonNull(key), (k, state) -> {
+            if (state == null) {
+                state = new KeyState();
+            }
+            state.pendingWrites++;
+            pendingWriteCount.incrementAndGet();
+            stamp[0] = ++state.version;
+            writeSequence.incrementAndGet();
+            return state;
+        });
+        return stamp[0];
+    }
+
+    /**
+     * 结束写入(数据库写入成功后调用): 写入期间该ID无其他写入时发布写入结果(value为null表示已删除), 否则移除该ID的缓存.
+     * @return 是否已发布写入结果
+     */
+    public boolean completeWrite(K key, V value, long stamp) {
+        return completeWrite(key, value, stamp, false);
+    }
+
+    /**
+     * 结束更新(数据库更新成功后调用): 同completeWrite, 但仅替换已缓存的实体(未缓存或已缓存为不存在时保持不变, 更新语句未匹配到记录时缓存保持正确).
+     * @return 是否已发布更新结果
+     */
+    public boolean completeUpdate(K key, V value, long stamp) {
+        return completeWrite(key, Objects.requireNonNull(value), stamp, true);
+    }
+
+    private boolean completeWrite(K key, V value, long stamp, boolean cachedOnly) {
+        boolean[] published = new boolean[1];
+        keyStateMap.compute(Objects.requireNonNull(key), (k, state) -> {
+            if (state == null) {
+                // 未调用beginWrite
+                invalidate(k);
+                return null;
+            }
+            state.pendingWrites--;
+            pendingWriteCount.decrementAndGet();
+            published[0] = state.pendingWrites == 0 && state.version == stamp;
+            if (published[0]) {
+                if (!cachedOnly) {
+                    publish(k, value);
+                } else if (store.contains(k)) {
+                    updateIndex(k, value);
+                    store.put(k, value);
+                }
+            } else {
+                invalidate(k);
+            }
+            state.version++;
+            writeSequence.incrementAndGet();
+            return state.isIdle() ? null : state;
+        });
+        return published[0];
+    }
+
+    /**
+     * 结束写入(数据库写入失败后调用): 移除该ID的缓存.
+     */
+    public void abortWrite(K key) {
+        keyStateMap.compute(Objects.requireNonNull(key), (k, state) -> {
+            invalidate(k);
+            if (state == null) {
+                return null;
+            }
+            state.pendingWrites--;
+            pendingWriteCount.decrementAndGet();
+            state.version++;
+            writeSequence.incrementAndGet();
+            return state.isIdle() ? null : state;
+        });
+    }
+
+    /**
+     * 写入序号(批量加载前获取, 传入putIfNotWrittenSince).
+     */
+    public long getWriteSequence() {
+        return writeSequence.get();
+    }
+
+    /**
+     * 进行中的写入数(已调用beginWrite但未结束的写入).
+     */
+    public int getPendingWriteCount() {
+        return pendingWriteCount.get();
+    }
+
+    /**
+     * 自获取写入序号后无任何写入开始或结束时写入缓存(用于批量加载).
+     * @return 是否已写入缓存
+     */
+    public boolean putIfNotWrittenSince(K key, V value, long writeSequence) {
+        boolean[] published = new boolean[1];
+        keyStateMap.compute(Objects.requireNonNull(key), (k, state) -> {
+            published[0] = this.writeSequence.get() == writeSequence;
+            if (published[0]) {
+                put(k, value);
+                // 写入后再次检查: 与invalidateAll(递增写入序号)并发时移除写入的数据
+                if (this.writeSequence.get() != writeSequence) {
+                    invalidate(k);
+                    published[0] = false;
+                }
+            }
+            return state;
+        });
+        return published[0];
+    }
+
+    private void publish(K key, V value) {
+        if (value == null) {
+            putNegative(key);
+        } else {
+            put(key, value);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(exception);
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+
+    /**
+     * ID是否已缓存为不存在.
+     */
+    public boolean isNegativeCached(K key) {
+        return negativeStore != null && negativeStore.get(Objects.requireNonNull(key)) != null;
+    }
+
+    public void put(K key, V value) {
+        Objects.requireNonNull(key);
+        if (negativeStore != null) {
+            negativeStore.remove(key);
+        }
+        // 先更新索引后写入: 写入时淘汰(或未准入)的实体由移除回调移除索引
+        updateIndex(key, Objects.requireNonNull(value));
+        store.put(key, value);
+    }
+
+    public void putAll(Map<K, V> map) {
+        map.forEach(this::put);
+    }
+
+    /**
+     * 缓存不存在的ID.
+     */
+    public void putNegative(K key) {
+        Objects.requireNonNull(key);
+        store.remove(key);
+        updateIndex(key, null);
+        if (negativeStore != null) {
+            negativeStore.put(key, Boolean.TRUE);
+        }
+    }
+
+    public void invalidate(K key) {
+        Objects.requireNonNull(key);
+        store.remove(key);
+        updateIndex(key, null);
+        if (negativeStore != null) {
+            negativeStore.remove(key);
+        }
+    }
+
+    /**
+     * 清空缓存(清空前开始的加载在清空后不写入缓存).
+     */
+    public void invalidateAll() {
+        clearEpoch.incrementAndGet();
+        writeSequence.incrementAndGet();
+        store.clear();
+        indexList.forEach(EntityIndex::clear);
+        if (negativeStore != null) {
+            negativeStore.clear();
+        }
+    }
+
+    /**
+     * 存储淘汰或过期移除实体后回调(持有存储的锁): 移除索引.
+     */
+    private void onRemoval(K key) {
+        updateIndex(key, null);
+    }
+
+    private void updateIndex(K key, V value) {
+        if (indexList.isEmpty()) {
+            return;
+        }
+        for (EntityIndex<K, V> index: indexList) {
+            index.update(key, value);
+        }
+    }
+
+    /**
+     * 添加二级索引(缓存为空时添加).
+     */
+    void addIndex(EntityIndex<K, V> index) {
+        indexList.add(Objects.requireNonNull(index));
+    }
+
+    /**
+     * 字段二级索引中的实体数(未添加索引时返回-1).
+     */
+    public int getIndexSize(String columnName) {
+        EntityIndex<K, V> index = getIndex(columnName);
+        return index == null ? -1 : index.size();
+    }
+
+    /**
+     * 获取字段的二级索引, 未添加时返回null.
+     */
+    EntityIndex<K, V> getIndex(String columnName) {
+        for (EntityIndex<K, V> index: indexList) {
+            if (index.getColumnName().equals(columnName)) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 清理已过期的缓存.
+     */
+    public void cleanUp() {
+        store.cleanUp();
+        if (negativeStore != null) {
+            negativeStore.cleanUp();
+        }
+    }
+
+    /**
+     * 缓存实体列表(副本, 不保证顺序).
+     */
+    public List<V> values() {
+        return store.values();
+    }
+
+    /**
+     * 遍历缓存实体(不复制, 弱一致性: 遍历期间的修改可能可见也可能不可见, 不保证顺序).
+     */
+    public void forEach(Consumer<? super V> action) {
+        store.forEach(Objects.requireNonNull(action));
+    }
+
+    /**
+     * 缓存实体修改次数(写入/移除/淘汰/清空时递增, 用于判断缓存实体是否变化).
+     */
+    public long getModificationCount() {
+        return store.getModificationCount();
+    }
+
+    /**
+     * 淘汰数(含因超出容量上限未写入的实体).
+     */
+    public long getEvictionCount() {
+        return store.getEvictionCount();
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    public int negativeSize() {
+        return negativeStore == null ? 0 : negativeStore.size();
+    }
+
+    public EntityCacheOptions getOptions() {
+        return options;
+    }
+
+    private static class KeyState {
+        private int pendingWrites;
+        private int loaders;
+        private long version;
+
+        private boolean isIdle() {
+            return pendingWrites == 0 && loaders == 0;
+        }
+    }
+
+    private static class Node<T> {
+        private final T value;
+        private final long writeTime;
+        private volatile long accessTime;
+
+        private Node(T value, long writeTime) {
+            this.value = value;
+            this.writeTime = writeTime;
+            this.accessTime = writeTime;
+        }
+    }
+
+    private static class Store<K, T> implements EntityStore<K, T> {
+        private final ConcurrentHashMap<K, Node<T>> data = new ConcurrentHashMap<>();
+        private final ReentrantLock evictionLock = new ReentrantLock();
+        private final ReadBuffer<K> readBuffer = new ReadBuffer<>();
+        /**
+         * 修改次数(修改数据后递增).
+         */
+        private final AtomicLong modificationCount = new AtomicLong(0);
+        private final LongAdder evictionCount = new LongAdder();
+        private final LongAdder expirationCount = new LongAdder();
+        private final LongAdder evictionLockWaitNanos = new LongAdder();
+        /**
+         * 不限制数量时为null.
+         */
+        private final EvictionPolicy<K> policy;
+        private final long expireAfterWriteNanos;
+        private final long expireAfterAccessNanos;
+        /**
+         * 淘汰或过期移除实体后回调(可为null).
+         */
+        private final Consumer<K> removalListener;
+
+        private Store(CacheEvictionPolicy evictionPolicy, int maxSize, long expireAfterWriteMillis, long expireAfterAccessMillis
+                , Consumer<K> removalListener) {
+            if (maxSize <= 0) {
+                this.policy = null;
+            } else if (evictionPolicy == CacheEvictionPolicy.TINY_LFU) {
+                this.policy = new TinyLfuPolicy<>(maxSize);
+            } else {
+                this.policy = new LruPolicy<>(maxSize);
+            }
+            this.expireAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(expireAfterWriteMillis, 0));
+            this.expireAfterAccessNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(expireAfterAccessMillis, 0));
+            this.removalListener = removalListener;
+        }
+
+        private void onRemoval(K key) {
+            if (removalListener != null) {
+                removalListener.accept(key);
+            }
+        }
+
+        @Override
+        public T get(K key) {
+            Node<T> node = data.get(key);
+            if (node == null) {
+                return null;
+            }
+            long now = System.nanoTime();
+            if (isExpired(node, now)) {
+                expire(key, node);
+                return null;
+            }
+            if (expireAfterAccessNanos > 0) {
+                node.accessTime = now;
+            }
+            if (policy != null) {
+                // 缓冲区写满一段或获取到淘汰锁时回放访问记录, 不阻塞读取
+                if (readBuffer.offer(key) && evictionLock.tryLock()) {
+                    try {
+                        drainReadBuffer();
+                    } finally {
+                        evictionLock.unlock();
+                    }
+                }
+            }
+            return node.value;
+        }
+
+        /**
+         * 回放访问记录(持有淘汰锁时调用).
+         */
+        private void drainReadBuffer() {
+            readBuffer.drainTo(key -> {
+                if (data.containsKey(key)) {
+                    policy.onAccess(key);
+                }
+            });
+        }
+
+        @Override
+        public boolean contains(K key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public void put(K key, T value) {
+            Node<T> node = new Node<>(value, System.nanoTime());
+            if (policy == null) {
+                data.put(key, node);
+                modificationCount.incrementAndGet();
+                return;
+            }
+            lockEviction();
+            try {
+                drainReadBuffer();
+                if (data.put(key, node) != null) {
+                    policy.onAccess(key);
+                    return;
+                }
+                K evictedKey = policy.onInsert(key);
+                if (evictedKey != null && data.remove(evictedKey) != null) {
+                    evictionCount.increment();
+                    onRemoval(evictedKey);
+                }
+            } finally {
+                modificationCount.incrementAndGet();
+                evictionLock.unlock();
+            }
+        }
+
+        @Override
+        public void remove(K key) {
+            if (policy == null) {
+                if (data.remove(key) != null) {
+                    modificationCount.incrementAndGet();
+                }
+                return;
+            }
+            lockEviction();
+            try {
+                if (data.remove(key) != null) {
+                    policy.onRemove(key);
+                    modificationCount.incrementAndGet();
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+
+        /**
+         * 移除已过期的实体.
+         */
+        private void expire(K key, Node<T> node) {
+            if (policy == null) {
+                if (data.remove(key, node)) {
+                    expirationCount.increment();
+                    modificationCount.incrementAndGet();
+                    onRemoval(key);
+                }
+                return;
+            }
+            lockEviction();
+            try {
+                if (data.remove(key, node)) {
+                    policy.onRemove(key);
+                    expirationCount.increment();
+                    modificationCount.incrementAndGet();
+                    onRemoval(key);
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+
+        /**
+         * 获取淘汰锁(未能立即获取时统计等待时间).
+         */
+        private void lockEviction() {
+            if (!evictionLock.tryLock()) {
+                long startTime = System.nanoTime();
+                evictionLock.lock();
+                evictionLockWaitNanos.add(System.nanoTime() - startTime);
+            }
+        }
+
+        @Override
+        public void clear() {
+            lockEviction();
+            try {
+                data.clear();
+                if (policy != null) {
+                    policy.clear();
+                }
+            } finally {
+                modificationCount.incrementAndGet();
+                evictionLock.unlock();
+            }
+        }
+
+        @Override
+        public void cleanUp() {
+            if (expireAfterWriteNanos <= 0 && expireAfterAccessNanos <= 0) {
+                return;
+            }
+            long now = System.nanoTime();
+            data.forEach((key, node) -> {
+                if (isExpired(node, now)) {
+                    expire(key, node);
+                }
+            });
+        }
+
+        @Override
+        public List<T> values() {
+            List<T> valueList = new ArrayList<>(data.size());
+            long now = System.nanoTime();
+            data.values().forEach(node -> {
+                if (!isExpired(node, now)) {
+                    valueList.add(node.value);
+                }
+            });
+            return valueList;
+        }
+
+        @Override
+        public void forEach(Consumer<? super T> action) {
+            long now = System.nanoTime();
+            data.values().forEach(node -> {
+                if (!isExpired(node, now)) {
+                    action.accept(node.value);
+                }
+            });
+        }
+
+        @Override
+        public int size() {
+            return data.size();
+        }
+
+        @Override
+        public long getModificationCount() {
+            return modificationCount.get();
+        }
+
+        @Override
+        public long getEvictionCount() {
+            return evictionCount.sum();
+        }
+
+        @Override
+        public long getExpirationCount() {
+            return expirationCount.sum();
+        }
+
+        @Override
+        public long getEvictionLockWaitNanos() {
+            return evictionLockWaitNanos.sum();
+        }
+
+        private boolean isExpired(Node<T> node, long now) {
+            return (expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos)
+                    || (expireAfterAccessNanos > 0 && now - node.accessTime >= expireAfterAccessNanos);
+        }
+    }
+
+    /**
+     * 有损环形访问记录缓冲区: 写入不加锁, 缓冲区写满后覆盖未回放的记录(仅影响淘汰精度).
+     */
+    private static class ReadBuffer<K> {
+        private static final int SIZE = 256;
+        private static final int MASK = SIZE - 1;
+        /**
+         * 每写入DRAIN_THRESHOLD条记录尝试回放一次.
+         */
+        private static final int DRAIN_THRESHOLD = 32;
+        private final AtomicReferenceArray<K> buffer = new AtomicReferenceArray<>(SIZE);
+        private final AtomicLong writeCounter = new AtomicLong(0);
+
+        /**
+         * 写入访问记录, 返回是否需要回放.
+         */
+        private boolean offer(K key) {
+            long index = writeCounter.getAndIncrement();
+            buffer.lazySet((int) (index & MASK), key);
+            return (index & (DRAIN_THRESHOLD - 1)) == 0;
+        }
+
+        private void drainTo(Consumer<K> consumer) {
+            for (int index = 0; index < SIZE; index++) {
+                K key = buffer.getAndSet(index, null);
+                if (key != null) {
+                    consumer.accept(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * 淘汰策略(由Store在evictionLock内调用).
+     */
+    private interface EvictionPolicy<K> {
+        void onAccess(K key);
+        /**
+         * 记录新增的key, 超出数量上限时返回需淘汰的key(可能为新增的key本身).
+         */
+        K onInsert(K key);
+        void onRemove(K key);
+        void clear();
+    }
+
+    private static class LruPolicy<K> implements EvictionPolicy<K> {
+        private final int maxSize;
+        private final LinkedHashMap<K, Boolean> accessOrder = new LinkedHashMap<>(16, 0.75f, true);
+
+        private LruPolicy(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public void onAccess(K key) {
+            accessOrder.get(key);
+        }
+
+        @Override
+        public K onInsert(K key) {
+            accessOrder.put(key, Boolean.TRUE);
+            return accessOrder.size() > maxSize ? removeEldest(accessOrder) : null;
+        }
+
+        @Override
+        public void onRemove(K key) {
+            accessOrder.remove(key);
+        }
+
+        @Override
+        public void clear() {
+            accessOrder.clear();
+        }
+    }
+
+    private static class TinyLfuPolicy<K> implements EvictionPolicy<K> {
+        private final int windowMaxSize;
+        private final int mainMaxSize;
+        private final LinkedHashMap<K, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<K, Boolean> main = new LinkedHashMap<>(16, 0.75f, true);
+        private final FrequencySketch sketch;
+
+        private TinyLfuPolicy(int maxSize) {
+            this.windowMaxSize = Math.max(1, maxSize / 100);
+            this.mainMaxSize = maxSize - windowMaxSize;
+            this.sketch = new FrequencySketch(maxSize);
+        }
+
+        @Override
+        public void onAccess(K key) {
+            sketch.increment(key);
+            if (window.get(key) == null) {
+                main.get(key);
+            }
+        }
+
+        @Override
+        public K onInsert(K key) {
+            sketch.increment(key);
+            window.put(key, Boolean.TRUE);
+            if (window.size() <= windowMaxSize) {
+                return null;
+            }
+            K candidate = removeEldest(window);
+            if (main.size() < mainMaxSize) {
+                main.put(candidate, Boolean.TRUE);
+                return null;
+            }
+            if (mainMaxSize == 0) {
+                return candidate;
+            }
+            K victim = main.keySet().iterator().next();
+            // 准入: 候选者访问频率高于主区淘汰者时替换
+            if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+                main.remove(victim);
+                main.put(candidate, Boolean.TRUE);
+                return victim;
+            }
+            return candidate;
+        }
+
+        @Override
+        public void onRemove(K key) {
+            if (window.remove(key) == null) {
+                main.remove(key);
+            }
+        }
+
+        @Override
+        public void clear() {
+            window.clear();
+            main.clear();
+            sketch.clear();
+        }
+    }
+
+    private static <K> K removeEldest(LinkedHashMap<K, Boolean> map) {
+        Iterator<K> iterator = map.keySet().iterator();
+        K key = iterator.next();
+        iterator.remove();
+        return key;
+    }
+
+}
@@ -0,0 +1,49 @@
+package io.github.jiashunx.tools.sqlite3.service;
+
+/**
+ * SQLite3Service实体缓存JMX管理接口(参见SQLite3Service.registerCacheMBean).
+ * @author jiashunx
+ */
+public interface EntityCacheMXBean {
+
+    long getHitCount();
+
+    long getNegativeHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+
+    long getLoadSuccessCount();
+
+    long getLoadFailureCount();
+
+    double getAverageLoadPenaltyNanos();
+
+    /**
+     * 加载耗时直方图区间上限(微秒).
+     */
+    long[] getLoadLatencyBucketBoundsMicros();
+
+    long[] getLoadLatencyHistogram();
+
+    long getEvictionCount();
+
+    long getExpirationCount();
+
+    int getSize();
+
+    int getNegativeSize();
+
+    int getMaxSize();
+
+    long getEvictionLockWaitNanos();
+
+    long getEntityCacheLockWaitNanos();
+
+    /**
+     * 清理已过期的缓存.
+     */
+    void cleanUp();
+
+}
@@ -0,0 +1,216 @@
+package io.github.jiashunx.tools.sqlite3.service;
+
+import io.github.jiashunx.tools.sqlite3.exception.SQLite3Exception;
+import io.github.jiashunx.tools.sqlite3.exception.SQLite3MappingException;
+import io.github.jiashunx.tools.sqlite3.util.SQLite3EntityCodec;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * 实体缓存快照文件.
+ * <p>文件格式: 魔数, 格式版本, 实体字段布局签名, 水位(user_version及数据表版本号), 是否为全表数据, 实体数,
+ * 实体列表(4字节长度 + SQLite3EntityCodec编码数据), 末尾为以上内容的CRC32校验值.
+ * 写入时先写临时文件再替换目标文件; 读取时通过文件映射(mmap)解码, 不读入中间数组.</p>
+ * @author jiashunx
+ */
+public class EntityCacheSnapshot {
+
+    private static final int MAGIC = 0x53513343;
+    private static final int FORMAT_VERSION = 1;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private String signature;
+    private long userVersion;
+    private long tableVersion;
+    private boolean fullTable;
+    private int entityCount;
+    /**
+     * 实体列表数据(读取快照文件时为文件映射内存).
+     */
+    private ByteBuffer entityBuffer;
+
+    /**
+     * 水位是否一致(快照导出后数据库未修改).
+     */
+    public boolean isWatermarkMatched(EntityCacheSnapshot snapshot) {
+        return snapshot != null && userVersion == snapshot.userVersion && tableVersion == snapshot.tableVersion;
+    }
+
+    /**
+     * 写入快照文件.
+     */
+    public void write(Path file, Collection<?> entities, SQLite3EntityCodec codec) throws NullPointerException, SQLite3Exception {
+        Objects.requireNonNull(file);
+        Objects.requireNonNull(codec);
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE
+                    , StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                CRC32 crc = new CRC32();
+                ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+                buffer.putInt(MAGIC).putInt(FORMAT_VERSION);
+                SQLite3EntityCodec.writeString(buffer, codec.getSignature());
+                buffer.putLong(userVersion).putLong(tableVersion).put((byte) (fullTable ? 1 : 0)).putInt(entities.size());
+                for (Object entity: entities) {
+                    ByteBuffer data = codec.encode(entity);
+                    if (buffer.remaining() < 4 + data.remaining()) {
+                        flush(channel, buffer, crc);
+                    }
+                    buffer.putInt(data.remaining());
+                    if (buffer.remaining() < data.remaining()) {
+                        // 超过写缓冲区大小的实体直接写入
+                        flush(channel, buffer, crc);
+                        write(channel, data, crc);
+                    } else {
+                        buffer.put(data);
+                    }
+                }
+                flush(channel, buffer, crc);
+                buffer.putLong(crc.getValue());
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException exception) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException exception) {
+            throw new SQLite3Exception(String.format("write entity cache snapshot [%s] failed.", file), exception);
+        }
+    }
+
+    /**
+     * 写出写缓冲区中的数据并清空写缓冲区.
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+        buffer.flip();
+        write(channel, buffer, crc);
+        buffer.clear();
+    }
+
+    private static void write(FileChannel channel, ByteBuffer data, CRC32 crc) throws IOException {
+        crc.update(data.duplicate());
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    /**
+     * 读取快照文件(文件映射), 文件不存在、格式版本不一致或校验失败时返回null.
+     */
+    public static EntityCacheSnapshot read(Path file) throws NullPointerException, SQLite3Exception {
+        if (!Files.exists(Objects.requireNonNull(file))) {
+            return null;
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException exception) {
+            throw new SQLite3Exception(String.format("read entity cache snapshot [%s] failed.", file), exception);
+        }
+        int length = buffer.capacity() - 8;
+        if (length < 8 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(length));
+        if (crc.getValue() != buffer.getLong(length)) {
+            return null;
+        }
+        try {
+            EntityCacheSnapshot snapshot = new EntityCacheSnapshot();
+            snapshot.setSignature(SQLite3EntityCodec.readString(buffer));
+            snapshot.setUserVersion(buffer.getLong());
+            snapshot.setTableVersion(buffer.getLong());
+            snapshot.setFullTable(buffer.get() != 0);
+            snapshot.setEntityCount(buffer.getInt());
+            snapshot.entityBuffer = buffer.limit(length).slice();
+            return snapshot;
+        } catch (BufferUnderflowException | IllegalArgumentException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * 逐个解码快照中的实体.
+     */
+    public void forEach(SQLite3EntityCodec codec, Consumer<Object> action) throws NullPointerException, SQLite3MappingException {
+        Objects.requireNonNull(codec);
+        Objects.requireNonNull(action);
+        if (entityBuffer == null) {
+            return;
+        }
+        ByteBuffer buffer = entityBuffer.duplicate();
+        for (int index = 0; index < entityCount; index++) {
+            int length = buffer.getInt();
+            int end = buffer.position() + length;
+            Object entity = codec.decode(buffer);
+            if (buffer.position() != end) {
+                throw new SQLite3MappingException(String.format("entity cache snapshot corrupted, entity index: %d", index));
+            }
+            action.accept(entity);
+        }
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public void setSignature(String signature) {
+        this.signature = signature;
+    }
+
+    public long getUserVersion() {
+        return userVersion;
+    }
+
+    public void setUserVersion(long userVersion) {
+        this.userVersion = userVersion;
+    }
+
+    public long getTableVersion() {
+        return tableVersion;
+    }
+
+    public void setTableVersion(long tableVersion) {
+        this.tableVersion = tableVersion;
+    }
+
+    public boolean isFullTable() {
+        return fullTable;
+    }
+
+    public void setFullTable(boolean fullTable) {
+        this.fullTable = fullTable;
+    }
+
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    public void setEntityCount(int entityCount) {
+        this.entityCount = entityCount;
+    }
+
+}
@@ -0,0 +1,227 @@
+package io.github.jiashunx.tools.sqlite3.service;
+
+import io.github.jiashunx.tools.sqlite3.exception.SQLite3MappingException;
+import io.github.jiashunx.tools.sqlite3.model.CacheIndexType;
+import io.github.jiashunx.tools.sqlite3.model.FieldAccessor;
+import io.github.jiashunx.tools.sqlite3.model.TableColumnModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 实体缓存二级索引: 字段值与缓存实体ID集合映射(字段值为null的实体不索引), 由EntityCache在写入/移除/清空缓存时维护.
+ * <p>更新索引与写入缓存之间存在短暂不一致: 查询索引得到ID后需读取缓存实体并再次校验字段值(isMatched/isInRange).
+ * 实体因淘汰/过期移除时由存储的移除回调移除其索引(参见EntityStore), 索引不保留已移除实体的ID.</p>
+ * @author jiashunx
+ */
+class EntityIndex<K, V> {
+
+    /**
+     * 数值类型查询值转换为字段类型.
+     */
+    private static final Map<Class<?>, NumberConverter> NUMBER_CONVERTERS = Map.of(
+            Byte.class, Number::byteValue,
+            Short.class, Number::shortValue,
+            Integer.class, Number::intValue,
+            Long.class, Number::longValue,
+            Float.class, Number::floatValue,
+            Double.class, Number::doubleValue
+    );
+
+    private final String columnName;
+    private final FieldAccessor accessor;
+    private final CacheIndexType type;
+    /**
+     * ID与已索引的字段值映射(更新/移除时查找旧字段值).
+     */
+    private final ConcurrentHashMap<K, Object> keyValueMap = new ConcurrentHashMap<>();
+    /**
+     * 字段值与ID集合映射(有序索引为ConcurrentSkipListMap).
+     */
+    private final ConcurrentMap<Object, Set<K>> valueKeyMap;
+
+    EntityIndex(TableColumnModel columnModel, CacheIndexType type) throws NullPointerException, SQLite3MappingException {
+        Class<?> valueType = getValueType(columnModel.getFieldType());
+        if (valueType.isArray()) {
+            throw new SQLite3MappingException(String.format("table[%s] field[%s] type [%s] not supported by entity index"
+                    , columnModel.getTableName(), columnModel.getFieldName(), valueType.getName()));
+        }
+        if (type == CacheIndexType.SORTED && !Comparable.class.isAssignableFrom(valueType)) {
+            throw new SQLite3MappingException(String.format("table[%s] field[%s] type [%s] not comparable, not supported by sorted entity index"
+                    , columnModel.getTableName(), columnModel.getFieldName(), valueType.getName()));
+        }
+        this.columnName = columnModel.getColumnName();
+        this.accessor = columnModel.getFieldAccessor();
+        this.type = Objects.requireNonNull(type);
+        this.valueKeyMap = type == CacheIndexType.SORTED ? new ConcurrentSkipListMap<>() : new ConcurrentHashMap<>();
+    }
+
+    /**
+     * 更新索引(entity为null表示已移除).
+     */
+    void update(K key, V entity) {
+        Object value = entity == null ? null : accessor.get(entity);
+        Object oldValue = value == null ? keyValueMap.remove(key) : keyValueMap.put(key, value);
+        if (Objects.equals(value, oldValue)) {
+            return;
+        }
+        if (oldValue != null) {
+            valueKeyMap.computeIfPresent(oldValue, (v, keySet) -> {
+                keySet.remove(key);
+                return keySet.isEmpty() ? null : keySet;
+            });
+        }
+        if (value != null) {
+            valueKeyMap.compute(value, (v, keySet) -> {
+                if (keySet == null) {
+                    keySet = ConcurrentHashMap.newKeySet();
+                }
+                keySet.add(key);
+                return keySet;
+            });
+        }
+    }
+
+    void clear() {
+        keyValueMap.clear();
+        valueKeyMap.clear();
+    }
+
+    /**
+     * 已索引的实体数.
+     */
+    int size() {
+        return keyValueMap.size();
+    }
+
+    /**
+     * 字段值等于value的实体ID.
+     */
+    Set<K> get(Object value) {
+        Set<K> keySet = valueKeyMap.get(Objects.requireNonNull(value));
+        return keySet == null ? Collections.emptySet() : keySet;
+    }
+
+    /**
+     * 字段值在范围内的实体ID(按字段值升序, 仅有序索引支持; fromValue/toValue为null时表示不限制).
+     */
+    List<K> range(Object fromValue, boolean fromInclusive, Object toValue, boolean toInclusive) {
+        ConcurrentNavigableMap<Object, Set<K>> map = (ConcurrentNavigableMap<Object, Set<K>>) valueKeyMap;
+        if (fromValue != null) {
+            map = map.tailMap(fromValue, fromInclusive);
+        }
+        if (toValue != null) {
+            map = map.headMap(toValue, toInclusive);
+        }
+        List<K> keyList = new ArrayList<>();
+        for (Set<K> keySet: map.values()) {
+            keyList.addAll(keySet);
+        }
+        return keyList;
+    }
+
+    /**
+     * 实体字段值是否等于value.
+     */
+    boolean isMatched(V entity, Object value) {
+        Object fieldValue = accessor.get(entity);
+        if (fieldValue == null) {
+            return false;
+        }
+        return type == CacheIndexType.SORTED ? compare(fieldValue, value) == 0 : fieldValue.equals(value);
+    }
+
+    /**
+     * 实体字段值是否在范围内.
+     */
+    boolean isInRange(V entity, Object fromValue, boolean fromInclusive, Object toValue, boolean toInclusive) {
+        Object fieldValue = accessor.get(entity);
+        if (fieldValue == null) {
+            return false;
+        }
+        if (fromValue != null) {
+            int result = compare(fieldValue, fromValue);
+            if (result < 0 || (result == 0 && !fromInclusive)) {
+                return false;
+            }
+        }
+        if (toValue != null) {
+            int result = compare(fieldValue, toValue);
+            return result < 0 || (result == 0 && toInclusive);
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object value, Object other) {
+        return ((Comparable<Object>) value).compareTo(other);
+    }
+
+    String getColumnName() {
+        return columnName;
+    }
+
+    CacheIndexType getType() {
+        return type;
+    }
+
+    /**
+     * 转换查询值为字段类型(数值类型之间转换), 类型不匹配时抛出异常.
+     */
+    static Object toFieldValue(TableColumnModel columnModel, Object value) throws NullPointerException, IllegalArgumentException {
+        Class<?> valueType = getValueType(columnModel.getFieldType());
+        if (valueType.isInstance(Objects.requireNonNull(value))) {
+            return value;
+        }
+        NumberConverter converter = NUMBER_CONVERTERS.get(valueType);
+        if (converter != null && value instanceof Number) {
+            return converter.convert((Number) value);
+        }
+        throw new IllegalArgumentException(String.format("value type [%s] not match table[%s] field[%s] type [%s]"
+                , value.getClass().getName(), columnModel.getTableName(), columnModel.getFieldName(), valueType.getName()));
+    }
+
+    private interface NumberConverter {
+        Object convert(Number number);
+    }
+
+    /**
+     * 字段类型对应的值类型(基本类型转换为包装类型).
+     */
+    private static Class<?> getValueType(Class<?> fieldType) {
+        if (!fieldType.isPrimitive()) {
+            return fieldType;
+        }
+        if (fieldType == boolean.class) {
+            return Boolean.class;
+        }
+        if (fieldType == byte.class) {
+            return Byte.class;
+        }
+        if (fieldType == short.class) {
+            return Short.class;
+        }
+        if (fieldType == char.class) {
+            return Character.class;
+        }
+        if (fieldType == int.class) {
+            return Integer.class;
+        }
+        if (fieldType == long.class) {
+            return Long.class;
+        }
+        if (fieldType == float.class) {
+            return Float.class;
+        }
+        return Double.class;
+    }
+
+}
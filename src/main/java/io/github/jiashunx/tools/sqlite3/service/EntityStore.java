@@ -0,0 +1,55 @@
+package io.github.jiashunx.tools.sqlite3.service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 实体缓存存储(由EntityCache调用): 堆内存储(EntityCache.Store)或堆外存储(OffHeapEntityStore).
+ * <p>get/contains对已过期的实体返回null/false, 并移除已过期的实体.
+ * 实体因淘汰或过期移除时调用创建存储时指定的移除回调(持有存储的锁时调用, 回调中不可访问存储; remove/clear不回调).</p>
+ * @author jiashunx
+ */
+interface EntityStore<K, T> {
+
+    T get(K key);
+
+    boolean contains(K key);
+
+    /**
+     * 写入(超出数量或容量上限时淘汰其他实体或不写入该实体, 均计入淘汰数).
+     */
+    void put(K key, T value);
+
+    void remove(K key);
+
+    void clear();
+
+    /**
+     * 清理已过期的实体.
+     */
+    void cleanUp();
+
+    List<T> values();
+
+    /**
+     * 遍历未过期的实体(弱一致性).
+     */
+    void forEach(Consumer<? super T> action);
+
+    int size();
+
+    /**
+     * 修改次数(修改数据后递增).
+     */
+    long getModificationCount();
+
+    long getEvictionCount();
+
+    long getExpirationCount();
+
+    /**
+     * 等待淘汰锁(或写锁)的时间(纳秒).
+     */
+    long getEvictionLockWaitNanos();
+
+}
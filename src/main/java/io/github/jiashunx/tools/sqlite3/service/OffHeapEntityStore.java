@@ -0,0 +1,618 @@
+package io.github.jiashunx.tools.sqlite3.service;
+
+import io.github.jiashunx.tools.sqlite3.exception.SQLite3MappingException;
+import io.github.jiashunx.tools.sqlite3.model.TableModel;
+import io.github.jiashunx.tools.sqlite3.util.SQLite3EntityCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 堆外实体缓存存储: 实体经SQLite3EntityCodec编码后写入堆外内存数据块(direct ByteBuffer), 访问时解码(每次返回新的实体对象).
+ * <p>数据块组成环形日志: 写入(含更新)追加至当前数据块, 当前数据块写满后切换至下一数据块(更新/移除产生的无效数据较多时压缩该数据块,
+ * 否则整体淘汰其中的实体), 占用内存不超过容量上限. 索引为开放寻址(线性探测)哈希表, 仅由基本类型数组组成(条目地址、ID哈希值及访问时间), 不为每个实体创建堆对象.</p>
+ * <p>读取持有读锁(并发读取, 访问时间为原子数组, 读取时原子更新), 写入/淘汰持有写锁. 支持String/int/long类型的ID.</p>
+ * @author jiashunx
+ */
+class OffHeapEntityStore<K, V> implements EntityStore<K, V> {
+
+    private static final int MIN_SLAB_SIZE = 4 * 1024;
+    private static final int MAX_SLAB_SIZE = 4 * 1024 * 1024;
+    private static final int INITIAL_INDEX_CAPACITY = 1024;
+    /**
+     * forEach每批解码的实体数(解码时持有读锁, 执行action时不持有锁).
+     */
+    private static final int FOR_EACH_BATCH_SIZE = 256;
+    /**
+     * 条目: 条目长度(4) + ID哈希值(4) + 写入时间(8) + ID长度(4) + ID + 实体编码数据.
+     */
+    private static final int HASH_OFFSET = 4;
+    private static final int WRITE_TIME_OFFSET = 8;
+    private static final int KEY_LENGTH_OFFSET = 16;
+    private static final int HEADER_SIZE = 20;
+
+    private final SQLite3EntityCodec codec;
+    private final Function<Object, byte[]> keyEncoder;
+    private final Function<byte[], Object> keyDecoder;
+    private final int slabSize;
+    /**
+     * 数据块(首次写入时分配)及各数据块已写入的字节数.
+     */
+    private final ByteBuffer[] slabs;
+    private final int[] slabUsed;
+    private int writeSlab;
+    /**
+     * 索引: 条目地址(数据块序号 << 32 | 块内偏移) + 1(0表示空槽), 及对应的ID哈希值.
+     */
+    private long[] addresses = new long[INITIAL_INDEX_CAPACITY];
+    private int[] hashes = new int[INITIAL_INDEX_CAPACITY];
+    /**
+     * 索引槽对应条目的访问时间(仅设置expireAfterAccess时使用, 否则为null).
+     */
+    private AtomicLongArray accessTimes;
+    private volatile int size;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong modificationCount = new AtomicLong(0);
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expirationCount = new LongAdder();
+    private final LongAdder lockWaitNanos = new LongAdder();
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    /**
+     * 淘汰或过期移除实体后回调(持有写锁时调用, 可为null).
+     */
+    private final Consumer<K> removalListener;
+
+    OffHeapEntityStore(SQLite3EntityCodec codec, long maxBytes, long expireAfterWriteMillis, long expireAfterAccessMillis
+            , Consumer<K> removalListener) throws NullPointerException, IllegalArgumentException, SQLite3MappingException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("off-heap max bytes must be positive");
+        }
+        this.codec = Objects.requireNonNull(codec);
+        this.keyEncoder = getKeyEncoder(codec.getTableModel());
+        this.keyDecoder = getKeyDecoder(codec.getTableModel());
+        this.slabSize = (int) Math.max(MIN_SLAB_SIZE, Math.min(MAX_SLAB_SIZE, maxBytes / 8));
+        int slabCount = (int) Math.max(2, maxBytes / slabSize);
+        this.slabs = new ByteBuffer[slabCount];
+        this.slabUsed = new int[slabCount];
+        this.expireAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(expireAfterWriteMillis, 0));
+        this.expireAfterAccessNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(expireAfterAccessMillis, 0));
+        this.accessTimes = expireAfterAccessNanos > 0 ? new AtomicLongArray(INITIAL_INDEX_CAPACITY) : null;
+        this.removalListener = removalListener;
+    }
+
+    private static Function<Object, byte[]> getKeyEncoder(TableModel tableModel) {
+        Class<?> idType = tableModel.getIdColumnModel().getFieldType();
+        if (idType == String.class) {
+            return key -> ((String) key).getBytes(StandardCharsets.UTF_8);
+        }
+        if (idType == int.class || idType == Integer.class) {
+            return key -> ByteBuffer.allocate(4).putInt((Integer) key).array();
+        }
+        if (idType == long.class || idType == Long.class) {
+            return key -> ByteBuffer.allocate(8).putLong((Long) key).array();
+        }
+        throw new SQLite3MappingException(String.format("table[%s] id type [%s] not supported by off-heap entity cache"
+                , tableModel.getTableName(), idType.getName()));
+    }
+
+    /**
+     * ID解码(getKeyEncoder的逆操作, 仅在ID类型已校验后调用).
+     */
+    private static Function<byte[], Object> getKeyDecoder(TableModel tableModel) {
+        Class<?> idType = tableModel.getIdColumnModel().getFieldType();
+        if (idType == String.class) {
+            return bytes -> new String(bytes, StandardCharsets.UTF_8);
+        }
+        if (idType == int.class || idType == Integer.class) {
+            return bytes -> ByteBuffer.wrap(bytes).getInt();
+        }
+        return bytes -> ByteBuffer.wrap(bytes).getLong();
+    }
+
+    @Override
+    public V get(K key) {
+        byte[] keyBytes = keyEncoder.apply(key);
+        int hash = hash(key);
+        long now = System.nanoTime();
+        long expiredAddress;
+        lock.readLock().lock();
+        try {
+            int slot = findSlot(hash, keyBytes);
+            if (slot < 0) {
+                return null;
+            }
+            long address = addresses[slot] - 1;
+            if (!isExpired(slot, now)) {
+                if (accessTimes != null) {
+                    accessTimes.set(slot, now);
+                }
+                return decode(slabs[slabIndex(address)], slabOffset(address));
+            }
+            expiredAddress = address;
+        } finally {
+            lock.readLock().unlock();
+        }
+        lockWrite();
+        try {
+            int slot = findSlot(hash, keyBytes);
+            if (slot >= 0 && addresses[slot] - 1 == expiredAddress) {
+                removeSlot(slot);
+                expirationCount.increment();
+                modificationCount.incrementAndGet();
+                onRemoval(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return null;
+    }
+
+    @Override
+    public boolean contains(K key) {
+        byte[] keyBytes = keyEncoder.apply(key);
+        long now = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            int slot = findSlot(hash(key), keyBytes);
+            if (slot < 0) {
+                return false;
+            }
+            return !isExpired(slot, now);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(K key, V value) {
+        byte[] keyBytes = keyEncoder.apply(key);
+        ByteBuffer data = codec.encode(value);
+        int hash = hash(key);
+        int length = HEADER_SIZE + keyBytes.length + data.remaining();
+        long now = System.nanoTime();
+        lockWrite();
+        try {
+            if (length > slabSize) {
+                // 超过数据块大小的实体不写入
+                int slot = findSlot(hash, keyBytes);
+                if (slot >= 0) {
+                    removeSlot(slot);
+                }
+                evictionCount.increment();
+                onRemoval(key);
+                return;
+            }
+            long address = allocate(length);
+            ByteBuffer slab = slabs[slabIndex(address)];
+            int offset = slabOffset(address);
+            slab.putInt(offset, length).putInt(offset + HASH_OFFSET, hash)
+                    .putLong(offset + WRITE_TIME_OFFSET, now)
+                    .putInt(offset + KEY_LENGTH_OFFSET, keyBytes.length);
+            ByteBuffer buffer = slab.duplicate();
+            buffer.position(offset + HEADER_SIZE);
+            buffer.put(keyBytes).put(data);
+            // 分配时可能淘汰数据块(索引已变化), 分配后查找ID: 已存在时指向新条目(旧条目成为无效数据)
+            int slot = findSlot(hash, keyBytes);
+            if (slot >= 0) {
+                addresses[slot] = address + 1;
+            } else {
+                slot = insertSlot(hash, address);
+            }
+            if (accessTimes != null) {
+                accessTimes.set(slot, now);
+            }
+        } finally {
+            modificationCount.incrementAndGet();
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 分配条目空间(持有写锁时调用): 当前数据块剩余空间不足时切换至下一数据块, 并压缩或淘汰下一数据块.
+     */
+    private long allocate(int length) {
+        if (slabUsed[writeSlab] + length > slabSize) {
+            writeSlab = (writeSlab + 1) % slabs.length;
+            reclaimSlab(writeSlab, length);
+        }
+        if (slabs[writeSlab] == null) {
+            slabs[writeSlab] = ByteBuffer.allocateDirect(slabSize);
+        }
+        int offset = slabUsed[writeSlab];
+        slabUsed[writeSlab] += length;
+        return address(writeSlab, offset);
+    }
+
+    /**
+     * 回收数据块: 有效数据(索引仍指向的条目)不超过一半且压缩后剩余空间足够时压缩, 否则淘汰其中的实体.
+     */
+    private void reclaimSlab(int slabIndex, int length) {
+        ByteBuffer slab = slabs[slabIndex];
+        if (slab == null) {
+            return;
+        }
+        int liveBytes = 0;
+        for (int offset = 0; offset < slabUsed[slabIndex]; offset += slab.getInt(offset)) {
+            if (findSlot(slab.getInt(offset + HASH_OFFSET), address(slabIndex, offset)) >= 0) {
+                liveBytes += slab.getInt(offset);
+            }
+        }
+        if (liveBytes <= slabSize / 2 && slabSize - liveBytes >= length) {
+            compactSlab(slabIndex);
+        } else {
+            evictSlab(slabIndex);
+        }
+    }
+
+    /**
+     * 压缩数据块: 有效条目前移至数据块头部(更新索引中的条目地址), 丢弃无效条目.
+     */
+    private void compactSlab(int slabIndex) {
+        ByteBuffer slab = slabs[slabIndex];
+        ByteBuffer source = slab.duplicate();
+        ByteBuffer target = slab.duplicate();
+        int writeOffset = 0;
+        for (int offset = 0; offset < slabUsed[slabIndex]; ) {
+            int length = slab.getInt(offset);
+            int slot = findSlot(slab.getInt(offset + HASH_OFFSET), address(slabIndex, offset));
+            if (slot >= 0) {
+                if (writeOffset != offset) {
+                    byte[] bytes = new byte[length];
+                    source.position(offset);
+                    source.get(bytes);
+                    target.position(writeOffset);
+                    target.put(bytes);
+                    addresses[slot] = address(slabIndex, writeOffset) + 1;
+                }
+                writeOffset += length;
+            }
+            offset += length;
+        }
+        slabUsed[slabIndex] = writeOffset;
+    }
+
+    /**
+     * 淘汰数据块中的实体(索引仍指向该数据块的条目).
+     */
+    private void evictSlab(int slabIndex) {
+        ByteBuffer slab = slabs[slabIndex];
+        for (int offset = 0; offset < slabUsed[slabIndex]; offset += slab.getInt(offset)) {
+            int slot = findSlot(slab.getInt(offset + HASH_OFFSET), address(slabIndex, offset));
+            if (slot >= 0) {
+                removeSlot(slot);
+                evictionCount.increment();
+                if (removalListener != null) {
+                    onRemoval(readKey(slab, offset));
+                }
+            }
+        }
+        slabUsed[slabIndex] = 0;
+    }
+
+    private void onRemoval(K key) {
+        if (removalListener != null) {
+            removalListener.accept(key);
+        }
+    }
+
+    /**
+     * 读取条目中的ID.
+     */
+    @SuppressWarnings("unchecked")
+    private K readKey(ByteBuffer slab, int offset) {
+        byte[] keyBytes = new byte[slab.getInt(offset + KEY_LENGTH_OFFSET)];
+        ByteBuffer buffer = slab.duplicate();
+        buffer.position(offset + HEADER_SIZE);
+        buffer.get(keyBytes);
+        return (K) keyDecoder.apply(keyBytes);
+    }
+
+    @Override
+    public void remove(K key) {
+        byte[] keyBytes = keyEncoder.apply(key);
+        int hash = hash(key);
+        lockWrite();
+        try {
+            int slot = findSlot(hash, keyBytes);
+            if (slot >= 0) {
+                removeSlot(slot);
+                modificationCount.incrementAndGet();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lockWrite();
+        try {
+            addresses = new long[INITIAL_INDEX_CAPACITY];
+            hashes = new int[INITIAL_INDEX_CAPACITY];
+            if (accessTimes != null) {
+                accessTimes = new AtomicLongArray(INITIAL_INDEX_CAPACITY);
+            }
+            size = 0;
+            // 保留已分配的数据块, 重新从首个数据块写入
+            for (int index = 0; index < slabUsed.length; index++) {
+                slabUsed[index] = 0;
+            }
+            writeSlab = 0;
+        } finally {
+            modificationCount.incrementAndGet();
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void cleanUp() {
+        if (expireAfterWriteNanos <= 0 && expireAfterAccessNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        lockWrite();
+        try {
+            int slot = 0;
+            while (slot < addresses.length) {
+                long address = addresses[slot] - 1;
+                if (address >= 0 && isExpired(slot, now)) {
+                    K key = removalListener == null ? null : readKey(slabs[slabIndex(address)], slabOffset(address));
+                    // 移除后后续条目可能前移至该槽, 再次检查该槽
+                    removeSlot(slot);
+                    expirationCount.increment();
+                    modificationCount.incrementAndGet();
+                    if (key != null) {
+                        onRemoval(key);
+                    }
+                } else {
+                    slot++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<V> values() {
+        long now = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            List<V> valueList = new ArrayList<>(size);
+            for (int slot = 0; slot < addresses.length; slot++) {
+                long address = addresses[slot] - 1;
+                if (address >= 0 && !isExpired(slot, now)) {
+                    valueList.add(decode(slabs[slabIndex(address)], slabOffset(address)));
+                }
+            }
+            return valueList;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 分批遍历(每批持有读锁解码, 执行action时不持有锁; 批次间索引扩容时可能重复或遗漏遍历期间写入的实体).
+     */
+    @Override
+    public void forEach(Consumer<? super V> action) {
+        List<V> batch = new ArrayList<>(FOR_EACH_BATCH_SIZE);
+        int slot = 0;
+        while (true) {
+            long now = System.nanoTime();
+            lock.readLock().lock();
+            try {
+                while (slot < addresses.length && batch.size() < FOR_EACH_BATCH_SIZE) {
+                    long address = addresses[slot] - 1;
+                    if (address >= 0 && !isExpired(slot, now)) {
+                        batch.add(decode(slabs[slabIndex(address)], slabOffset(address)));
+                    }
+                    slot++;
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            batch.forEach(action);
+            batch.clear();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long getModificationCount() {
+        return modificationCount.get();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    @Override
+    public long getExpirationCount() {
+        return expirationCount.sum();
+    }
+
+    @Override
+    public long getEvictionLockWaitNanos() {
+        return lockWaitNanos.sum();
+    }
+
+    /**
+     * 获取写锁(未能立即获取时统计等待时间).
+     */
+    private void lockWrite() {
+        Lock writeLock = lock.writeLock();
+        if (!writeLock.tryLock()) {
+            long startTime = System.nanoTime();
+            writeLock.lock();
+            lockWaitNanos.add(System.nanoTime() - startTime);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V decode(ByteBuffer slab, int offset) {
+        ByteBuffer buffer = slab.duplicate();
+        buffer.position(offset + HEADER_SIZE + slab.getInt(offset + KEY_LENGTH_OFFSET));
+        return (V) codec.decode(buffer);
+    }
+
+    /**
+     * 索引槽对应的条目是否已过期(持有读锁或写锁时调用).
+     */
+    private boolean isExpired(int slot, long now) {
+        if (expireAfterWriteNanos > 0) {
+            long address = addresses[slot] - 1;
+            if (now - slabs[slabIndex(address)].getLong(slabOffset(address) + WRITE_TIME_OFFSET) >= expireAfterWriteNanos) {
+                return true;
+            }
+        }
+        return accessTimes != null && now - accessTimes.get(slot) >= expireAfterAccessNanos;
+    }
+
+    /**
+     * 按ID查找索引槽, 未找到时返回-1.
+     */
+    private int findSlot(int hash, byte[] keyBytes) {
+        int mask = addresses.length - 1;
+        for (int slot = hash & mask; addresses[slot] != 0; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && isKeyEquals(addresses[slot] - 1, keyBytes)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 按条目地址查找索引槽, 未找到(条目已无效)时返回-1.
+     */
+    private int findSlot(int hash, long address) {
+        int mask = addresses.length - 1;
+        for (int slot = hash & mask; addresses[slot] != 0; slot = (slot + 1) & mask) {
+            if (addresses[slot] - 1 == address) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isKeyEquals(long address, byte[] keyBytes) {
+        ByteBuffer slab = slabs[slabIndex(address)];
+        int offset = slabOffset(address);
+        if (slab.getInt(offset + KEY_LENGTH_OFFSET) != keyBytes.length) {
+            return false;
+        }
+        offset += HEADER_SIZE;
+        for (int index = 0; index < keyBytes.length; index++) {
+            if (slab.get(offset + index) != keyBytes[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 插入索引槽, 返回插入的槽.
+     */
+    private int insertSlot(int hash, long address) {
+        // 负载因子0.75
+        if ((size + 1) * 4L > addresses.length * 3L) {
+            resize();
+        }
+        int mask = addresses.length - 1;
+        int slot = hash & mask;
+        while (addresses[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        addresses[slot] = address + 1;
+        hashes[slot] = hash;
+        size++;
+        return slot;
+    }
+
+    /**
+     * 移除索引槽(后移删除: 将后续探测链上的条目前移填补空槽, 不使用删除标记).
+     */
+    private void removeSlot(int slot) {
+        int mask = addresses.length - 1;
+        int hole = slot;
+        addresses[hole] = 0;
+        for (int next = (hole + 1) & mask; addresses[next] != 0; next = (next + 1) & mask) {
+            int home = hashes[next] & mask;
+            // home不在(hole, next]区间内时可前移至hole
+            boolean between = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+            if (!between) {
+                addresses[hole] = addresses[next];
+                hashes[hole] = hashes[next];
+                if (accessTimes != null) {
+                    accessTimes.set(hole, accessTimes.get(next));
+                }
+                addresses[next] = 0;
+                hole = next;
+            }
+        }
+        size--;
+    }
+
+    private void resize() {
+        long[] oldAddresses = addresses;
+        int[] oldHashes = hashes;
+        AtomicLongArray oldAccessTimes = accessTimes;
+        addresses = new long[oldAddresses.length * 2];
+        hashes = new int[oldHashes.length * 2];
+        if (oldAccessTimes != null) {
+            accessTimes = new AtomicLongArray(addresses.length);
+        }
+        int mask = addresses.length - 1;
+        for (int index = 0; index < oldAddresses.length; index++) {
+            if (oldAddresses[index] != 0) {
+                int slot = oldHashes[index] & mask;
+                while (addresses[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                addresses[slot] = oldAddresses[index];
+                hashes[slot] = oldHashes[index];
+                if (oldAccessTimes != null) {
+                    accessTimes.set(slot, oldAccessTimes.get(index));
+                }
+            }
+        }
+    }
+
+    private static int hash(Object key) {
+        int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    private static long address(int slabIndex, int offset) {
+        return ((long) slabIndex << 32) | offset;
+    }
+
+    private static int slabIndex(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int slabOffset(long address) {
+        return (int) address;
+    }
+
+}
@@ -0,0 +1,302 @@
+package io.github.jiashunx.tools.sqlite3.service;
+
+import io.github.jiashunx.tools.sqlite3.SQLite3JdbcTemplate;
+import io.github.jiashunx.tools.sqlite3.exception.SQLite3Exception;
+import io.github.jiashunx.tools.sqlite3.util.SQLite3Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 跨进程缓存失效监控: 定时查询PRAGMA data_version, 数据库被其他连接修改后清空已注册的SQLite3Service缓存.
+ * <p>data_version在本连接池写连接上查询, 本连接池的写入(已写入缓存)不改变该值. 查询不等待: 写连接或连接池全局写锁被占用时跳过本次查询,
+ * 其他连接的修改在下次查询时可见.</p>
+ * <p>可按数据表开启数据表版本号(enableTableVersion): 通过触发器维护数据表的修改次数, data_version变化时仅在数据表被修改后清空其缓存
+ * (触发器同样计数本连接池的写入, 两次查询之间被本连接池修改的数据表亦会清空).
+ * SQLite仅支持行级触发器(FOR EACH ROW), 数据表每写入/更新/删除一行均额外更新一次版本号表, 批量写入时写入开销约增加一倍,
+ * 仅建议为写入较少、缓存代价较大的数据表开启.</p>
+ * @author jiashunx
+ */
+public class SQLite3CacheInvalidationMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SQLite3CacheInvalidationMonitor.class);
+
+    private static final AtomicInteger counter = new AtomicInteger(0);
+
+    /**
+     * 数据表版本号表(由触发器维护).
+     */
+    public static final String TABLE_VERSION_TABLE_NAME = "TOOLS_SQLITE3_TABLE_VERSION";
+
+    private static final String[] TRIGGER_EVENTS = {"INSERT", "UPDATE", "DELETE"};
+
+    private final SQLite3JdbcTemplate jdbcTemplate;
+    private final long pollIntervalMillis;
+    private final List<SQLite3Service<?, ?>> serviceList = new CopyOnWriteArrayList<>();
+    /**
+     * 保护注册/定时任务及查询结果状态(不在查询数据库期间持有).
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong pollSequence = new AtomicLong(0);
+    /**
+     * 已开启数据表版本号的数据表.
+     */
+    private final Set<String> tableVersionTableSet = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService scheduler;
+    /**
+     * 上次查询的序号、data_version及数据表版本号(由lock保护).
+     */
+    private long lastPollSequence;
+    private Long lastDataVersion;
+    private Map<String, Long> lastTableVersionMap = new HashMap<>();
+
+    public SQLite3CacheInvalidationMonitor(SQLite3JdbcTemplate jdbcTemplate, long pollIntervalMillis)
+            throws NullPointerException, IllegalArgumentException {
+        if (pollIntervalMillis <= 0) {
+            throw new IllegalArgumentException("poll interval must be positive");
+        }
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate);
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    /**
+     * 注册SQLite3Service(不创建触发器, 数据库被修改后即清空其缓存).
+     */
+    public void register(SQLite3Service<?, ?> service) throws NullPointerException {
+        Objects.requireNonNull(service);
+        lock.lock();
+        try {
+            if (!serviceList.contains(service)) {
+                serviceList.add(service);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void unregister(SQLite3Service<?, ?> service) {
+        serviceList.remove(service);
+    }
+
+    /**
+     * 为SQLite3Service数据表开启数据表版本号(未注册时同时注册): 创建数据表版本号表及该数据表的增删改触发器.
+     * <p>触发器保存在数据库文件中, 对所有连接(包括其他进程)的写入生效, 每行写入额外更新一次版本号表; 不再需要时调用disableTableVersion删除.</p>
+     */
+    public void enableTableVersion(SQLite3Service<?, ?> service) throws NullPointerException, SQLite3Exception {
+        Objects.requireNonNull(service);
+        String tableName = getTableName(service);
+        lock.lock();
+        try {
+            if (!jdbcTemplate.isTableExists(TABLE_VERSION_TABLE_NAME)) {
+                jdbcTemplate.executeUpdate("CREATE TABLE IF NOT EXISTS " + TABLE_VERSION_TABLE_NAME
+                        + "(TABLE_NAME VARCHAR PRIMARY KEY, VERSION INTEGER NOT NULL)");
+            }
+            createTableVersionTrigger(tableName);
+            tableVersionTableSet.add(tableName);
+            if (!serviceList.contains(service)) {
+                serviceList.add(service);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 关闭SQLite3Service数据表的数据表版本号: 删除该数据表的触发器及版本号(数据库被修改后即清空其缓存).
+     */
+    public void disableTableVersion(SQLite3Service<?, ?> service) throws NullPointerException, SQLite3Exception {
+        Objects.requireNonNull(service);
+        String tableName = getTableName(service);
+        lock.lock();
+        try {
+            tableVersionTableSet.remove(tableName);
+            for (String event: TRIGGER_EVENTS) {
+                String triggerName = getTriggerName(tableName, event);
+                if (jdbcTemplate.isTriggerExists(triggerName)) {
+                    jdbcTemplate.dropTrigger(triggerName);
+                }
+            }
+            if (jdbcTemplate.isTableExists(TABLE_VERSION_TABLE_NAME)) {
+                jdbcTemplate.executeUpdate("DELETE FROM " + TABLE_VERSION_TABLE_NAME + " WHERE TABLE_NAME=?"
+                        , statement -> statement.setString(1, tableName));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isTableVersionEnabled(SQLite3Service<?, ?> service) throws NullPointerException {
+        return tableVersionTableSet.contains(getTableName(Objects.requireNonNull(service)));
+    }
+
+    private void createTableVersionTrigger(String tableName) {
+        jdbcTemplate.executeUpdate("INSERT OR IGNORE INTO " + TABLE_VERSION_TABLE_NAME + "(TABLE_NAME, VERSION) VALUES(?, 0)"
+                , statement -> statement.setString(1, tableName));
+        boolean created = false;
+        for (String event: TRIGGER_EVENTS) {
+            String triggerName = getTriggerName(tableName, event);
+            if (jdbcTemplate.isTriggerExists(triggerName)) {
+                continue;
+            }
+            jdbcTemplate.executeUpdate("CREATE TRIGGER " + triggerName + " AFTER " + event + " ON " + tableName
+                    + " BEGIN UPDATE " + TABLE_VERSION_TABLE_NAME + " SET VERSION=VERSION+1 WHERE TABLE_NAME='" + tableName + "'; END");
+            created = true;
+        }
+        if (created) {
+            // 触发器缺失期间(如数据表重建)的修改未计数: 递增版本号, 使之前记录的版本号失效
+            jdbcTemplate.executeUpdate("UPDATE " + TABLE_VERSION_TABLE_NAME + " SET VERSION=VERSION+1 WHERE TABLE_NAME=?"
+                    , statement -> statement.setString(1, tableName));
+        }
+    }
+
+    private static String getTriggerName(String tableName, String event) {
+        return "TOOLS_SQLITE3_TV_" + tableName + "_" + event;
+    }
+
+    /**
+     * 查询数据表版本号(未开启数据表版本号或该数据表触发器不完整时返回-1).
+     */
+    public static long queryTableVersion(SQLite3JdbcTemplate jdbcTemplate, String tableName) throws SQLite3Exception {
+        if (!jdbcTemplate.isTableExists(TABLE_VERSION_TABLE_NAME)) {
+            return -1;
+        }
+        for (String event: TRIGGER_EVENTS) {
+            if (!jdbcTemplate.isTriggerExists(getTriggerName(tableName, event))) {
+                return -1;
+            }
+        }
+        long[] tableVersion = {-1};
+        jdbcTemplate.query("SELECT VERSION FROM " + TABLE_VERSION_TABLE_NAME + " WHERE TABLE_NAME=?"
+                , statement -> statement.setString(1, tableName), resultSet -> {
+            tableVersion[0] = resultSet.getLong(1);
+        });
+        return tableVersion[0];
+    }
+
+    private static String getTableName(SQLite3Service<?, ?> service) {
+        return SQLite3Utils.getClassTableModel(service.getEntityClass()).getTableName();
+    }
+
+    /**
+     * 开始定时查询(首次查询记录当前data_version).
+     */
+    public void start() {
+        poll();
+        lock.lock();
+        try {
+            if (scheduler != null) {
+                return;
+            }
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "sqlite3-cache-invalidation-monitor-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    poll();
+                } catch (Throwable throwable) {
+                    logger.warn("poll data version failed", throwable);
+                }
+            }, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void stop() {
+        lock.lock();
+        try {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+                scheduler = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 停止定时查询并清除已记录的data_version(之后调用poll时首次查询仅记录当前值).
+     */
+    public void close() {
+        lock.lock();
+        try {
+            stop();
+            lastDataVersion = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 查询一次data_version, 变化时清空受影响的SQLite3Service缓存(首次查询仅记录当前值, 写连接被占用时跳过).
+     * @return 数据库是否被其他连接修改
+     */
+    public boolean poll() throws SQLite3Exception {
+        long sequence = pollSequence.incrementAndGet();
+        long dataVersion = jdbcTemplate.tryQueryDataVersion();
+        if (dataVersion < 0) {
+            return false;
+        }
+        // data_version在前, 数据表版本号在后: 查询数据表版本号之后的修改在下次查询时可见
+        Map<String, Long> tableVersionMap = tableVersionTableSet.isEmpty() ? null : queryTableVersionMap();
+        List<SQLite3Service<?, ?>> invalidServiceList = new ArrayList<>();
+        lock.lock();
+        try {
+            // 并发查询时忽略先开始的查询结果
+            if (sequence < lastPollSequence) {
+                return false;
+            }
+            lastPollSequence = sequence;
+            Long lastDataVersion = this.lastDataVersion;
+            this.lastDataVersion = dataVersion;
+            Map<String, Long> lastTableVersionMap = this.lastTableVersionMap;
+            if (tableVersionMap != null) {
+                this.lastTableVersionMap = tableVersionMap;
+            }
+            if (lastDataVersion == null || lastDataVersion == dataVersion) {
+                return false;
+            }
+            for (SQLite3Service<?, ?> service: serviceList) {
+                String tableName = getTableName(service);
+                if (tableVersionMap != null && tableVersionTableSet.contains(tableName)
+                        && tableVersionMap.containsKey(tableName)
+                        && Objects.equals(tableVersionMap.get(tableName), lastTableVersionMap.get(tableName))) {
+                    continue;
+                }
+                invalidServiceList.add(service);
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (SQLite3Service<?, ?> service: invalidServiceList) {
+            logger.info("database changed, invalidate cache of service: {}", service.getClass().getName());
+            service.invalidateCache();
+        }
+        return true;
+    }
+
+    private Map<String, Long> queryTableVersionMap() {
+        Map<String, Long> tableVersionMap = new HashMap<>();
+        jdbcTemplate.query("SELECT TABLE_NAME, VERSION FROM " + TABLE_VERSION_TABLE_NAME, resultSet -> {
+            tableVersionMap.put(resultSet.getString(1), resultSet.getLong(2));
+        });
+        return tableVersionMap;
+    }
+
+}
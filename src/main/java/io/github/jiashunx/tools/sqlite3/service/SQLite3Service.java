@@ -5,11 +5,28 @@ import io.github.jiashunx.tools.sqlite3.connection.SQLite3PreparedStatement;
 import io.github.jiashunx.tools.sqlite3.exception.SQLite3Exception;
 import io.github.jiashunx.tools.sqlite3.exception.SQLite3MappingException;
 import io.github.jiashunx.tools.sqlite3.function.VoidFunc;
+import io.github.jiashunx.tools.sqlite3.mapping.SQLite3Cache;
+import io.github.jiashunx.tools.sqlite3.mapping.SQLite3Index;
+import io.github.jiashunx.tools.sqlite3.model.CacheStats;
+import io.github.jiashunx.tools.sqlite3.model.CacheIndexType;
+import io.github.jiashunx.tools.sqlite3.model.EntityCacheOptions;
+import io.github.jiashunx.tools.sqlite3.model.TableColumnModel;
 import io.github.jiashunx.tools.sqlite3.model.TableModel;
+import io.github.jiashunx.tools.sqlite3.util.SQLite3EntityCodec;
 import io.github.jiashunx.tools.sqlite3.util.SQLite3Utils;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
@@ -17,49 +34,111 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  */
 public abstract class SQLite3Service<Entity, ID> {
 
-    private final SQLite3JdbcTemplate jdbcTemplate;
+    // 导出缓存快照最大尝试次数(导出期间存在写入时间隔1毫秒重试)
+    private static final int CACHE_SNAPSHOT_MAX_ATTEMPTS = 100;
 
-    private final Entity defaultEntity;
+    private final SQLite3JdbcTemplate jdbcTemplate;
 
     private final boolean cacheEnabled;
 
-    private volatile boolean listAllMethodInvoked = false;
-    // 全局缓存
-    private final Map<ID, Entity> entityCacheMap = new LinkedHashMap<>();
-    // 局部缓存
-    private final Map<ID, Entity> entityCacheMapTmp = new HashMap<>();
+    // 全表数据缓存状态(偶数: 未缓存全表数据, 奇数: 已缓存全表数据; 调用listAll且缓存不限制数量/不过期时缓存全表数据)
+    private final AtomicLong listAllState = new AtomicLong(0);
+    // 标记为已缓存全表数据时的缓存淘汰数(堆外缓存淘汰实体后不再包含全表数据)
+    private volatile long listAllEvictionCount;
+    // 全表数据快照(缓存实体修改后, 下次调用listAll时重新生成)
+    private volatile ListAllSnapshot<Entity> listAllSnapshot;
+    private final EntityCache<ID, Entity> entityCache;
+    // 合并加载器(未开启合并加载时为null)
+    private final EntityBatchLoader<ID, Entity> batchLoader;
     private final ReentrantReadWriteLock entityCacheMapLock = new ReentrantReadWriteLock();
+    // 等待entityCacheMapLock的时间(纳秒)
+    private final LongAdder entityCacheLockWaitNanos = new LongAdder();
+    // 已注册的JMX MBean名称
+    private volatile ObjectName cacheMBeanName;
+    // 实体编解码器(开启堆外缓存或导出/加载缓存快照时创建)
+    private volatile SQLite3EntityCodec entityCodec;
 
     public SQLite3Service(SQLite3JdbcTemplate jdbcTemplate) throws NullPointerException, SQLite3Exception {
         // 默认开启缓存
         this(jdbcTemplate, true);
     }
 
+    /**
+     * @param cacheEnabled 是否开启缓存(缓存配置取自@SQLite3Cache注解, 未标注时使用默认配置)
+     */
     public SQLite3Service(SQLite3JdbcTemplate jdbcTemplate, boolean cacheEnabled) throws NullPointerException, SQLite3Exception {
-        this.cacheEnabled = cacheEnabled;
         this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate);
-        try {
-            this.defaultEntity = getEntityClass().newInstance();
-        } catch (Throwable throwable) {
-            throw new SQLite3Exception(String.format("create entity [%s] instance failed", getEntityClass()), throwable);
+        SQLite3Cache cacheAnnotation = getClass().getAnnotation(SQLite3Cache.class);
+        if (cacheAnnotation == null) {
+            cacheAnnotation = getEntityClass().getAnnotation(SQLite3Cache.class);
+        }
+        this.cacheEnabled = cacheEnabled && (cacheAnnotation == null || cacheAnnotation.enabled());
+        this.entityCache = createEntityCache(cacheAnnotation == null ? new EntityCacheOptions() : getCacheOptions(cacheAnnotation));
+        this.batchLoader = createBatchLoader(entityCache.getOptions());
+    }
+
+    /**
+     * 开启缓存并指定缓存配置.
+     */
+    public SQLite3Service(SQLite3JdbcTemplate jdbcTemplate, EntityCacheOptions cacheOptions) throws NullPointerException, SQLite3Exception {
+        this.jdbcTemplate = Objects.requireNonNull(jdbcTemplate);
+        this.cacheEnabled = true;
+        this.entityCache = createEntityCache(Objects.requireNonNull(cacheOptions));
+        this.batchLoader = createBatchLoader(cacheOptions);
+    }
+
+    private EntityCache<ID, Entity> createEntityCache(EntityCacheOptions cacheOptions) {
+        EntityCache<ID, Entity> entityCache = new EntityCache<>(cacheOptions, cacheOptions.isOffHeapEnabled() ? getEntityCodec() : null);
+        // 二级索引仅在缓存全表数据时使用
+        if (cacheEnabled && cacheOptions.isUnbounded()) {
+            for (TableColumnModel columnModel: SQLite3Utils.getClassTableModel(getEntityClass()).getColumnModelList()) {
+                SQLite3Index indexAnnotation = columnModel.getField().getAnnotation(SQLite3Index.class);
+                if (indexAnnotation != null) {
+                    entityCache.addIndex(new EntityIndex<>(columnModel, indexAnnotation.type()));
+                }
+            }
+        }
+        return entityCache;
+    }
+
+    private EntityBatchLoader<ID, Entity> createBatchLoader(EntityCacheOptions cacheOptions) {
+        if (!cacheEnabled || !cacheOptions.isBatchLoadEnabled()) {
+            return null;
         }
+        return new EntityBatchLoader<>(this::findAllWithNoCache
+                , cacheOptions.getBatchLoadWindowMicros(), cacheOptions.getBatchLoadMaxSize());
+    }
+
+    private static EntityCacheOptions getCacheOptions(SQLite3Cache cacheAnnotation) {
+        EntityCacheOptions cacheOptions = new EntityCacheOptions();
+        cacheOptions.setEvictionPolicy(cacheAnnotation.evictionPolicy());
+        cacheOptions.setMaxSize(cacheAnnotation.maxSize());
+        cacheOptions.setExpireAfterWriteMillis(cacheAnnotation.expireAfterWriteMillis());
+        cacheOptions.setExpireAfterAccessMillis(cacheAnnotation.expireAfterAccessMillis());
+        cacheOptions.setNegativeMaxSize(cacheAnnotation.negativeMaxSize());
+        cacheOptions.setNegativeExpireAfterWriteMillis(cacheAnnotation.negativeExpireAfterWriteMillis());
+        cacheOptions.setBatchLoadWindowMicros(cacheAnnotation.batchLoadWindowMicros());
+        cacheOptions.setBatchLoadMaxSize(cacheAnnotation.batchLoadMaxSize());
+        cacheOptions.setOffHeapMaxBytes(cacheAnnotation.offHeapMaxBytes());
+        return cacheOptions;
     }
 
     public SQLite3JdbcTemplate getJdbcTemplate() {
         return jdbcTemplate;
     }
 
-    private Map<ID, Entity> getEntityCacheMap() {
-        if (listAllMethodInvoked) {
-            return entityCacheMap;
-        }
-        return entityCacheMapTmp;
+    public EntityCache<ID, Entity> getEntityCache() {
+        return entityCache;
+    }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
     }
 
     protected abstract Class<Entity> getEntityClass();
 
     protected void entityCacheReadLock(VoidFunc voidFunc) {
-        entityCacheMapLock.readLock().lock();
+        lockEntityCache(entityCacheMapLock.readLock());
         try {
             voidFunc.apply();
         } finally {
@@ -68,7 +147,7 @@ public abstract class SQLite3Service<Entity, ID> {
     }
 
     protected void entityCacheWriteLock(VoidFunc voidFunc) {
-        entityCacheMapLock.writeLock().lock();
+        lockEntityCache(entityCacheMapLock.writeLock());
         try {
             voidFunc.apply();
         } finally {
@@ -76,6 +155,67 @@ public abstract class SQLite3Service<Entity, ID> {
         }
     }
 
+    /**
+     * 获取缓存锁(未能立即获取时统计等待时间).
+     */
+    private void lockEntityCache(Lock lock) {
+        if (!lock.tryLock()) {
+            long startTime = System.nanoTime();
+            lock.lock();
+            entityCacheLockWaitNanos.add(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * 缓存统计快照.
+     */
+    public CacheStats getCacheStats() {
+        CacheStats cacheStats = entityCache.stats();
+        cacheStats.setEntityCacheLockWaitNanos(entityCacheLockWaitNanos.sum());
+        return cacheStats;
+    }
+
+    /**
+     * 注册缓存统计JMX MBean(名称: io.github.jiashunx.tools.sqlite3:type=EntityCache,name=SQLite3Service子类名).
+     */
+    public ObjectName registerCacheMBean() throws SQLite3Exception {
+        return registerCacheMBean(getClass().getName());
+    }
+
+    /**
+     * 注册缓存统计JMX MBean(名称: io.github.jiashunx.tools.sqlite3:type=EntityCache,name=指定名称).
+     */
+    public synchronized ObjectName registerCacheMBean(String name) throws NullPointerException, SQLite3Exception {
+        if (cacheMBeanName != null) {
+            return cacheMBeanName;
+        }
+        try {
+            ObjectName objectName = new ObjectName("io.github.jiashunx.tools.sqlite3:type=EntityCache,name="
+                    + ObjectName.quote(Objects.requireNonNull(name)));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new EntityCacheMXBeanImpl(), objectName);
+            cacheMBeanName = objectName;
+            return objectName;
+        } catch (JMException exception) {
+            throw new SQLite3Exception(String.format("register cache mbean [%s] failed.", name), exception);
+        }
+    }
+
+    /**
+     * 注销缓存统计JMX MBean.
+     */
+    public synchronized void unregisterCacheMBean() throws SQLite3Exception {
+        ObjectName objectName = cacheMBeanName;
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            cacheMBeanName = null;
+        } catch (JMException exception) {
+            throw new SQLite3Exception(String.format("unregister cache mbean [%s] failed.", objectName), exception);
+        }
+    }
+
     public ID getIdFieldValue(Entity entity) {
         if (entity == null) {
             throw new NullPointerException();
@@ -91,30 +231,225 @@ public abstract class SQLite3Service<Entity, ID> {
         return getJdbcTemplate().queryForList(getListAllSQL(), getEntityClass());
     }
 
+    /**
+     * 查询全表数据(缓存不限制数量且不过期时缓存全表数据, 否则直接查询数据库).
+     * <p>加载全表数据期间存在写入时不标记为已缓存全表数据, 返回查询结果.
+     * 已缓存全表数据时返回不可修改的全表数据快照, 缓存实体未修改时多次调用返回同一快照(堆外缓存每次返回新解码的快照).</p>
+     */
     public List<Entity> listAll() throws NullPointerException, SQLite3MappingException {
-        if (!cacheEnabled) {
+        if (!cacheEnabled || !entityCache.getOptions().isUnbounded()) {
             return listAllWithNoCache();
         }
         AtomicReference<List<Entity>> ref = new AtomicReference<>();
-        if (!listAllMethodInvoked) {
+        if (!isListAllCached()) {
+            // 串行加载全表数据
             entityCacheWriteLock(() -> {
-                if (listAllMethodInvoked) {
+                long state = listAllState.get();
+                if ((state & 1) == 1) {
                     return;
                 }
-                entityCacheMapTmp.clear();
+                entityCache.invalidateAll();
+                long writeSequence = entityCache.getWriteSequence();
+                long evictionCount = entityCache.getEvictionCount();
                 List<Entity> entityList = listAllWithNoCache();
+                boolean completed = true;
                 for (Entity entity: entityList) {
-                    entityCacheMap.put(getIdFieldValue(entity), entity);
+                    completed &= entityCache.putIfNotWrittenSince(getIdFieldValue(entity), entity, writeSequence);
+                }
+                completed &= entityCache.getEvictionCount() == evictionCount;
+                if (completed) {
+                    listAllEvictionCount = evictionCount;
+                }
+                if (!completed || !listAllState.compareAndSet(state, state + 1)) {
+                    ref.set(entityList);
                 }
-                listAllMethodInvoked = true;
             });
         }
-        entityCacheReadLock(() -> {
-            ref.set(new ArrayList<>(entityCacheMap.values()));
-        });
+        if (ref.get() == null) {
+            ref.set(getListAllSnapshot());
+        }
         return ref.get();
     }
 
+    private List<Entity> getListAllSnapshot() {
+        if (entityCache.getOptions().isOffHeapEnabled()) {
+            // 堆外缓存不保留快照, 避免全表实体常驻堆内存
+            return Collections.unmodifiableList(entityCache.values());
+        }
+        ListAllSnapshot<Entity> snapshot = listAllSnapshot;
+        long modificationCount = entityCache.getModificationCount();
+        if (snapshot == null || snapshot.modificationCount != modificationCount) {
+            // 先获取修改次数再复制: 复制期间的修改使下次调用重新生成快照
+            snapshot = new ListAllSnapshot<>(modificationCount, Collections.unmodifiableList(entityCache.values()));
+            listAllSnapshot = snapshot;
+        }
+        return snapshot.entityList;
+    }
+
+    /**
+     * 遍历已缓存的实体(不复制, 弱一致性, 不保证顺序; 未开启缓存时不遍历).
+     */
+    public void forEachCached(Consumer<? super Entity> action) throws NullPointerException {
+        Objects.requireNonNull(action);
+        if (cacheEnabled) {
+            entityCache.forEach(action);
+        }
+    }
+
+    /**
+     * 清空缓存(数据库被其他进程或其他连接池修改时调用, 参见SQLite3CacheInvalidationMonitor).
+     */
+    public void invalidateCache() {
+        invalidateListAll();
+        entityCache.invalidateAll();
+    }
+
+    /**
+     * 导出缓存实体至快照文件(同时记录数据库水位: PRAGMA user_version及数据表版本号, 参见SQLite3CacheInvalidationMonitor.enableTableVersion).
+     * <p>数据表须已开启数据表版本号(否则导出的快照无法加载, 抛出异常); 导出期间存在写入时重试, 多次重试仍存在写入时抛出异常.</p>
+     */
+    public void dumpCache(Path file) throws NullPointerException, SQLite3Exception {
+        Objects.requireNonNull(file);
+        if (!cacheEnabled) {
+            throw new SQLite3Exception("entity cache not enabled");
+        }
+        if (queryCacheWatermark().getTableVersion() < 0) {
+            throw new SQLite3Exception(String.format("dump entity cache to [%s] failed: table [%s] version not enabled, "
+                    + "call SQLite3CacheInvalidationMonitor.enableTableVersion first"
+                    , file, SQLite3Utils.getClassTableModel(getEntityClass()).getTableName()));
+        }
+        for (int attempt = 0; attempt < CACHE_SNAPSHOT_MAX_ATTEMPTS; attempt++) {
+            if (attempt > 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+            long writeSequence = entityCache.getWriteSequence();
+            long state = listAllState.get();
+            if (entityCache.getPendingWriteCount() > 0) {
+                continue;
+            }
+            EntityCacheSnapshot snapshot = queryCacheWatermark();
+            List<Entity> entityList = entityCache.values();
+            // 复制期间无写入开始或结束, 且数据库水位未变化
+            if (entityCache.getWriteSequence() == writeSequence && snapshot.isWatermarkMatched(queryCacheWatermark())) {
+                snapshot.setFullTable(isListAllCached() && listAllState.get() == state);
+                snapshot.write(file, entityList, getEntityCodec());
+                return;
+            }
+        }
+        throw new SQLite3Exception(String.format("dump entity cache to [%s] failed: cache modified during dump", file));
+    }
+
+    /**
+     * 从快照文件加载缓存(文件映射读取): 快照不存在、实体定义已变更或数据库水位不一致时不加载(按需查询数据库).
+     * <p>本连接池的写入不修改user_version, 数据表未开启数据表版本号(无修改计数)时无法判断快照是否过期, 不加载.</p>
+     * <p>快照为全表数据且缓存不限制数量/不过期时, 加载后listAll直接返回缓存数据.</p>
+     * @return 是否已加载
+     */
+    public boolean loadCache(Path file) throws NullPointerException, SQLite3Exception {
+        Objects.requireNonNull(file);
+        if (!cacheEnabled) {
+            return false;
+        }
+        SQLite3EntityCodec codec = getEntityCodec();
+        EntityCacheSnapshot snapshot = EntityCacheSnapshot.read(file);
+        if (snapshot == null || snapshot.getTableVersion() < 0 || !codec.getSignature().equals(snapshot.getSignature())
+                || !snapshot.isWatermarkMatched(queryCacheWatermark())) {
+            return false;
+        }
+        entityCacheWriteLock(() -> {
+            long state = listAllState.get();
+            long writeSequence = entityCache.getWriteSequence();
+            long evictionCount = entityCache.getEvictionCount();
+            boolean[] completed = {true};
+            snapshot.forEach(codec, object -> {
+                Entity entity = getEntityClass().cast(object);
+                completed[0] &= entityCache.putIfNotWrittenSince(getIdFieldValue(entity), entity, writeSequence);
+            });
+            if (snapshot.isFullTable() && completed[0] && entityCache.getEvictionCount() == evictionCount
+                    && entityCache.getOptions().isUnbounded() && (state & 1) == 0) {
+                listAllEvictionCount = evictionCount;
+                listAllState.compareAndSet(state, state + 1);
+            }
+        });
+        return true;
+    }
+
+    private EntityCacheSnapshot queryCacheWatermark() {
+        EntityCacheSnapshot snapshot = new EntityCacheSnapshot();
+        snapshot.setUserVersion(jdbcTemplate.queryForInt("PRAGMA user_version"));
+        snapshot.setTableVersion(SQLite3CacheInvalidationMonitor.queryTableVersion(jdbcTemplate
+                , SQLite3Utils.getClassTableModel(getEntityClass()).getTableName()));
+        return snapshot;
+    }
+
+    private SQLite3EntityCodec getEntityCodec() {
+        SQLite3EntityCodec codec = entityCodec;
+        if (codec == null) {
+            codec = SQLite3EntityCodec.create(SQLite3Utils.getClassTableModel(getEntityClass()));
+            entityCodec = codec;
+        }
+        return codec;
+    }
+
+    private boolean isListAllCached() {
+        long state = listAllState.get();
+        if ((state & 1) == 0) {
+            return false;
+        }
+        // 标记后发生淘汰(堆外缓存超出容量上限): 清除全表数据缓存标记
+        if (entityCache.getEvictionCount() != listAllEvictionCount) {
+            listAllState.compareAndSet(state, state + 1);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 缓存与数据库可能不一致(写入结果未发布至缓存)时清除全表数据缓存标记.
+     */
+    private void invalidateListAll() {
+        listAllState.updateAndGet(state -> (state | 1) + 1);
+    }
+
+    /**
+     * 写穿透: 数据库写入期间不持有缓存锁, 写入成功后按ID发布写入结果(value为null表示已删除), 写入失败时移除对应ID的缓存.
+     * @param update 是否为更新(仅替换已缓存的实体)
+     */
+    private void writeThrough(Map<ID, Entity> entityMap, boolean update, VoidFunc writeFunc) {
+        Map<ID, Long> stampMap = new HashMap<>();
+        entityMap.keySet().forEach(id -> {
+            stampMap.put(id, entityCache.beginWrite(id));
+        });
+        boolean written = false;
+        try {
+            writeFunc.apply();
+            written = true;
+        } finally {
+            boolean published = written;
+            for (Map.Entry<ID, Long> entry: stampMap.entrySet()) {
+                if (written) {
+                    ID id = entry.getKey();
+                    published &= update
+                            ? entityCache.completeUpdate(id, entityMap.get(id), entry.getValue())
+                            : entityCache.completeWrite(id, entityMap.get(id), entry.getValue());
+                } else {
+                    entityCache.abortWrite(entry.getKey());
+                }
+            }
+            if (!published) {
+                invalidateListAll();
+            }
+        }
+    }
+
+    private Map<ID, Entity> toEntityMap(List<Entity> entities) {
+        Map<ID, Entity> map = new HashMap<>();
+        entities.forEach(entity -> {
+            map.put(getIdFieldValue(entity), entity);
+        });
+        return map;
+    }
+
     protected String getFindOneSQL() {
         return SQLite3Utils.getClassTableModel(getEntityClass()).getSelectSQL();
     }
@@ -128,6 +463,10 @@ public abstract class SQLite3Service<Entity, ID> {
         }, getEntityClass());
     }
 
+    /**
+     * 按ID查询(命中缓存时不加锁; 未命中时同一ID的并发查询共享一次数据库查询, 不同ID并行查询;
+     * 开启合并加载时不同ID的并发未命中合并为一次批量查询).
+     */
     public Entity find(ID id) throws NullPointerException, SQLite3MappingException {
         if (id == null) {
             throw new NullPointerException();
@@ -135,28 +474,150 @@ public abstract class SQLite3Service<Entity, ID> {
         if (!cacheEnabled) {
             return findWithNoCache(id);
         }
-        AtomicReference<Entity> ref = new AtomicReference<>();
-        entityCacheReadLock(() -> {
-            ref.set(getEntityCacheMap().get(id));
+        // 加载期间该ID存在写入时加载结果不写入缓存
+        EntityBatchLoader<ID, Entity> batchLoader = this.batchLoader;
+        return entityCache.get(id, batchLoader == null ? this::findWithNoCache : batchLoader::load);
+    }
+
+    /**
+     * 按ID批量查询(不查询缓存), 返回ID与实体映射(按ids顺序, 不含不存在的ID).
+     */
+    public Map<ID, Entity> findAllWithNoCache(Collection<ID> ids) throws NullPointerException, SQLite3MappingException {
+        List<Entity> entityList = getJdbcTemplate().queryForListByIds(getEntityClass(), Objects.requireNonNull(ids));
+        Map<ID, Entity> entityMap = new HashMap<>();
+        entityList.forEach(entity -> {
+            entityMap.put(getIdFieldValue(entity), entity);
         });
-        if (ref.get() == null) {
-            entityCacheWriteLock(() -> {
-                ref.set(getEntityCacheMap().get(id));
-                if (ref.get() == null) {
-                    Entity tmpEntity = findWithNoCache(id);
-                    if (tmpEntity == null) {
-                        tmpEntity = defaultEntity;
-                    }
-                    getEntityCacheMap().put(id, tmpEntity);
-                    ref.set(tmpEntity);
-                }
-            });
+        Map<ID, Entity> retMap = new LinkedHashMap<>();
+        ids.forEach(id -> {
+            Entity entity = entityMap.get(id);
+            if (entity != null) {
+                retMap.put(id, entity);
+            }
+        });
+        return retMap;
+    }
+
+    /**
+     * 按ID批量查询: 命中缓存的ID不查询数据库, 未命中的ID一次批量查询(分段IN查询或临时表关联查询)后写入缓存.
+     * @return ID与实体映射(按ids顺序, 不含不存在的ID)
+     */
+    public Map<ID, Entity> findAll(Collection<ID> ids) throws NullPointerException, SQLite3MappingException {
+        if (ids == null) {
+            throw new NullPointerException();
         }
-        Entity entity = ref.get();
-        if (entity == defaultEntity) {
-            entity = null;
+        if (!cacheEnabled) {
+            return findAllWithNoCache(ids);
         }
-        return entity;
+        return entityCache.getAll(ids, this::findAllWithNoCache);
+    }
+
+    /**
+     * 按字段值查询(不查询缓存).
+     * @param columnName 数据表字段名
+     */
+    public List<Entity> findByWithNoCache(String columnName, Object value) throws NullPointerException, IllegalArgumentException, SQLite3MappingException {
+        Object fieldValue = EntityIndex.toFieldValue(getColumnModel(columnName), value);
+        String sql = SQLite3Utils.getClassTableModel(getEntityClass()).getSelectAllSQL(builder -> {
+            builder.append("WHERE ").append(columnName).append("=? ");
+        });
+        return getJdbcTemplate().queryForList(sql, statement -> {
+            statement.setObject(1, fieldValue);
+        }, getEntityClass());
+    }
+
+    /**
+     * 按字段值查询: 已缓存全表数据且字段标注@SQLite3Index时查询缓存索引, 否则查询数据库.
+     * @param columnName 数据表字段名
+     * @param value 字段值(数值类型转换为字段类型)
+     */
+    public List<Entity> findBy(String columnName, Object value) throws NullPointerException, IllegalArgumentException, SQLite3MappingException {
+        Object fieldValue = EntityIndex.toFieldValue(getColumnModel(columnName), value);
+        EntityIndex<ID, Entity> index = cacheEnabled ? entityCache.getIndex(columnName) : null;
+        if (index == null || !isListAllCached()) {
+            return findByWithNoCache(columnName, fieldValue);
+        }
+        List<Entity> entityList = new ArrayList<>();
+        for (ID id: index.get(fieldValue)) {
+            Entity entity = entityCache.get(id);
+            // 先写入缓存后更新索引: 再次校验字段值
+            if (entity != null && index.isMatched(entity, fieldValue)) {
+                entityList.add(entity);
+            }
+        }
+        return entityList;
+    }
+
+    /**
+     * 按字段值范围查询(不查询缓存), 按字段值升序.
+     * @param fromValue 范围下限(null表示不限制)
+     * @param toValue 范围上限(null表示不限制)
+     */
+    public List<Entity> findByRangeWithNoCache(String columnName, Object fromValue, boolean fromInclusive, Object toValue, boolean toInclusive)
+            throws NullPointerException, IllegalArgumentException, SQLite3MappingException {
+        TableColumnModel columnModel = getColumnModel(columnName);
+        List<Object> parameterList = new ArrayList<>(2);
+        List<String> conditionList = new ArrayList<>(2);
+        if (fromValue != null) {
+            parameterList.add(EntityIndex.toFieldValue(columnModel, fromValue));
+            conditionList.add(columnName + (fromInclusive ? ">=?" : ">?"));
+        }
+        if (toValue != null) {
+            parameterList.add(EntityIndex.toFieldValue(columnModel, toValue));
+            conditionList.add(columnName + (toInclusive ? "<=?" : "<?"));
+        }
+        String sql = SQLite3Utils.getClassTableModel(getEntityClass()).getSelectAllSQL(builder -> {
+            if (!conditionList.isEmpty()) {
+                builder.append("WHERE ").append(String.join(" AND ", conditionList)).append(" ");
+            }
+            builder.append("ORDER BY ").append(columnName);
+        });
+        return getJdbcTemplate().queryForList(sql, statement -> {
+            for (int index = 0; index < parameterList.size(); index++) {
+                statement.setObject(index + 1, parameterList.get(index));
+            }
+        }, getEntityClass());
+    }
+
+    /**
+     * 按字段值范围查询[fromValue, toValue), 参见findByRange(String, Object, boolean, Object, boolean).
+     */
+    public List<Entity> findByRange(String columnName, Object fromValue, Object toValue)
+            throws NullPointerException, IllegalArgumentException, SQLite3MappingException {
+        return findByRange(columnName, fromValue, true, toValue, false);
+    }
+
+    /**
+     * 按字段值范围查询(按字段值升序): 已缓存全表数据且字段标注@SQLite3Index(type = SORTED)时查询缓存索引, 否则查询数据库.
+     * @param fromValue 范围下限(null表示不限制)
+     * @param toValue 范围上限(null表示不限制)
+     */
+    public List<Entity> findByRange(String columnName, Object fromValue, boolean fromInclusive, Object toValue, boolean toInclusive)
+            throws NullPointerException, IllegalArgumentException, SQLite3MappingException {
+        TableColumnModel columnModel = getColumnModel(columnName);
+        Object fromFieldValue = fromValue == null ? null : EntityIndex.toFieldValue(columnModel, fromValue);
+        Object toFieldValue = toValue == null ? null : EntityIndex.toFieldValue(columnModel, toValue);
+        EntityIndex<ID, Entity> index = cacheEnabled ? entityCache.getIndex(columnName) : null;
+        if (index == null || index.getType() != CacheIndexType.SORTED || !isListAllCached()) {
+            return findByRangeWithNoCache(columnName, fromFieldValue, fromInclusive, toFieldValue, toInclusive);
+        }
+        List<Entity> entityList = new ArrayList<>();
+        for (ID id: index.range(fromFieldValue, fromInclusive, toFieldValue, toInclusive)) {
+            Entity entity = entityCache.get(id);
+            if (entity != null && index.isInRange(entity, fromFieldValue, fromInclusive, toFieldValue, toInclusive)) {
+                entityList.add(entity);
+            }
+        }
+        return entityList;
+    }
+
+    private TableColumnModel getColumnModel(String columnName) throws NullPointerException, SQLite3MappingException {
+        TableModel tableModel = SQLite3Utils.getClassTableModel(getEntityClass());
+        TableColumnModel columnModel = tableModel.getColumnModelMap().get(Objects.requireNonNull(columnName));
+        if (columnModel == null) {
+            throw new SQLite3MappingException(String.format("table[%s] has no field: %s", tableModel.getTableName(), columnName));
+        }
+        return columnModel;
     }
 
     public Entity insertWithNoCache(Entity entity) throws NullPointerException, SQLite3MappingException {
@@ -171,9 +632,8 @@ public abstract class SQLite3Service<Entity, ID> {
         if (!cacheEnabled) {
             return insertWithNoCache(entity);
         }
-        entityCacheWriteLock(() -> {
+        writeThrough(Collections.singletonMap(getIdFieldValue(entity), entity), false, () -> {
             insertWithNoCache(entity);
-            getEntityCacheMap().put(getIdFieldValue(entity), entity);
         });
         return entity;
     }
@@ -195,13 +655,11 @@ public abstract class SQLite3Service<Entity, ID> {
         if (!cacheEnabled) {
             return insertWithNoCache(entities);
         }
-        entityCacheWriteLock(() -> {
-            Map<ID, Entity> map = new HashMap<>();
-            entities.forEach(entity -> {
-                map.put(getIdFieldValue(entity), entity);
-            });
+        if (entities == null) {
+            throw new NullPointerException();
+        }
+        writeThrough(toEntityMap(entities), false, () -> {
             insertWithNoCache(entities);
-            getEntityCacheMap().putAll(map);
         });
         return entities;
     }
@@ -218,10 +676,8 @@ public abstract class SQLite3Service<Entity, ID> {
         if (!cacheEnabled) {
             return updateWithNoCache(entity);
         }
-        entityCacheWriteLock(() -> {
-            ID id = getIdFieldValue(entity);
+        writeThrough(Collections.singletonMap(getIdFieldValue(entity), entity), true, () -> {
             updateWithNoCache(entity);
-            getEntityCacheMap().put(id, entity);
         });
         return entity;
     }
@@ -243,13 +699,58 @@ public abstract class SQLite3Service<Entity, ID> {
         if (!cacheEnabled) {
             return updateWithNoCache(entities);
         }
-        entityCacheWriteLock(() -> {
-            Map<ID, Entity> map = new HashMap<>();
-            entities.forEach(entity -> {
-                map.put(getIdFieldValue(entity), entity);
-            });
+        if (entities == null) {
+            throw new NullPointerException();
+        }
+        writeThrough(toEntityMap(entities), true, () -> {
             updateWithNoCache(entities);
-            getEntityCacheMap().putAll(map);
+        });
+        return entities;
+    }
+
+    public Entity upsertWithNoCache(Entity entity) throws NullPointerException, SQLite3MappingException {
+        if (entity == null) {
+            throw new NullPointerException();
+        }
+        getJdbcTemplate().upsert(entity);
+        return entity;
+    }
+
+    /**
+     * 插入或更新(按主键, 无需先查询记录是否存在).
+     */
+    public Entity upsert(Entity entity) throws NullPointerException, SQLite3MappingException {
+        if (!cacheEnabled) {
+            return upsertWithNoCache(entity);
+        }
+        writeThrough(Collections.singletonMap(getIdFieldValue(entity), entity), false, () -> {
+            upsertWithNoCache(entity);
+        });
+        return entity;
+    }
+
+    public List<Entity> upsertWithNoCache(List<Entity> entities) throws NullPointerException, SQLite3MappingException {
+        if (entities == null) {
+            throw new NullPointerException();
+        }
+        entities.forEach(entity -> {
+            if (entity == null) {
+                throw new NullPointerException();
+            }
+        });
+        getJdbcTemplate().upsert(entities);
+        return entities;
+    }
+
+    public List<Entity> upsert(List<Entity> entities) throws NullPointerException, SQLite3MappingException {
+        if (!cacheEnabled) {
+            return upsertWithNoCache(entities);
+        }
+        if (entities == null) {
+            throw new NullPointerException();
+        }
+        writeThrough(toEntityMap(entities), false, () -> {
+            upsertWithNoCache(entities);
         });
         return entities;
     }
@@ -295,10 +796,16 @@ public abstract class SQLite3Service<Entity, ID> {
         if (!cacheEnabled) {
             return deleteByIdWithNoCache(idList);
         }
+        if (idList == null) {
+            throw new NullPointerException();
+        }
+        Map<ID, Entity> deletedMap = new HashMap<>();
+        idList.forEach(id -> {
+            deletedMap.put(Objects.requireNonNull(id), null);
+        });
         AtomicReference<Integer> ref = new AtomicReference<>();
-        entityCacheWriteLock(() -> {
+        writeThrough(deletedMap, false, () -> {
             ref.set(deleteByIdWithNoCache(idList));
-            idList.forEach(getEntityCacheMap()::remove);
         });
         return ref.get();
     }
@@ -316,4 +823,102 @@ public abstract class SQLite3Service<Entity, ID> {
         }
     }
 
+    private static class ListAllSnapshot<Entity> {
+        private final long modificationCount;
+        private final List<Entity> entityList;
+
+        private ListAllSnapshot(long modificationCount, List<Entity> entityList) {
+            this.modificationCount = modificationCount;
+            this.entityList = entityList;
+        }
+    }
+
+    private class EntityCacheMXBeanImpl implements EntityCacheMXBean {
+
+        @Override
+        public long getHitCount() {
+            return getCacheStats().getHitCount();
+        }
+
+        @Override
+        public long getNegativeHitCount() {
+            return getCacheStats().getNegativeHitCount();
+        }
+
+        @Override
+        public long getMissCount() {
+            return getCacheStats().getMissCount();
+        }
+
+        @Override
+        public double getHitRate() {
+            return getCacheStats().getHitRate();
+        }
+
+        @Override
+        public long getLoadSuccessCount() {
+            return getCacheStats().getLoadSuccessCount();
+        }
+
+        @Override
+        public long getLoadFailureCount() {
+            return getCacheStats().getLoadFailureCount();
+        }
+
+        @Override
+        public double getAverageLoadPenaltyNanos() {
+            return getCacheStats().getAverageLoadPenaltyNanos();
+        }
+
+        @Override
+        public long[] getLoadLatencyBucketBoundsMicros() {
+            return CacheStats.getLoadLatencyBucketBoundsMicros();
+        }
+
+        @Override
+        public long[] getLoadLatencyHistogram() {
+            return getCacheStats().getLoadLatencyHistogram();
+        }
+
+        @Override
+        public long getEvictionCount() {
+            return getCacheStats().getEvictionCount();
+        }
+
+        @Override
+        public long getExpirationCount() {
+            return getCacheStats().getExpirationCount();
+        }
+
+        @Override
+        public int getSize() {
+            return entityCache.size();
+        }
+
+        @Override
+        public int getNegativeSize() {
+            return entityCache.negativeSize();
+        }
+
+        @Override
+        public int getMaxSize() {
+            return entityCache.getOptions().getMaxSize();
+        }
+
+        @Override
+        public long getEvictionLockWaitNanos() {
+            return getCacheStats().getEvictionLockWaitNanos();
+        }
+
+        @Override
+        public long getEntityCacheLockWaitNanos() {
+            return entityCacheLockWaitNanos.sum();
+        }
+
+        @Override
+        public void cleanUp() {
+            entityCache.cleanUp();
+        }
+    }
+
 }
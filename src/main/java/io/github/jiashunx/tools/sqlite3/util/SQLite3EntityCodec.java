@@ -0,0 +1,291 @@
+package io.github.jiashunx.tools.sqlite3.util;
+
+import io.github.jiashunx.tools.sqlite3.exception.SQLite3MappingException;
+import io.github.jiashunx.tools.sqlite3.model.FieldAccessor;
+import io.github.jiashunx.tools.sqlite3.model.TableColumnModel;
+import io.github.jiashunx.tools.sqlite3.model.TableModel;
+
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 实体对象与紧凑二进制格式互相转换(字段顺序与TableModel字段模型列表顺序一致), 用于缓存快照及堆外缓存.
+ * <p>创建时按字段类型一次性解析各字段的编解码方式: 基本类型字段按固定长度写入, 引用类型字段先写入1字节null标记.
+ * 不支持流/Blob/Clob等无法复制的字段类型. 解码直接读取ByteBuffer(可为堆外内存或文件映射内存), 不复制中间数组.</p>
+ * @author jiashunx
+ */
+public class SQLite3EntityCodec {
+
+    private static final byte NULL_VALUE = 0;
+    private static final byte NON_NULL_VALUE = 1;
+
+    private final TableModel tableModel;
+    private final FieldCodec[] codecs;
+    /**
+     * 字段布局签名(字段名及类型), 用于校验已编码数据与当前实体定义是否一致.
+     */
+    private final String signature;
+
+    private SQLite3EntityCodec(TableModel tableModel, FieldCodec[] codecs, String signature) {
+        this.tableModel = tableModel;
+        this.codecs = codecs;
+        this.signature = signature;
+    }
+
+    public static SQLite3EntityCodec create(TableModel tableModel) throws NullPointerException, SQLite3MappingException {
+        List<TableColumnModel> columnModelList = Objects.requireNonNull(tableModel).getColumnModelList();
+        FieldCodec[] codecs = new FieldCodec[columnModelList.size()];
+        StringBuilder signatureBuilder = new StringBuilder(tableModel.getKlassName());
+        for (int index = 0; index < codecs.length; index++) {
+            TableColumnModel columnModel = columnModelList.get(index);
+            FieldAccessor accessor = columnModel.getFieldAccessor();
+            codecs[index] = getFieldCodec(accessor);
+            if (codecs[index] == null) {
+                throw new SQLite3MappingException(String.format("table[%s] field[%s] type [%s] not supported by entity codec"
+                        , tableModel.getTableName(), columnModel.getFieldName(), accessor.getFieldType().getName()));
+            }
+            signatureBuilder.append(';').append(columnModel.getColumnName()).append(':').append(accessor.getFieldType().getName());
+        }
+        return new SQLite3EntityCodec(tableModel, codecs, signatureBuilder.toString());
+    }
+
+    /**
+     * 编码实体对象.
+     * @return 已写入数据的ByteBuffer(position为0, limit为编码长度)
+     */
+    public ByteBuffer encode(Object object) throws NullPointerException, SQLite3MappingException {
+        Objects.requireNonNull(object);
+        Output output = new Output();
+        for (FieldCodec codec: codecs) {
+            codec.encode(object, output);
+        }
+        output.buffer.flip();
+        return output.buffer;
+    }
+
+    /**
+     * 从ByteBuffer当前位置解码实体对象(解码后position移动至编码数据末尾).
+     */
+    public Object decode(ByteBuffer buffer) throws NullPointerException, SQLite3MappingException {
+        Objects.requireNonNull(buffer);
+        Object instance = tableModel.newInstance();
+        try {
+            for (FieldCodec codec: codecs) {
+                codec.decode(buffer, instance);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException exception) {
+            throw new SQLite3MappingException(String.format("decode entity [%s] failed", tableModel.getKlassName()), exception);
+        }
+        return instance;
+    }
+
+    public TableModel getTableModel() {
+        return tableModel;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    /**
+     * 写入字符串(4字节长度 + UTF-8编码).
+     */
+    public static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    public static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static FieldCodec getFieldCodec(FieldAccessor accessor) {
+        Class<?> fieldType = accessor.getFieldType();
+        if (fieldType == boolean.class) {
+            return new FieldCodec((object, output) -> output.ensure(1).put((byte) (accessor.getBoolean(object) ? 1 : 0))
+                    , (buffer, instance) -> accessor.setBoolean(instance, buffer.get() != 0));
+        }
+        if (fieldType == byte.class) {
+            return new FieldCodec((object, output) -> output.ensure(1).put(accessor.getByte(object))
+                    , (buffer, instance) -> accessor.setByte(instance, buffer.get()));
+        }
+        if (fieldType == short.class) {
+            return new FieldCodec((object, output) -> output.ensure(2).putShort(accessor.getShort(object))
+                    , (buffer, instance) -> accessor.setShort(instance, buffer.getShort()));
+        }
+        if (fieldType == char.class) {
+            return new FieldCodec((object, output) -> output.ensure(2).putChar(accessor.getChar(object))
+                    , (buffer, instance) -> accessor.setChar(instance, buffer.getChar()));
+        }
+        if (fieldType == int.class) {
+            return new FieldCodec((object, output) -> output.ensure(4).putInt(accessor.getInt(object))
+                    , (buffer, instance) -> accessor.setInt(instance, buffer.getInt()));
+        }
+        if (fieldType == long.class) {
+            return new FieldCodec((object, output) -> output.ensure(8).putLong(accessor.getLong(object))
+                    , (buffer, instance) -> accessor.setLong(instance, buffer.getLong()));
+        }
+        if (fieldType == float.class) {
+            return new FieldCodec((object, output) -> output.ensure(4).putFloat(accessor.getFloat(object))
+                    , (buffer, instance) -> accessor.setFloat(instance, buffer.getFloat()));
+        }
+        if (fieldType == double.class) {
+            return new FieldCodec((object, output) -> output.ensure(8).putDouble(accessor.getDouble(object))
+                    , (buffer, instance) -> accessor.setDouble(instance, buffer.getDouble()));
+        }
+        ValueCodec valueCodec = getValueCodec(fieldType);
+        if (valueCodec == null) {
+            return null;
+        }
+        // 引用类型字段: 先写入null标记
+        return new FieldCodec((object, output) -> {
+            Object value = accessor.get(object);
+            if (value == null) {
+                output.ensure(1).put(NULL_VALUE);
+            } else {
+                output.ensure(1).put(NON_NULL_VALUE);
+                valueCodec.encoder.encode(value, output);
+            }
+        }, (buffer, instance) -> accessor.set(instance, buffer.get() == NULL_VALUE ? null : valueCodec.decoder.decode(buffer)));
+    }
+
+    private static ValueCodec getValueCodec(Class<?> fieldType) {
+        if (fieldType == String.class) {
+            return new ValueCodec((value, output) -> writeString(output, (String) value), SQLite3EntityCodec::readString);
+        }
+        if (fieldType == Boolean.class) {
+            return new ValueCodec((value, output) -> output.ensure(1).put((byte) ((Boolean) value ? 1 : 0)), buffer -> buffer.get() != 0);
+        }
+        if (fieldType == Byte.class) {
+            return new ValueCodec((value, output) -> output.ensure(1).put((Byte) value), ByteBuffer::get);
+        }
+        if (fieldType == Short.class) {
+            return new ValueCodec((value, output) -> output.ensure(2).putShort((Short) value), ByteBuffer::getShort);
+        }
+        if (fieldType == Character.class) {
+            return new ValueCodec((value, output) -> output.ensure(2).putChar((Character) value), ByteBuffer::getChar);
+        }
+        if (fieldType == Integer.class) {
+            return new ValueCodec((value, output) -> output.ensure(4).putInt((Integer) value), ByteBuffer::getInt);
+        }
+        if (fieldType == Long.class) {
+            return new ValueCodec((value, output) -> output.ensure(8).putLong((Long) value), ByteBuffer::getLong);
+        }
+        if (fieldType == Float.class) {
+            return new ValueCodec((value, output) -> output.ensure(4).putFloat((Float) value), ByteBuffer::getFloat);
+        }
+        if (fieldType == Double.class) {
+            return new ValueCodec((value, output) -> output.ensure(8).putDouble((Double) value), ByteBuffer::getDouble);
+        }
+        if (fieldType == BigDecimal.class) {
+            return new ValueCodec((value, output) -> writeString(output, value.toString()), buffer -> new BigDecimal(readString(buffer)));
+        }
+        if (fieldType == byte[].class) {
+            return new ValueCodec((value, output) -> {
+                byte[] bytes = (byte[]) value;
+                output.ensure(4 + bytes.length).putInt(bytes.length).put(bytes);
+            }, buffer -> {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                return bytes;
+            });
+        }
+        if (fieldType == java.util.Date.class) {
+            return new ValueCodec((value, output) -> output.ensure(8).putLong(((java.util.Date) value).getTime())
+                    , buffer -> new java.util.Date(buffer.getLong()));
+        }
+        if (fieldType == java.sql.Date.class) {
+            return new ValueCodec((value, output) -> output.ensure(8).putLong(((java.sql.Date) value).getTime())
+                    , buffer -> new java.sql.Date(buffer.getLong()));
+        }
+        if (fieldType == java.sql.Time.class) {
+            return new ValueCodec((value, output) -> output.ensure(8).putLong(((java.sql.Time) value).getTime())
+                    , buffer -> new java.sql.Time(buffer.getLong()));
+        }
+        if (fieldType == java.sql.Timestamp.class) {
+            return new ValueCodec((value, output) -> {
+                java.sql.Timestamp timestamp = (java.sql.Timestamp) value;
+                output.ensure(12).putLong(timestamp.getTime()).putInt(timestamp.getNanos());
+            }, buffer -> {
+                java.sql.Timestamp timestamp = new java.sql.Timestamp(buffer.getLong());
+                timestamp.setNanos(buffer.getInt());
+                return timestamp;
+            });
+        }
+        return null;
+    }
+
+    /**
+     * 可扩容的写缓冲区.
+     */
+    private static class Output {
+        private ByteBuffer buffer = ByteBuffer.allocate(64);
+
+        private ByteBuffer ensure(int length) {
+            if (buffer.remaining() < length) {
+                ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length));
+                buffer.flip();
+                newBuffer.put(buffer);
+                buffer = newBuffer;
+            }
+            return buffer;
+        }
+    }
+
+    private static void writeString(Output output, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.ensure(4 + bytes.length).putInt(bytes.length).put(bytes);
+    }
+
+    private interface FieldEncoder {
+        void encode(Object object, Output output);
+    }
+
+    private interface FieldDecoder {
+        void decode(ByteBuffer buffer, Object instance);
+    }
+
+    private interface ValueEncoder {
+        void encode(Object value, Output output);
+    }
+
+    private interface ValueDecoder {
+        Object decode(ByteBuffer buffer);
+    }
+
+    private static class FieldCodec {
+        private final FieldEncoder encoder;
+        private final FieldDecoder decoder;
+
+        private FieldCodec(FieldEncoder encoder, FieldDecoder decoder) {
+            this.encoder = encoder;
+            this.decoder = decoder;
+        }
+
+        private void encode(Object object, Output output) {
+            encoder.encode(object, output);
+        }
+
+        private void decode(ByteBuffer buffer, Object instance) {
+            decoder.decode(buffer, instance);
+        }
+    }
+
+    private static class ValueCodec {
+        private final ValueEncoder encoder;
+        private final ValueDecoder decoder;
+
+        private ValueCodec(ValueEncoder encoder, ValueDecoder decoder) {
+            this.encoder = encoder;
+            this.decoder = decoder;
+        }
+    }
+
+}
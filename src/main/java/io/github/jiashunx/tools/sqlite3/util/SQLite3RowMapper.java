@@ -0,0 +1,185 @@
+package io.github.jiashunx.tools.sqlite3.util;
+
+import io.github.jiashunx.tools.sqlite3.exception.SQLite3MappingException;
+import io.github.jiashunx.tools.sqlite3.model.FieldAccessor;
+import io.github.jiashunx.tools.sqlite3.model.QueryRetClassModel;
+import io.github.jiashunx.tools.sqlite3.model.QueryRetColumnModel;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 结果集直接映射为对象(不经过中间Map).
+ * <p>创建时根据结果集元数据一次性解析列序号与字段的绑定关系, 映射时按字段类型从结果集中读取对应类型的值.
+ * 基本类型字段通过字段访问器直接赋值, 不发生装箱/拆箱. 同一映射器仅适用于创建时的结果集(列顺序相同的结果集).</p>
+ * @author jiashunx
+ */
+public class SQLite3RowMapper<R> {
+
+    private final Class<R> klass;
+    private final QueryRetClassModel retClassModel;
+    private final ColumnBinding[] bindings;
+
+    private SQLite3RowMapper(Class<R> klass, QueryRetClassModel retClassModel, ColumnBinding[] bindings) {
+        this.klass = klass;
+        this.retClassModel = retClassModel;
+        this.bindings = bindings;
+    }
+
+    public static <R> SQLite3RowMapper<R> create(ResultSet resultSet, Class<R> klass)
+            throws NullPointerException, SQLException, SQLite3MappingException {
+        Objects.requireNonNull(resultSet);
+        QueryRetClassModel retClassModel = SQLite3Utils.getClassQueryRetModel(Objects.requireNonNull(klass));
+        Map<String, QueryRetColumnModel> retColumnModelMap = retClassModel.getRetColumnModelMap();
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        List<ColumnBinding> bindingList = new ArrayList<>(columnCount);
+        for (int index = 1; index <= columnCount; index++) {
+            QueryRetColumnModel retColumnModel = retColumnModelMap.get(metaData.getColumnName(index));
+            if (retColumnModel != null) {
+                bindingList.add(new ColumnBinding(index
+                        , getColumnSetter(retColumnModel.getFieldAccessor(), metaData.getColumnTypeName(index))));
+            }
+        }
+        return new SQLite3RowMapper<>(klass, retClassModel, bindingList.toArray(new ColumnBinding[0]));
+    }
+
+    /**
+     * 将结果集当前行映射为对象.
+     */
+    public R mapRow(ResultSet resultSet) throws SQLException, SQLite3MappingException {
+        R instance = klass.cast(retClassModel.newInstance());
+        for (ColumnBinding binding: bindings) {
+            binding.columnSetter.set(resultSet, binding.columnIndex, instance);
+        }
+        return instance;
+    }
+
+    private static ColumnSetter getColumnSetter(FieldAccessor accessor, String columnTypeName) {
+        Class<?> fieldType = accessor.getFieldType();
+        if (fieldType == boolean.class) {
+            return (resultSet, index, instance) -> accessor.setBoolean(instance, resultSet.getBoolean(index));
+        }
+        if (fieldType == byte.class) {
+            return (resultSet, index, instance) -> accessor.setByte(instance, resultSet.getByte(index));
+        }
+        if (fieldType == short.class) {
+            return (resultSet, index, instance) -> accessor.setShort(instance, resultSet.getShort(index));
+        }
+        if (fieldType == int.class) {
+            return (resultSet, index, instance) -> accessor.setInt(instance, resultSet.getInt(index));
+        }
+        if (fieldType == long.class) {
+            return (resultSet, index, instance) -> accessor.setLong(instance, resultSet.getLong(index));
+        }
+        if (fieldType == float.class) {
+            return (resultSet, index, instance) -> accessor.setFloat(instance, resultSet.getFloat(index));
+        }
+        if (fieldType == double.class) {
+            return (resultSet, index, instance) -> accessor.setDouble(instance, resultSet.getDouble(index));
+        }
+        if (fieldType == char.class) {
+            return (resultSet, index, instance) -> {
+                String value = resultSet.getString(index);
+                accessor.setChar(instance, value == null || value.isEmpty() ? '\u0000' : value.charAt(0));
+            };
+        }
+        ColumnReader columnReader = getColumnReader(fieldType, columnTypeName);
+        return (resultSet, index, instance) -> accessor.set(instance, columnReader.read(resultSet, index));
+    }
+
+    private static ColumnReader getColumnReader(Class<?> fieldType, String columnTypeName) {
+        if (fieldType == String.class) {
+            return ResultSet::getString;
+        }
+        // 包装类型字段: 列值为NULL时映射为null
+        if (fieldType == Boolean.class) {
+            return (resultSet, index) -> nullable(resultSet, resultSet.getBoolean(index));
+        }
+        if (fieldType == Byte.class) {
+            return (resultSet, index) -> nullable(resultSet, resultSet.getByte(index));
+        }
+        if (fieldType == Short.class) {
+            return (resultSet, index) -> nullable(resultSet, resultSet.getShort(index));
+        }
+        if (fieldType == Integer.class) {
+            return (resultSet, index) -> nullable(resultSet, resultSet.getInt(index));
+        }
+        if (fieldType == Long.class) {
+            return (resultSet, index) -> nullable(resultSet, resultSet.getLong(index));
+        }
+        if (fieldType == Float.class) {
+            return (resultSet, index) -> nullable(resultSet, resultSet.getFloat(index));
+        }
+        if (fieldType == Double.class) {
+            return (resultSet, index) -> nullable(resultSet, resultSet.getDouble(index));
+        }
+        if (fieldType == Character.class) {
+            return (resultSet, index) -> {
+                String value = resultSet.getString(index);
+                return value == null || value.isEmpty() ? null : value.charAt(0);
+            };
+        }
+        if (fieldType == BigDecimal.class) {
+            // sqlite中NUMERIC/DECIMAL以REAL存储, 与原有映射保持一致
+            return (resultSet, index) -> {
+                double value = resultSet.getDouble(index);
+                return resultSet.wasNull() ? null : BigDecimal.valueOf(value);
+            };
+        }
+        if (fieldType == byte[].class) {
+            return ResultSet::getBytes;
+        }
+        if (fieldType == java.util.Date.class) {
+            switch (String.valueOf(columnTypeName).toUpperCase()) {
+                case "DATE":
+                    return (resultSet, index) -> SQLite3Utils.transferDate(resultSet.getDate(index));
+                case "TIME":
+                    return (resultSet, index) -> SQLite3Utils.transferTime(resultSet.getTime(index));
+                case "TIMESTAMP":
+                    return (resultSet, index) -> SQLite3Utils.transferTimestamp(resultSet.getTimestamp(index));
+                default:
+                    return ResultSet::getObject;
+            }
+        }
+        if (fieldType == java.sql.Date.class) {
+            return ResultSet::getDate;
+        }
+        if (fieldType == java.sql.Time.class) {
+            return ResultSet::getTime;
+        }
+        if (fieldType == java.sql.Timestamp.class) {
+            return ResultSet::getTimestamp;
+        }
+        return ResultSet::getObject;
+    }
+
+    private static Object nullable(ResultSet resultSet, Object value) throws SQLException {
+        return resultSet.wasNull() ? null : value;
+    }
+
+    private interface ColumnReader {
+        Object read(ResultSet resultSet, int columnIndex) throws SQLException;
+    }
+
+    private interface ColumnSetter {
+        void set(ResultSet resultSet, int columnIndex, Object instance) throws SQLException;
+    }
+
+    private static class ColumnBinding {
+        private final int columnIndex;
+        private final ColumnSetter columnSetter;
+
+        private ColumnBinding(int columnIndex, ColumnSetter columnSetter) {
+            this.columnIndex = columnIndex;
+            this.columnSetter = columnSetter;
+        }
+    }
+
+}
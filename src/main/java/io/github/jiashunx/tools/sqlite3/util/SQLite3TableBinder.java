@@ -0,0 +1,214 @@
+package io.github.jiashunx.tools.sqlite3.util;
+
+import io.github.jiashunx.tools.sqlite3.connection.SQLite3PreparedStatement;
+import io.github.jiashunx.tools.sqlite3.exception.SQLite3MappingException;
+import io.github.jiashunx.tools.sqlite3.model.ColumnMetadata;
+import io.github.jiashunx.tools.sqlite3.model.FieldAccessor;
+import io.github.jiashunx.tools.sqlite3.model.TableColumnModel;
+import io.github.jiashunx.tools.sqlite3.model.TableModel;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.NClob;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 对象字段值绑定至预编译语句参数(参数顺序与TableModel字段模型列表顺序一致).
+ * <p>创建时按字段类型及数据表字段定义一次性解析各参数的绑定方式, 绑定时基本类型字段直接读取并调用对应类型的set方法,
+ * 不经过字符串转换. 包装类型字段值为null时绑定为NULL.</p>
+ * @author jiashunx
+ */
+public class SQLite3TableBinder {
+
+    private final TableModel tableModel;
+    /**
+     * 创建绑定器时使用的数据表字段定义.
+     */
+    private final Map<String, ColumnMetadata> columnMetadataMap;
+    private final ParameterBinder[] binders;
+
+    private SQLite3TableBinder(TableModel tableModel, Map<String, ColumnMetadata> columnMetadataMap, ParameterBinder[] binders) {
+        this.tableModel = tableModel;
+        this.columnMetadataMap = columnMetadataMap;
+        this.binders = binders;
+    }
+
+    public static SQLite3TableBinder create(TableModel tableModel) throws NullPointerException, SQLite3MappingException {
+        String tableName = Objects.requireNonNull(tableModel).getTableName();
+        Map<String, ColumnMetadata> columnMetadataMap = tableModel.getColumnMetadata();
+        if (columnMetadataMap == null) {
+            throw new SQLite3MappingException(String.format("table[%s] column metadata not loaded", tableName));
+        }
+        List<TableColumnModel> columnModelList = tableModel.getColumnModelList();
+        ParameterBinder[] binders = new ParameterBinder[columnModelList.size()];
+        for (int index = 0; index < binders.length; index++) {
+            TableColumnModel columnModel = columnModelList.get(index);
+            String columnName = columnModel.getColumnName();
+            ColumnMetadata columnMetadata = columnMetadataMap.get(columnName);
+            if (columnMetadata == null) {
+                throw new SQLite3MappingException(String.format("table[%s] has no field: %s", tableName, columnName));
+            }
+            binders[index] = getParameterBinder(columnModel.getFieldAccessor(), columnMetadata.getColumnTypeName());
+        }
+        return new SQLite3TableBinder(tableModel, columnMetadataMap, binders);
+    }
+
+    /**
+     * 绑定对象字段值至预编译语句参数(参数序号从1开始).
+     */
+    public void bind(SQLite3PreparedStatement statement, Object object) throws SQLite3MappingException {
+        bind(statement, object, 0);
+    }
+
+    /**
+     * 绑定对象字段值至预编译语句参数(多行插入时指定参数偏移量, 参数序号从偏移量+1开始).
+     */
+    public void bind(SQLite3PreparedStatement statement, Object object, int parameterOffset) throws SQLite3MappingException {
+        for (int index = 0; index < binders.length; index++) {
+            binders[index].bind(statement, parameterOffset + index + 1, object);
+        }
+    }
+
+    /**
+     * 单个对象绑定的参数个数.
+     */
+    public int getParameterCount() {
+        return binders.length;
+    }
+
+    public TableModel getTableModel() {
+        return tableModel;
+    }
+
+    public Map<String, ColumnMetadata> getColumnMetadataMap() {
+        return columnMetadataMap;
+    }
+
+    private static ParameterBinder getParameterBinder(FieldAccessor accessor, String columnTypeName) {
+        Class<?> fieldType = accessor.getFieldType();
+        if (fieldType == String.class) {
+            return (statement, index, object) -> statement.setString(index, (String) accessor.get(object));
+        }
+        if (fieldType == boolean.class) {
+            return (statement, index, object) -> statement.setBoolean(index, accessor.getBoolean(object));
+        }
+        if (fieldType == byte.class) {
+            return (statement, index, object) -> statement.setByte(index, accessor.getByte(object));
+        }
+        if (fieldType == short.class) {
+            return (statement, index, object) -> statement.setShort(index, accessor.getShort(object));
+        }
+        if (fieldType == int.class) {
+            return (statement, index, object) -> statement.setInt(index, accessor.getInt(object));
+        }
+        if (fieldType == long.class) {
+            return (statement, index, object) -> statement.setLong(index, accessor.getLong(object));
+        }
+        if (fieldType == float.class) {
+            return (statement, index, object) -> statement.setFloat(index, accessor.getFloat(object));
+        }
+        if (fieldType == double.class) {
+            return (statement, index, object) -> statement.setDouble(index, accessor.getDouble(object));
+        }
+        if (fieldType == char.class) {
+            return (statement, index, object) -> statement.setString(index, String.valueOf(accessor.getChar(object)));
+        }
+        // 包装类型字段: 字段值为null时绑定NULL
+        if (fieldType == Boolean.class) {
+            return nullable(accessor, (statement, index, value) -> statement.setBoolean(index, (Boolean) value));
+        }
+        if (fieldType == Byte.class) {
+            return nullable(accessor, (statement, index, value) -> statement.setByte(index, (Byte) value));
+        }
+        if (fieldType == Short.class) {
+            return nullable(accessor, (statement, index, value) -> statement.setShort(index, (Short) value));
+        }
+        if (fieldType == Integer.class) {
+            return nullable(accessor, (statement, index, value) -> statement.setInt(index, (Integer) value));
+        }
+        if (fieldType == Long.class) {
+            return nullable(accessor, (statement, index, value) -> statement.setLong(index, (Long) value));
+        }
+        if (fieldType == Float.class) {
+            return nullable(accessor, (statement, index, value) -> statement.setFloat(index, (Float) value));
+        }
+        if (fieldType == Double.class) {
+            return nullable(accessor, (statement, index, value) -> statement.setDouble(index, (Double) value));
+        }
+        if (fieldType == Character.class) {
+            return nullable(accessor, (statement, index, value) -> statement.setString(index, String.valueOf(value)));
+        }
+        if (fieldType == BigDecimal.class) {
+            return (statement, index, object) -> statement.setBigDecimal(index, (BigDecimal) accessor.get(object));
+        }
+        if (fieldType == byte[].class) {
+            return (statement, index, object) -> statement.setBytes(index, (byte[]) accessor.get(object));
+        }
+        if (InputStream.class.isAssignableFrom(fieldType)) {
+            return (statement, index, object) -> statement.setBlob(index, (InputStream) accessor.get(object));
+        }
+        if (fieldType == Blob.class) {
+            return (statement, index, object) -> statement.setBlob(index, (Blob) accessor.get(object));
+        }
+        if (Reader.class.isAssignableFrom(fieldType)) {
+            return (statement, index, object) -> statement.setClob(index, (Reader) accessor.get(object));
+        }
+        if (fieldType == Clob.class) {
+            return (statement, index, object) -> statement.setClob(index, (Clob) accessor.get(object));
+        }
+        if (fieldType == NClob.class) {
+            return (statement, index, object) -> statement.setNClob(index, (NClob) accessor.get(object));
+        }
+        if (fieldType == java.util.Date.class) {
+            switch (String.valueOf(columnTypeName)) {
+                case "DATE":
+                    return (statement, index, object) -> statement.setDate(index
+                            , SQLite3Utils.transferToSQLDate((java.util.Date) accessor.get(object)));
+                case "TIME":
+                    return (statement, index, object) -> statement.setTime(index
+                            , SQLite3Utils.transferToSQLTime((java.util.Date) accessor.get(object)));
+                case "TIMESTAMP":
+                    return (statement, index, object) -> statement.setTimestamp(index
+                            , SQLite3Utils.transferToSQLTimestamp((java.util.Date) accessor.get(object)));
+                default:
+                    return (statement, index, object) -> statement.setObject(index, accessor.get(object));
+            }
+        }
+        if (fieldType == java.sql.Date.class) {
+            return (statement, index, object) -> statement.setDate(index, (java.sql.Date) accessor.get(object));
+        }
+        if (fieldType == java.sql.Time.class) {
+            return (statement, index, object) -> statement.setTime(index, (java.sql.Time) accessor.get(object));
+        }
+        if (fieldType == java.sql.Timestamp.class) {
+            return (statement, index, object) -> statement.setTimestamp(index, (java.sql.Timestamp) accessor.get(object));
+        }
+        return (statement, index, object) -> statement.setObject(index, accessor.get(object));
+    }
+
+    private static ParameterBinder nullable(FieldAccessor accessor, ValueBinder valueBinder) {
+        return (statement, index, object) -> {
+            Object value = accessor.get(object);
+            if (value == null) {
+                statement.setNull(index, Types.NULL);
+            } else {
+                valueBinder.bind(statement, index, value);
+            }
+        };
+    }
+
+    private interface ParameterBinder {
+        void bind(SQLite3PreparedStatement statement, int parameterIndex, Object object);
+    }
+
+    private interface ValueBinder {
+        void bind(SQLite3PreparedStatement statement, int parameterIndex, Object value);
+    }
+
+}
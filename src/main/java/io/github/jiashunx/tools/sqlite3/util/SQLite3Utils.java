@@ -14,7 +14,7 @@ import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
@@ -28,66 +28,67 @@ public class SQLite3Utils {
 
     private static final Map<String, TableModel> CLASS_TABLE_MAP = new HashMap<>();
 
+    private static final Map<TableModel, SQLite3TableBinder> TABLE_BINDER_MAP = new ConcurrentHashMap<>();
+
     private SQLite3Utils() {}
 
     public static <R> List<R> parseQueryResult(QueryResult queryResult, Class<R> klass) throws NullPointerException, SQLite3MappingException {
         if (queryResult == null || klass == null) {
             throw new NullPointerException();
         }
-        String klassName = klass.getName();
         QueryRetClassModel retClassModel = getClassQueryRetModel(klass);
-        Map<String, QueryRetColumnModel> retColumnModelMap = retClassModel.getRetColumnModelMap();
         List<Map<String, Object>> retMapList = queryResult.getRetMapList();
         Map<String, ColumnMetadata> columnMetadataMap = queryResult.getColumnMetadataMap();
         List<R> retObjList = null;
         if (retMapList != null) {
-            AtomicReference<List<R>> retObjListRef = new AtomicReference<>(new ArrayList<>(retMapList.size()));
-            retMapList.forEach(rowMap -> {
-                R instance = null;
-                try {
-                    instance = klass.newInstance();
-                } catch (Throwable throwable) {
-                    throw new SQLite3MappingException(String.format("create class[%s] instance failed.", klassName), throwable);
+            retObjList = new ArrayList<>(retMapList.size());
+            for (Map<String, Object> rowMap: retMapList) {
+                retObjList.add(parseRowObj(rowMap, columnMetadataMap, retClassModel, klass));
+            }
+        }
+        return retObjList;
+    }
+
+    private static <R> R parseRowObj(Map<String, Object> rowMap, Map<String, ColumnMetadata> columnMetadataMap
+            , QueryRetClassModel retClassModel, Class<R> klass) throws SQLite3MappingException {
+        Map<String, QueryRetColumnModel> retColumnModelMap = retClassModel.getRetColumnModelMap();
+        R instance = klass.cast(retClassModel.newInstance());
+        for (Map.Entry<String, Object> entry: rowMap.entrySet()) {
+            String columnName = entry.getKey();
+            Object columnValue = entry.getValue();
+            QueryRetColumnModel retColumnModel = retColumnModelMap.get(columnName);
+            if (retColumnModel != null) {
+                ColumnMetadata columnMetadata = columnMetadataMap.get(columnName);
+                Class<?> fieldType = retColumnModel.getFieldType();
+                if (fieldType == String.class) {
+                    retColumnModel.setFieldValue(instance, (String) columnValue);
+                } else if (fieldType == boolean.class || fieldType == Boolean.class) {
+                    retColumnModel.setFieldValue(instance, (Boolean) columnValue);
                 }
-                AtomicReference<R> instanceRef = new AtomicReference<>(instance);
-                rowMap.forEach((columnName, columnValue) -> {
-                    QueryRetColumnModel retColumnModel = retColumnModelMap.get(columnName);
-                    if (retColumnModel != null) {
-                        ColumnMetadata columnMetadata = columnMetadataMap.get(columnName);
-                        Class<?> fieldType = retColumnModel.getFieldType();
-                        if (fieldType == String.class) {
-                            retColumnModel.setFieldValue(instanceRef.get(), (String) columnValue);
-                        } else if (fieldType == boolean.class || fieldType == Boolean.class) {
-                            retColumnModel.setFieldValue(instanceRef.get(), (Boolean) columnValue);
-                        }
-                        if (fieldType == java.util.Date.class) {
-                            int columnTypeOfMetadata = columnMetadata.getColumnType();
-                            switch (columnTypeOfMetadata) {
-                                case Types.DATE:
-                                    retColumnModel.setFieldValue(instanceRef.get(), transferDate((java.sql.Date) columnValue));
-                                    break;
-                                case Types.TIME:
-                                    retColumnModel.setFieldValue(instanceRef.get(), transferTime((java.sql.Time) columnValue));
-                                    break;
-                                case Types.TIMESTAMP:
-                                    retColumnModel.setFieldValue(instanceRef.get(), transferTimestamp((java.sql.Timestamp) columnValue));
-                                    break;
-                                default:
-                                    retColumnModel.setFieldValue(instanceRef.get(), columnValue);
-                                    break;
-                            }
-                        } else if (fieldType == BigDecimal.class) {
-                            retColumnModel.setFieldValue(instanceRef.get(), BigDecimal.valueOf(Double.parseDouble(String.valueOf(columnValue))));
-                        } else {
-                            retColumnModel.setFieldValue(instanceRef.get(), columnValue);
-                        }
+                if (fieldType == java.util.Date.class) {
+                    int columnTypeOfMetadata = columnMetadata.getColumnType();
+                    switch (columnTypeOfMetadata) {
+                        case Types.DATE:
+                            retColumnModel.setFieldValue(instance, transferDate((java.sql.Date) columnValue));
+                            break;
+                        case Types.TIME:
+                            retColumnModel.setFieldValue(instance, transferTime((java.sql.Time) columnValue));
+                            break;
+                        case Types.TIMESTAMP:
+                            retColumnModel.setFieldValue(instance, transferTimestamp((java.sql.Timestamp) columnValue));
+                            break;
+                        default:
+                            retColumnModel.setFieldValue(instance, columnValue);
+                            break;
                     }
-                });
-                retObjListRef.get().add(instanceRef.get());
-            });
-            retObjList = retObjListRef.get();
+                } else if (fieldType == BigDecimal.class) {
+                    retColumnModel.setFieldValue(instance, BigDecimal.valueOf(Double.parseDouble(String.valueOf(columnValue))));
+                } else {
+                    retColumnModel.setFieldValue(instance, columnValue);
+                }
+            }
         }
-        return retObjList;
+        return instance;
     }
 
     public static QueryRetClassModel getClassQueryRetModel(Class<?> klass) throws NullPointerException, SQLite3MappingException {
@@ -250,77 +251,20 @@ public class SQLite3Utils {
         if (object == null || tableModel == null) {
             throw new NullPointerException();
         }
-        return statement -> {
-            String tableName = tableModel.getTableName();
-            Map<String, ColumnMetadata> columnMetadataMap = tableModel.getColumnMetadata();
-            List<TableColumnModel> columnModelList = tableModel.getColumnModelList();
-            for (int index = 0, size = columnModelList.size(); index < size; index++) {
-                TableColumnModel columnModel = columnModelList.get(index);
-                String columnName = columnModel.getColumnName();
-                ColumnMetadata columnMetadata = columnMetadataMap.get(columnName);
-                if (columnMetadata == null) {
-                    throw new SQLite3MappingException(String.format("table[%s] has no field: %s", tableName, columnName));
-                }
-                int insertIndex = index + 1;
-                Object value = columnModel.getFieldValue(object);
-                String stringValue = String.valueOf(value);
-                Class<?> fieldType = columnModel.getFieldType();
-                if (fieldType == String.class || fieldType == char.class || fieldType == Character.class) {
-                    statement.setString(insertIndex, (String) value);
-                } else if (fieldType == boolean.class || fieldType == Boolean.class) {
-                    statement.setBoolean(insertIndex, Boolean.parseBoolean(stringValue));
-                } else if (fieldType == byte.class || fieldType == Byte.class) {
-                    statement.setByte(insertIndex, Byte.parseByte(stringValue));
-                } else if (fieldType == short.class || fieldType == Short.class) {
-                    statement.setShort(insertIndex, Short.parseShort(stringValue));
-                } else if (fieldType == int.class || fieldType == Integer.class) {
-                    statement.setInt(insertIndex, Integer.parseInt(stringValue));
-                } else if (fieldType == float.class || fieldType == Float.class) {
-                    statement.setFloat(insertIndex, Float.parseFloat(stringValue));
-                } else if (fieldType == double.class || fieldType == Double.class) {
-                    statement.setDouble(insertIndex, Double.parseDouble(stringValue));
-                } else if (fieldType == long.class || fieldType == Long.class) {
-                    statement.setLong(insertIndex, Long.parseLong(stringValue));
-                } else if (fieldType == BigDecimal.class) {
-                    statement.setBigDecimal(insertIndex, (BigDecimal) value);
-                } else if (fieldType == byte[].class) {
-                    statement.setBytes(insertIndex, (byte[]) value);
-                } else if (InputStream.class.isAssignableFrom(fieldType)) {
-                    statement.setBlob(insertIndex, (InputStream) value);
-                } else if (fieldType == Blob.class) {
-                    statement.setBlob(insertIndex, (Blob) value);
-                } else if (Reader.class.isAssignableFrom(fieldType)) {
-                    statement.setClob(insertIndex, (Reader) value);
-                } else if (fieldType == Clob.class) {
-                    statement.setClob(insertIndex, (Clob) value);
-                } else if (fieldType == NClob.class) {
-                    statement.setNClob(insertIndex, (NClob) value);
-                } else if (fieldType == java.util.Date.class) {
-                    switch (columnMetadata.getColumnTypeName()) {
-                        case "DATE":
-                            statement.setDate(insertIndex, transferToSQLDate((java.util.Date) value));
-                            break;
-                        case "TIME":
-                            statement.setTime(insertIndex, transferToSQLTime((java.util.Date) value));
-                            break;
-                        case "TIMESTAMP":
-                            statement.setTimestamp(insertIndex, transferToSQLTimestamp((java.util.Date) value));
-                            break;
-                        default:
-                            statement.setObject(insertIndex, value);
-                            break;
-                    }
-                } else if (fieldType == java.sql.Date.class) {
-                    statement.setDate(insertIndex, (java.sql.Date) value);
-                } else if (fieldType == java.sql.Time.class) {
-                    statement.setTime(insertIndex, (java.sql.Time) value);
-                } else if (fieldType == java.sql.Timestamp.class) {
-                    statement.setTimestamp(insertIndex, (java.sql.Timestamp) value);
-                } else {
-                    statement.setObject(insertIndex, value);
-                }
-            }
-        };
+        SQLite3TableBinder tableBinder = getTableBinder(tableModel);
+        return statement -> tableBinder.bind(statement, object);
+    }
+
+    /**
+     * 获取TableModel对应的参数绑定器(数据表字段定义变更后重新创建).
+     */
+    public static SQLite3TableBinder getTableBinder(TableModel tableModel) throws NullPointerException, SQLite3MappingException {
+        SQLite3TableBinder tableBinder = TABLE_BINDER_MAP.get(Objects.requireNonNull(tableModel));
+        if (tableBinder == null || tableBinder.getColumnMetadataMap() != tableModel.getColumnMetadata()) {
+            tableBinder = SQLite3TableBinder.create(tableModel);
+            TABLE_BINDER_MAP.put(tableModel, tableBinder);
+        }
+        return tableBinder;
     }
 
     public static QueryResult parseQueryResultObj(ResultSet resultSet) throws NullPointerException, SQLException {
@@ -330,101 +274,112 @@ public class SQLite3Utils {
         List<Map<String, Object>> retMapList = new ArrayList<>();
         Map<String, ColumnMetadata> columnMap = parseTableColumnMetadata(resultSet);
         while (resultSet.next()) {
-            Map<String, Object> rowMap = new HashMap<>();
-            for (Map.Entry<String, ColumnMetadata> entry: columnMap.entrySet()) {
-                String columnName = entry.getKey();
-                ColumnMetadata columnMetadata = entry.getValue();
-                String columnLabel = columnMetadata.getColumnLabel();
-                Object columnValue = null;
-                /**
-                 * java.sql.JDBCType
-                 */
-                switch (columnMetadata.getColumnTypeName()) {
-                    case "BOOLEAN":
-                    case "BIT":
-                        columnValue = resultSet.getBoolean(columnLabel);
-                        break;
-                    case "INT1":
-                    case "TINYINT":
-                        columnValue = resultSet.getByte(columnLabel);
-                        break;
-                    case "INT2":
-                    case "SMALLINT":
-                        columnValue = resultSet.getShort(columnLabel);
-                        break;
-                    case "MEDIUMINT":
-                    case "INT":
-                    case "INT4":
-                    case "INTEGER":
-                        columnValue = resultSet.getInt(columnLabel);
-                        break;
-                    case "INT8":
-                    case "BIGINT":
-                        columnValue = resultSet.getLong(columnLabel);
-                        break;
-                    case "FLOAT":
-                        columnValue = resultSet.getFloat(columnLabel);
-                        break;
-                    case "REAL":
-                    case "DOUBLE":
-                        columnValue = resultSet.getDouble(columnLabel);
-                        break;
-                    case "NUMERIC":
-                    case "DECIMAL":
-                        columnValue = resultSet.getBigDecimal(columnLabel);
-                        break;
-                    case "CHAR":
-                    case "VARCHAR":
-                    case "LONGVARCHAR":
-                    case "CLOB":
-                    case "TEXT":
-                    case "TINYTEXT":
-                    case "MEDIUMTEXT":
-                    case "LONGTEXT":
-                    case "NCHAR":
-                    case "NVARCHAR":
-                    case "LONGNVARCHAR":
-                    case "NCLOB":
-                        columnValue = resultSet.getString(columnLabel);
-                        break;
-                    case "DATE":
-                        columnValue = resultSet.getDate(columnLabel);
-                        break;
-                    case "TIME":
-                        columnValue = resultSet.getTime(columnLabel);
-                        break;
-                    case "TIMESTAMP":
-                        columnValue = resultSet.getTimestamp(columnLabel);
-                        break;
-                    case "BINARY":
-                    case "VARBINARY":
-                    case "LONGVARBINARY":
-                        columnValue = resultSet.getBytes(columnLabel);
-                        break;
-                    case "BLOB":
-                        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-                        try (InputStream inputStream = resultSet.getBinaryStream(columnLabel);) {
-                            if (inputStream != null) {
-                                byte[] buffer = new byte[1024];
-                                int temp = 0;
-                                while ((temp = inputStream.read(buffer)) >= 0) {
-                                    bos.write(buffer, 0, temp);
-                                }
+            retMapList.add(parseRowMap(resultSet, columnMap));
+        }
+        return new QueryResult(columnMap, retMapList);
+    }
+
+    /**
+     * 读取结果集当前行(列名 -&gt; 列值).
+     */
+    public static Map<String, Object> parseRowMap(ResultSet resultSet, Map<String, ColumnMetadata> columnMetadataMap)
+            throws NullPointerException, SQLException {
+        if (resultSet == null || columnMetadataMap == null) {
+            throw new NullPointerException();
+        }
+        Map<String, Object> rowMap = new HashMap<>();
+        for (Map.Entry<String, ColumnMetadata> entry: columnMetadataMap.entrySet()) {
+            String columnName = entry.getKey();
+            ColumnMetadata columnMetadata = entry.getValue();
+            String columnLabel = columnMetadata.getColumnLabel();
+            Object columnValue = null;
+            /**
+             * java.sql.JDBCType
+             */
+            switch (columnMetadata.getColumnTypeName()) {
+                case "BOOLEAN":
+                case "BIT":
+                    columnValue = resultSet.getBoolean(columnLabel);
+                    break;
+                case "INT1":
+                case "TINYINT":
+                    columnValue = resultSet.getByte(columnLabel);
+                    break;
+                case "INT2":
+                case "SMALLINT":
+                    columnValue = resultSet.getShort(columnLabel);
+                    break;
+                case "MEDIUMINT":
+                case "INT":
+                case "INT4":
+                case "INTEGER":
+                    columnValue = resultSet.getInt(columnLabel);
+                    break;
+                case "INT8":
+                case "BIGINT":
+                    columnValue = resultSet.getLong(columnLabel);
+                    break;
+                case "FLOAT":
+                    columnValue = resultSet.getFloat(columnLabel);
+                    break;
+                case "REAL":
+                case "DOUBLE":
+                    columnValue = resultSet.getDouble(columnLabel);
+                    break;
+                case "NUMERIC":
+                case "DECIMAL":
+                    columnValue = resultSet.getBigDecimal(columnLabel);
+                    break;
+                case "CHAR":
+                case "VARCHAR":
+                case "LONGVARCHAR":
+                case "CLOB":
+                case "TEXT":
+                case "TINYTEXT":
+                case "MEDIUMTEXT":
+                case "LONGTEXT":
+                case "NCHAR":
+                case "NVARCHAR":
+                case "LONGNVARCHAR":
+                case "NCLOB":
+                    columnValue = resultSet.getString(columnLabel);
+                    break;
+                case "DATE":
+                    columnValue = resultSet.getDate(columnLabel);
+                    break;
+                case "TIME":
+                    columnValue = resultSet.getTime(columnLabel);
+                    break;
+                case "TIMESTAMP":
+                    columnValue = resultSet.getTimestamp(columnLabel);
+                    break;
+                case "BINARY":
+                case "VARBINARY":
+                case "LONGVARBINARY":
+                    columnValue = resultSet.getBytes(columnLabel);
+                    break;
+                case "BLOB":
+                    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                    try (InputStream inputStream = resultSet.getBinaryStream(columnLabel);) {
+                        if (inputStream != null) {
+                            byte[] buffer = new byte[1024];
+                            int temp = 0;
+                            while ((temp = inputStream.read(buffer)) >= 0) {
+                                bos.write(buffer, 0, temp);
                             }
-                        } catch (Throwable throwable) {
-                            throw new SQLite3MappingException(String.format("read blob column[%s] failed.", columnName), throwable);
                         }
-                        columnValue = bos.toByteArray();
-                        break;
-                    default:
-                        columnValue = resultSet.getObject(columnLabel);
-                        break;
-                }
-                rowMap.put(columnName, columnValue);
+                    } catch (Throwable throwable) {
+                        throw new SQLite3MappingException(String.format("read blob column[%s] failed.", columnName), throwable);
+                    }
+                    columnValue = bos.toByteArray();
+                    break;
+                default:
+                    columnValue = resultSet.getObject(columnLabel);
+                    break;
             }
-            retMapList.add(rowMap);
+            rowMap.put(columnName, columnValue);
         }
-        return new QueryResult(columnMap, retMapList);
+        return rowMap;
     }
 
     public static Map<String, ColumnMetadata> parseTableColumnMetadata(ResultSet resultSet) throws NullPointerException, SQLException {
@@ -0,0 +1,333 @@
+package io.github.jiashunx.tools.sqlite3;
+
+import io.github.jiashunx.tools.sqlite3.connection.SQLite3Connection;
+import io.github.jiashunx.tools.sqlite3.connection.SQLite3ConnectionManager;
+import io.github.jiashunx.tools.sqlite3.connection.SQLite3ConnectionPool;
+import io.github.jiashunx.tools.sqlite3.exception.PoolStatusChangedException;
+import io.github.jiashunx.tools.sqlite3.model.ConcurrencyMode;
+import org.junit.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * SQLite3连接池测试
+ * @author jiashunx
+ */
+public class SQLite3ConnectionPoolTest {
+
+    /**
+     * WAL模式: 写事务执行期间读操作不被阻塞, 且读取到的是事务提交前的快照数据.
+     */
+    @Test
+    public void testWALMode() throws Throwable {
+        SQLite3ConnectionPool pool = SQLite3ConnectionManager.getConnectionPool("test/wal-test.db", ConcurrencyMode.WAL);
+        assertEquals(ConcurrencyMode.WAL, pool.getConcurrencyMode());
+        SQLite3JdbcTemplate jdbcTemplate = new SQLite3JdbcTemplate(pool);
+        assertEquals("wal", jdbcTemplate.queryForString("PRAGMA journal_mode").toLowerCase());
+        if (jdbcTemplate.isTableExists("WAL_TEST")) {
+            jdbcTemplate.dropTable("WAL_TEST");
+        }
+        jdbcTemplate.executeUpdate("CREATE TABLE WAL_TEST(NAME VARCHAR)");
+        jdbcTemplate.executeUpdate("INSERT INTO WAL_TEST(NAME) VALUES('a')");
+
+        CountDownLatch inTransactionLatch = new CountDownLatch(1);
+        CountDownLatch readFinishedLatch = new CountDownLatch(1);
+        AtomicReference<Throwable> writeError = new AtomicReference<>();
+        Thread writeThread = new Thread(() -> {
+            try {
+                jdbcTemplate.doTransaction(() -> {
+                    jdbcTemplate.executeUpdate("INSERT INTO WAL_TEST(NAME) VALUES('b')");
+                    inTransactionLatch.countDown();
+                    try {
+                        readFinishedLatch.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Throwable throwable) {
+                writeError.set(throwable);
+            }
+        });
+        writeThread.start();
+        assertTrue(inTransactionLatch.await(10, TimeUnit.SECONDS));
+        long startTime = System.currentTimeMillis();
+        // 写事务未提交, 读操作读取快照数据
+        assertEquals(1, jdbcTemplate.queryForInt("SELECT COUNT(1) FROM WAL_TEST"));
+        assertTrue(System.currentTimeMillis() - startTime < 5000);
+        readFinishedLatch.countDown();
+        writeThread.join();
+        assertNull(writeError.get());
+        assertEquals(2, jdbcTemplate.queryForInt("SELECT COUNT(1) FROM WAL_TEST"));
+    }
+
+    /**
+     * 并发借用/归还连接: 同一连接同一时刻只能被一个线程持有, 且所有线程均能获取到连接.
+     */
+    @Test
+    public void testConcurrentBorrow() throws Throwable {
+        SQLite3ConnectionPool pool = newConnectionPool("test/pool-test.db", 8);
+        int threadCount = 64, loopCount = 2000;
+        Map<SQLite3Connection, Thread> ownerMap = new ConcurrentHashMap<>();
+        AtomicInteger borrowCount = new AtomicInteger(0);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        List<Thread> threadList = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int j = 0; j < loopCount; j++) {
+                        SQLite3Connection connection = pool.fetchReadConnection(10000);
+                        assertNotNull(connection);
+                        assertNull(ownerMap.put(connection, Thread.currentThread()));
+                        borrowCount.incrementAndGet();
+                        assertSame(Thread.currentThread(), ownerMap.remove(connection));
+                        connection.release();
+                    }
+                } catch (Throwable throwable) {
+                    error.compareAndSet(null, throwable);
+                }
+            });
+            threadList.add(thread);
+            thread.start();
+        }
+        for (Thread thread: threadList) {
+            thread.join();
+        }
+        assertNull(error.get());
+        assertEquals(threadCount * loopCount, borrowCount.get());
+        assertEquals(0, pool.getReadConnectionWaitingThreadCount());
+        pool.close();
+    }
+
+    /**
+     * 关闭连接池: 等待借出的连接归还后关闭, 关闭后不可再获取连接.
+     */
+    @Test
+    public void testClose() throws Throwable {
+        SQLite3ConnectionPool pool = newConnectionPool("test/pool-test.db", 2);
+        SQLite3Connection connection = pool.fetchReadConnection();
+        // 重复归还连接将被忽略
+        connection.release();
+        connection.release();
+        connection = pool.fetchReadConnection();
+        SQLite3Connection $connection = connection;
+        Thread releaseThread = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            $connection.release();
+        });
+        releaseThread.start();
+        pool.close();
+        releaseThread.join();
+        try {
+            pool.fetchReadConnection();
+            fail();
+        } catch (PoolStatusChangedException exception) {
+            // expected
+        }
+    }
+
+    /**
+     * 关闭连接池: 等待获取连接的线程被唤醒并抛出PoolStatusChangedException.
+     */
+    @Test
+    public void testCloseWithWaitingThreads() throws Throwable {
+        SQLite3ConnectionPool pool = newConnectionPool("test/pool-test.db", 2);
+        SQLite3Connection connection = pool.fetchWriteConnection();
+        List<Thread> waitThreadList = new ArrayList<>();
+        List<Throwable> errorList = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            boolean timed = i == 1;
+            waitThreadList.add(new Thread(() -> {
+                try {
+                    SQLite3Connection $connection = timed ? pool.fetchWriteConnection(Duration.ofMinutes(1)) : pool.fetchWriteConnection();
+                    errorList.add(new AssertionError("fetched connection: " + $connection));
+                } catch (Throwable throwable) {
+                    errorList.add(throwable);
+                }
+            }));
+        }
+        waitThreadList.forEach(Thread::start);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.getWriteConnectionWaitingThreadCount() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, pool.getWriteConnectionWaitingThreadCount());
+        Thread closeThread = new Thread(() -> {
+            try {
+                pool.close();
+            } catch (Throwable throwable) {
+                errorList.add(throwable);
+            }
+        });
+        closeThread.start();
+        Thread.sleep(200);
+        connection.release();
+        closeThread.join(5000);
+        assertFalse(closeThread.isAlive());
+        for (Thread thread: waitThreadList) {
+            thread.join(5000);
+            assertFalse(thread.isAlive());
+        }
+        assertEquals(2, errorList.size());
+        for (Throwable throwable: errorList) {
+            assertTrue(String.valueOf(throwable), throwable instanceof PoolStatusChangedException);
+        }
+        assertEquals(0, pool.getWriteConnectionWaitingThreadCount());
+    }
+
+    /**
+     * 带超时时间获取连接: 超时返回null, 等待期间可响应中断; 尝试获取写连接时不等待.
+     */
+    @Test
+    public void testFetchTimeoutAndInterrupt() throws Throwable {
+        SQLite3ConnectionPool pool = newConnectionPool("test/pool-test.db", 2);
+        SQLite3Connection connection = pool.fetchReadConnection(Duration.ofSeconds(1));
+        assertNotNull(connection);
+        long startTime = System.nanoTime();
+        assertNull(pool.fetchReadConnection(Duration.ofMillis(100)));
+        assertTrue(System.nanoTime() - startTime >= TimeUnit.MILLISECONDS.toNanos(100));
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread waitThread = new Thread(() -> {
+            try {
+                pool.fetchReadConnection(Duration.ofMinutes(1));
+            } catch (Throwable throwable) {
+                error.set(throwable);
+            }
+        });
+        waitThread.start();
+        while (pool.getReadConnectionWaitingThreadCount() == 0) {
+            Thread.sleep(1);
+        }
+        waitThread.interrupt();
+        waitThread.join(5000);
+        assertTrue(error.get() instanceof InterruptedException);
+        connection.release();
+        // 尝试获取写连接: 写连接被占用时不等待, 返回null
+        SQLite3Connection writeConnection = pool.tryFetchWriteConnection();
+        assertNotNull(writeConnection);
+        assertNull(pool.tryFetchWriteConnection());
+        writeConnection.release();
+        writeConnection = pool.tryFetchWriteConnection();
+        assertNotNull(writeConnection);
+        writeConnection.release();
+        pool.close();
+    }
+
+    /**
+     * 10000个并发任务共享一个连接池(运行环境支持虚拟线程时使用虚拟线程执行).
+     */
+    @Test
+    public void testStress() throws Throwable {
+        SQLite3ConnectionPool pool = newConnectionPool("test/pool-test.db", 16);
+        int taskCount = 10000;
+        ExecutorService executorService = newTaskExecutor();
+        AtomicInteger successCount = new AtomicInteger(0);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            executorService.execute(() -> {
+                try {
+                    SQLite3Connection connection = pool.fetchReadConnection(Duration.ofSeconds(60));
+                    try {
+                        connection.read(c -> {
+                            try (Statement statement = c.createStatement();
+                                 ResultSet resultSet = statement.executeQuery("SELECT 1")) {
+                                assertTrue(resultSet.next());
+                            } catch (SQLException exception) {
+                                throw new RuntimeException(exception);
+                            }
+                        });
+                        successCount.incrementAndGet();
+                    } finally {
+                        connection.release();
+                    }
+                } catch (Throwable throwable) {
+                    error.compareAndSet(null, throwable);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        assertTrue(latch.await(120, TimeUnit.SECONDS));
+        executorService.shutdown();
+        assertNull(error.get());
+        assertEquals(taskCount, successCount.get());
+        pool.close();
+    }
+
+    /**
+     * 预编译语句缓存: 相同sql重复执行命中缓存, 执行DDL后缓存失效.
+     */
+    @Test
+    public void testStatementCache() throws Throwable {
+        SQLite3ConnectionPool pool = newConnectionPool("test/statement-cache.db", 2);
+        SQLite3JdbcTemplate jdbcTemplate = new SQLite3JdbcTemplate(pool);
+        if (jdbcTemplate.isTableExists("STATEMENT_CACHE")) {
+            jdbcTemplate.dropTable("STATEMENT_CACHE");
+        }
+        jdbcTemplate.executeUpdate("CREATE TABLE STATEMENT_CACHE(NAME VARCHAR)");
+        long missCount = pool.getStatementCacheMissCount();
+        for (int i = 0; i < 100; i++) {
+            String name = "name-" + i;
+            jdbcTemplate.executeUpdate("INSERT INTO STATEMENT_CACHE(NAME) VALUES(?)", statement -> {
+                statement.setString(1, name);
+            });
+        }
+        assertEquals(missCount + 1, pool.getStatementCacheMissCount());
+        assertTrue(pool.getStatementCacheHitCount() >= 99);
+        assertEquals(1, jdbcTemplate.queryForMap("SELECT * FROM STATEMENT_CACHE LIMIT 1").size());
+        // schema变更后缓存的语句失效, 重新预编译
+        jdbcTemplate.executeUpdate("ALTER TABLE STATEMENT_CACHE ADD COLUMN AGE INT");
+        assertEquals(2, jdbcTemplate.queryForMap("SELECT * FROM STATEMENT_CACHE LIMIT 1").size());
+        pool.setStatementCacheSize(0);
+        long hitCount = pool.getStatementCacheHitCount();
+        assertEquals(100, jdbcTemplate.queryForInt("SELECT COUNT(1) FROM STATEMENT_CACHE"));
+        assertEquals(100, jdbcTemplate.queryForInt("SELECT COUNT(1) FROM STATEMENT_CACHE"));
+        assertEquals(hitCount, pool.getStatementCacheHitCount());
+        pool.close();
+    }
+
+    private static ExecutorService newTaskExecutor() {
+        try {
+            // JDK21+ 使用虚拟线程
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (Throwable throwable) {
+            return Executors.newFixedThreadPool(256);
+        }
+    }
+
+    private static SQLite3ConnectionPool newConnectionPool(String fileName, int poolSize) throws Throwable {
+        String url = "jdbc:sqlite:" + new File(fileName).getAbsolutePath().replace("\\", "/");
+        new File(fileName).getParentFile().mkdirs();
+        Connection writeConnection = DriverManager.getConnection(url);
+        Connection[] readConnectionArr = new Connection[poolSize - 1];
+        for (int i = 0; i < readConnectionArr.length; i++) {
+            readConnectionArr[i] = DriverManager.getConnection(url);
+        }
+        return new SQLite3ConnectionPool(writeConnection, readConnectionArr);
+    }
+
+}
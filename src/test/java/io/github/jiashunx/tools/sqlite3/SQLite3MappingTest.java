@@ -5,14 +5,20 @@ import io.github.jiashunx.tools.sqlite3.mapping.SQLite3Id;
 import io.github.jiashunx.tools.sqlite3.mapping.SQLite3Table;
 import io.github.jiashunx.tools.sqlite3.service.SQLite3Service;
 import io.github.jiashunx.tools.sqlite3.table.SQLPackage;
+import io.github.jiashunx.tools.sqlite3.util.SQLite3EntityCodec;
 import io.github.jiashunx.tools.sqlite3.util.SQLite3SQLHelper;
+import io.github.jiashunx.tools.sqlite3.util.SQLite3Utils;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * SQLite3映射测试
@@ -121,6 +127,104 @@ public class SQLite3MappingTest {
         assertEquals("fuckZ", new String(entity1.getFieldLongvarbinary(), StandardCharsets.UTF_8));
     }
 
+    /**
+     * 结果集直接映射与(结果集 -&gt; Map -&gt; 对象)两阶段映射结果一致, 并输出两种方式的耗时对比.
+     */
+    @Test
+    public void testRowMapper() throws Throwable {
+        SQLPackage sqlPackage = SQLite3SQLHelper.loadSQLPackageFromClasspath("mapping-test.xml");
+        SQLite3JdbcTemplate jdbcTemplate = new SQLite3JdbcTemplate("test/mapping-test.db");
+        jdbcTemplate.initSQLPackage(sqlPackage);
+        jdbcTemplate.executeUpdate("DELETE FROM MAPPING_TEST_ENTITY");
+        int rowCount = 2000;
+        List<MappingTestEntity> entityList = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            MappingTestEntity entity = new MappingTestEntity();
+            entity.setFieldId("id-" + i);
+            entity.setFieldVarchar("varchar-" + i);
+            entity.setFieldInteger(i);
+            entity.setFieldInt8(i * 1000000000L);
+            entity.setFieldDouble(i / 3.0D);
+            entity.setFieldBoolean(i % 2 == 0);
+            entity.setFieldNumeric(new BigDecimal(i + ".25"));
+            entity.setFieldDecimal(new BigDecimal(i + ".5"));
+            entity.setFieldTimestamp(new Date());
+            entity.setFieldBlob(("blob-" + i).getBytes(StandardCharsets.UTF_8));
+            entityList.add(entity);
+        }
+        jdbcTemplate.insert(entityList);
+        String sql = "SELECT * FROM MAPPING_TEST_ENTITY ORDER BY FIELD_INTEGER";
+        for (int round = 0; round < 3; round++) {
+            long startTime = System.nanoTime();
+            List<MappingTestEntity> mappedList = jdbcTemplate.queryForList(sql, MappingTestEntity.class);
+            long directTime = System.nanoTime() - startTime;
+            startTime = System.nanoTime();
+            List<MappingTestEntity> parsedList = SQLite3Utils.parseQueryResult(jdbcTemplate.queryForResult(sql), MappingTestEntity.class);
+            long twoPhaseTime = System.nanoTime() - startTime;
+            System.out.printf("map %d rows: direct %d us, two-phase %d us%n", rowCount
+                    , TimeUnit.NANOSECONDS.toMicros(directTime), TimeUnit.NANOSECONDS.toMicros(twoPhaseTime));
+            assertEquals(rowCount, mappedList.size());
+            assertEquals(rowCount, parsedList.size());
+            for (int i = 0; i < rowCount; i++) {
+                MappingTestEntity mapped = mappedList.get(i), parsed = parsedList.get(i);
+                assertEquals(parsed.getFieldId(), mapped.getFieldId());
+                assertEquals(parsed.getFieldVarchar(), mapped.getFieldVarchar());
+                assertEquals(parsed.getFieldInteger(), mapped.getFieldInteger());
+                assertEquals(parsed.getFieldInt8(), mapped.getFieldInt8());
+                assertEquals(parsed.getFieldDouble(), mapped.getFieldDouble(), 0D);
+                assertEquals(parsed.isFieldBoolean(), mapped.isFieldBoolean());
+                assertEquals(parsed.getFieldNumeric(), mapped.getFieldNumeric());
+                assertEquals(parsed.getFieldTimestamp(), mapped.getFieldTimestamp());
+                assertArrayEquals(parsed.getFieldBlob(), mapped.getFieldBlob());
+            }
+        }
+    }
+
+    /**
+     * 实体编解码: 解码结果与原实体字段一致(引用类型字段为null时解码为null).
+     */
+    @Test
+    public void testEntityCodec() throws Throwable {
+        SQLite3EntityCodec codec = SQLite3EntityCodec.create(SQLite3Utils.getClassTableModel(MappingTestEntity.class));
+        MappingTestEntity entity0 = new MappingTestEntity();
+        entity0.setFieldId("codec-id");
+        entity0.setFieldVarchar("中文-varchar");
+        entity0.setFieldInteger(-100001);
+        entity0.setFieldFloat(100.323F);
+        entity0.setFieldBlob("blob".getBytes(StandardCharsets.UTF_8));
+        entity0.setFieldBoolean(true);
+        entity0.setFieldNumeric(new BigDecimal("1000.0200"));
+        entity0.setFieldTimestamp(new Date());
+        entity0.setFieldInt1((byte) -7);
+        entity0.setFieldInt2((short) 127);
+        entity0.setFieldBigint(99999999999999999L);
+        entity0.setFieldDouble(8.0991D);
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        buffer.put(codec.encode(entity0));
+        buffer.put(codec.encode(entity0));
+        buffer.flip();
+        for (int i = 0; i < 2; i++) {
+            MappingTestEntity entity1 = (MappingTestEntity) codec.decode(buffer);
+            assertEquals(entity0.getFieldId(), entity1.getFieldId());
+            assertEquals(entity0.getFieldVarchar(), entity1.getFieldVarchar());
+            assertNull(entity1.getFieldText());
+            assertEquals(entity0.getFieldInteger(), entity1.getFieldInteger());
+            assertEquals(entity0.getFieldFloat(), entity1.getFieldFloat(), 0F);
+            assertArrayEquals(entity0.getFieldBlob(), entity1.getFieldBlob());
+            assertNull(entity1.getFieldBinary());
+            assertTrue(entity1.isFieldBoolean());
+            assertEquals(entity0.getFieldNumeric(), entity1.getFieldNumeric());
+            assertNull(entity1.getFieldDecimal());
+            assertEquals(entity0.getFieldTimestamp(), entity1.getFieldTimestamp());
+            assertNull(entity1.getFieldDate());
+            assertEquals(entity0.getFieldInt1(), entity1.getFieldInt1());
+            assertEquals(entity0.getFieldInt2(), entity1.getFieldInt2());
+            assertEquals(entity0.getFieldBigint(), entity1.getFieldBigint());
+            assertEquals(entity0.getFieldDouble(), entity1.getFieldDouble(), 0D);
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
     @SQLite3Table(tableName = "MAPPING_TEST_ENTITY")
     public static class MappingTestEntity implements Serializable {
 
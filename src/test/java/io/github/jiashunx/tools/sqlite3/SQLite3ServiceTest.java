@@ -0,0 +1,1246 @@
+package io.github.jiashunx.tools.sqlite3;
+
+import io.github.jiashunx.tools.sqlite3.exception.SQLite3Exception;
+import io.github.jiashunx.tools.sqlite3.exception.SQLite3MappingException;
+import io.github.jiashunx.tools.sqlite3.mapping.SQLite3Cache;
+import io.github.jiashunx.tools.sqlite3.mapping.SQLite3Column;
+import io.github.jiashunx.tools.sqlite3.mapping.SQLite3Id;
+import io.github.jiashunx.tools.sqlite3.mapping.SQLite3Index;
+import io.github.jiashunx.tools.sqlite3.mapping.SQLite3Table;
+import io.github.jiashunx.tools.sqlite3.model.CacheEvictionPolicy;
+import io.github.jiashunx.tools.sqlite3.model.CacheIndexType;
+import io.github.jiashunx.tools.sqlite3.model.CacheStats;
+import io.github.jiashunx.tools.sqlite3.model.EntityCacheOptions;
+import io.github.jiashunx.tools.sqlite3.service.EntityBatchLoader;
+import io.github.jiashunx.tools.sqlite3.service.EntityCache;
+import io.github.jiashunx.tools.sqlite3.service.SQLite3CacheInvalidationMonitor;
+import io.github.jiashunx.tools.sqlite3.service.SQLite3Service;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * SQLite3Service实体缓存测试
+ * @author jiashunx
+ */
+public class SQLite3ServiceTest {
+
+    private static final int ROW_COUNT = 1000;
+
+    /**
+     * 缓存数量上限: 缓存实体数及不存在ID缓存数均不超过上限.
+     */
+    @Test
+    public void testBoundedCache() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        EntityCacheOptions cacheOptions = new EntityCacheOptions();
+        cacheOptions.setMaxSize(100);
+        cacheOptions.setNegativeMaxSize(50);
+        CacheTestService service = new CacheTestService(jdbcTemplate, cacheOptions);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            assertEquals("name-" + i, service.find(i).getName());
+            assertNull(service.find(-i - 1));
+        }
+        assertEquals(100, service.getEntityCache().size());
+        assertEquals(50, service.getEntityCache().negativeSize());
+        // 最近访问的实体仍在缓存中
+        assertNotNull(service.getEntityCache().get(ROW_COUNT - 1));
+        assertNull(service.getEntityCache().get(0));
+        // 数量受限的缓存不缓存全表数据
+        assertEquals(ROW_COUNT, service.listAll().size());
+        assertEquals(100, service.getEntityCache().size());
+    }
+
+    /**
+     * 写入后过期: 过期前读取缓存数据, 过期后重新查询数据库.
+     */
+    @Test
+    public void testExpireAfterWrite() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        EntityCacheOptions cacheOptions = new EntityCacheOptions();
+        cacheOptions.setExpireAfterWriteMillis(200);
+        cacheOptions.setNegativeExpireAfterWriteMillis(200);
+        CacheTestService service = new CacheTestService(jdbcTemplate, cacheOptions);
+        assertEquals("name-1", service.find(1).getName());
+        assertNull(service.find(ROW_COUNT));
+        jdbcTemplate.executeUpdate("UPDATE CACHE_TEST SET NAME='changed' WHERE ID=1");
+        jdbcTemplate.executeUpdate("INSERT INTO CACHE_TEST(ID, NAME) VALUES(" + ROW_COUNT + ", 'new')");
+        assertEquals("name-1", service.find(1).getName());
+        assertNull(service.find(ROW_COUNT));
+        Thread.sleep(300);
+        assertEquals("changed", service.find(1).getName());
+        assertEquals("new", service.find(ROW_COUNT).getName());
+    }
+
+    /**
+     * W-TinyLFU: 一次性扫描大量不同ID不会淘汰热点实体.
+     */
+    @Test
+    public void testTinyLfuScanResistance() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        for (CacheEvictionPolicy evictionPolicy: CacheEvictionPolicy.values()) {
+            EntityCacheOptions cacheOptions = new EntityCacheOptions();
+            cacheOptions.setEvictionPolicy(evictionPolicy);
+            cacheOptions.setMaxSize(100);
+            CacheTestService service = new CacheTestService(jdbcTemplate, cacheOptions);
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < 50; i++) {
+                    service.find(i);
+                }
+            }
+            for (int i = 50; i < ROW_COUNT; i++) {
+                service.find(i);
+            }
+            int hotCachedCount = 0;
+            for (int i = 0; i < 50; i++) {
+                if (service.getEntityCache().get(i) != null) {
+                    hotCachedCount++;
+                }
+            }
+            System.out.printf("%s: %d/50 hot entities cached after scan%n", evictionPolicy, hotCachedCount);
+            if (evictionPolicy == CacheEvictionPolicy.TINY_LFU) {
+                assertTrue(hotCachedCount >= 45);
+            } else {
+                assertEquals(0, hotCachedCount);
+            }
+        }
+    }
+
+    /**
+     * 通过注解配置缓存.
+     */
+    @Test
+    public void testCacheAnnotation() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        AnnotatedCacheTestService service = new AnnotatedCacheTestService(jdbcTemplate);
+        assertTrue(service.isCacheEnabled());
+        assertEquals(10, service.getEntityCache().getOptions().getMaxSize());
+        for (int i = 0; i < 100; i++) {
+            service.find(i);
+        }
+        assertEquals(10, service.getEntityCache().size());
+        assertFalse(new AnnotatedCacheTestService(jdbcTemplate, false).isCacheEnabled());
+    }
+
+    /**
+     * 同一ID的并发未命中仅查询一次数据库.
+     */
+    @Test
+    public void testSingleFlightLoad() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        CacheTestService service = new CacheTestService(jdbcTemplate, new EntityCacheOptions(), 50);
+        int threadCount = 32;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<CacheTestEntity>> futureList = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                futureList.add(executorService.submit(() -> {
+                    startLatch.await();
+                    return service.find(1);
+                }));
+            }
+            startLatch.countDown();
+            for (Future<CacheTestEntity> future: futureList) {
+                assertEquals("name-1", future.get().getName());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertEquals(1, service.getLoadCount());
+    }
+
+    /**
+     * 并发读取压测: 32线程, Zipfian分布ID.
+     */
+    @Test
+    public void testConcurrentFindBenchmark() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        double[] zipfCdf = zipfCdf(ROW_COUNT, 0.99);
+        int threadCount = 32, findCountPerThread = 20000;
+        EntityCacheOptions boundedOptions = new EntityCacheOptions();
+        boundedOptions.setMaxSize(ROW_COUNT / 10);
+        EntityCacheOptions tinyLfuOptions = new EntityCacheOptions();
+        tinyLfuOptions.setMaxSize(ROW_COUNT / 10);
+        tinyLfuOptions.setEvictionPolicy(CacheEvictionPolicy.TINY_LFU);
+        for (EntityCacheOptions cacheOptions: Arrays.asList(new EntityCacheOptions(), boundedOptions, tinyLfuOptions)) {
+            CacheTestService service = new CacheTestService(jdbcTemplate, cacheOptions, 0);
+            Set<Integer> idSet = ConcurrentHashMap.newKeySet();
+            ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<?>> futureList = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                futureList.add(executorService.submit(() -> {
+                    startLatch.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int j = 0; j < findCountPerThread; j++) {
+                        int id = nextZipf(zipfCdf, random);
+                        idSet.add(id);
+                        assertEquals(id, service.find(id).getId());
+                    }
+                    return null;
+                }));
+            }
+            long startTime = System.nanoTime();
+            startLatch.countDown();
+            for (Future<?> future: futureList) {
+                future.get();
+            }
+            long costNanos = System.nanoTime() - startTime;
+            executorService.shutdown();
+            executorService.awaitTermination(10, TimeUnit.SECONDS);
+            long findCount = (long) threadCount * findCountPerThread;
+            System.out.printf("find benchmark[%s, maxSize=%d]: %d finds, %d loads, %.0f ops/s%n"
+                    , cacheOptions.getEvictionPolicy(), cacheOptions.getMaxSize(), findCount
+                    , service.getLoadCount(), findCount * 1e9 / costNanos);
+            if (cacheOptions.isUnbounded()) {
+                // 不限制数量时每个ID仅加载一次
+                assertEquals(idSet.size(), service.getLoadCount());
+            }
+        }
+    }
+
+    /**
+     * 写穿透: 数据库写入期间缓存读取不阻塞, 读取到写入前的数据; 写入成功后读取到写入的数据.
+     */
+    @Test
+    public void testWriteThroughNotBlockingReads() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        CacheTestService service = new CacheTestService(jdbcTemplate, new EntityCacheOptions());
+        assertEquals("name-1", service.find(1).getName());
+        assertEquals("name-2", service.find(2).getName());
+        CountDownLatch writingLatch = new CountDownLatch(1), releaseLatch = new CountDownLatch(1);
+        service.setWriteHook(() -> {
+            writingLatch.countDown();
+            await(releaseLatch);
+        });
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> future = executorService.submit(() -> {
+                service.update(newEntity(1, "updated"));
+            });
+            assertTrue(writingLatch.await(10, TimeUnit.SECONDS));
+            long startTime = System.nanoTime();
+            assertEquals("name-1", service.find(1).getName());
+            assertEquals("name-2", service.find(2).getName());
+            assertEquals(3, service.find(3).getId());
+            assertTrue(System.nanoTime() - startTime < TimeUnit.SECONDS.toNanos(1));
+            releaseLatch.countDown();
+            future.get();
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertEquals("updated", service.find(1).getName());
+        assertEquals("updated", service.getEntityCache().get(1).getName());
+    }
+
+    /**
+     * 版本号: 写入前开始的加载查询到旧数据, 加载结束时不覆盖写入的新数据.
+     */
+    @Test
+    public void testStaleLoadNotOverwriteWrite() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        CacheTestService service = new CacheTestService(jdbcTemplate, new EntityCacheOptions());
+        CountDownLatch loadedLatch = new CountDownLatch(1), releaseLatch = new CountDownLatch(1);
+        service.setLoadHook(() -> {
+            loadedLatch.countDown();
+            await(releaseLatch);
+        });
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<CacheTestEntity> future = executorService.submit(() -> service.find(1));
+            assertTrue(loadedLatch.await(10, TimeUnit.SECONDS));
+            service.setLoadHook(null);
+            service.upsert(newEntity(1, "updated"));
+            releaseLatch.countDown();
+            // 加载线程返回其查询到的数据, 缓存中为写入的数据
+            assertEquals("name-1", future.get().getName());
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertEquals("updated", service.getEntityCache().get(1).getName());
+        assertEquals("updated", service.find(1).getName());
+        // 删除同理: 旧数据不覆盖删除结果
+        CountDownLatch loadedLatch2 = new CountDownLatch(1), releaseLatch2 = new CountDownLatch(1);
+        service.setLoadHook(() -> {
+            loadedLatch2.countDown();
+            await(releaseLatch2);
+        });
+        executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<CacheTestEntity> future = executorService.submit(() -> service.find(2));
+            assertTrue(loadedLatch2.await(10, TimeUnit.SECONDS));
+            service.setLoadHook(null);
+            service.deleteById(2);
+            releaseLatch2.countDown();
+            assertEquals("name-2", future.get().getName());
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertNull(service.getEntityCache().get(2));
+        assertTrue(service.getEntityCache().isNegativeCached(2));
+        assertNull(service.find(2));
+    }
+
+    /**
+     * 写入失败时移除缓存, 缓存与数据库一致.
+     */
+    @Test
+    public void testAbortedWriteInvalidatesCache() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        CacheTestService service = new CacheTestService(jdbcTemplate, new EntityCacheOptions());
+        assertEquals("name-1", service.find(1).getName());
+        service.setWriteHook(() -> {
+            throw new IllegalStateException("write failed");
+        });
+        try {
+            service.update(newEntity(1, "updated"));
+            fail();
+        } catch (IllegalStateException exception) {
+            assertEquals("write failed", exception.getMessage());
+        }
+        service.setWriteHook(null);
+        assertNull(service.getEntityCache().get(1));
+        assertEquals("name-1", service.find(1).getName());
+    }
+
+    /**
+     * 并发读写: 读写结束后缓存中的实体与数据库一致, 全表数据缓存与数据库一致.
+     */
+    @Test
+    public void testConcurrentReadWriteConsistency() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        CacheTestService service = new CacheTestService(jdbcTemplate, new EntityCacheOptions());
+        int keyCount = 20, threadCount = 16, opCountPerThread = 300;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<?>> futureList = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                int threadIndex = i;
+                futureList.add(executorService.submit(() -> {
+                    startLatch.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int j = 0; j < opCountPerThread; j++) {
+                        int id = random.nextInt(keyCount);
+                        switch (random.nextInt(threadIndex % 2 == 0 ? 10 : 4)) {
+                            case 0:
+                                service.update(newEntity(id, "thread-" + threadIndex + "-" + j));
+                                break;
+                            case 1:
+                                service.deleteById(id);
+                                break;
+                            case 2:
+                                service.upsert(newEntity(id, "upsert-" + threadIndex + "-" + j));
+                                break;
+                            case 3:
+                                service.listAll();
+                                break;
+                            default:
+                                service.find(id);
+                                break;
+                        }
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> future: futureList) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        for (int id = 0; id < keyCount; id++) {
+            CacheTestEntity dbEntity = service.findWithNoCache(id);
+            CacheTestEntity cachedEntity = service.getEntityCache().get(id);
+            if (cachedEntity != null) {
+                assertNotNull(dbEntity);
+                assertEquals(dbEntity.getName(), cachedEntity.getName());
+            }
+            if (service.getEntityCache().isNegativeCached(id)) {
+                assertNull(dbEntity);
+            }
+            CacheTestEntity entity = service.find(id);
+            assertEquals(dbEntity == null ? null : dbEntity.getName(), entity == null ? null : entity.getName());
+        }
+        assertEquals(service.listAllWithNoCache().size(), service.listAll().size());
+    }
+
+    /**
+     * 全表数据快照: 缓存实体未修改时多次调用listAll返回同一不可修改列表, 修改后重新生成.
+     */
+    @Test
+    public void testListAllSnapshot() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        CacheTestService service = new CacheTestService(jdbcTemplate, new EntityCacheOptions());
+        List<CacheTestEntity> entityList = service.listAll();
+        assertEquals(ROW_COUNT, entityList.size());
+        assertSame(entityList, service.listAll());
+        // 缓存命中不修改快照
+        service.find(1);
+        assertSame(entityList, service.listAll());
+        try {
+            entityList.add(newEntity(ROW_COUNT, "new"));
+            fail();
+        } catch (UnsupportedOperationException exception) {
+            // 快照不可修改
+        }
+        service.update(newEntity(1, "updated"));
+        List<CacheTestEntity> updatedList = service.listAll();
+        assertNotSame(entityList, updatedList);
+        assertEquals(ROW_COUNT, updatedList.size());
+        assertTrue(updatedList.stream().anyMatch(entity -> "updated".equals(entity.getName())));
+        assertTrue(entityList.stream().noneMatch(entity -> "updated".equals(entity.getName())));
+        service.insert(newEntity(ROW_COUNT, "new"));
+        assertEquals(ROW_COUNT + 1, service.listAll().size());
+        service.deleteById(ROW_COUNT);
+        assertEquals(ROW_COUNT, service.listAll().size());
+        assertSame(service.listAll(), service.listAll());
+        // 遍历缓存实体(不复制)
+        AtomicInteger count = new AtomicInteger(0);
+        service.forEachCached(entity -> count.incrementAndGet());
+        assertEquals(ROW_COUNT, count.get());
+    }
+
+    /**
+     * 按ID批量查询: 未命中的ID一次批量查询后写入缓存, 结果按ID顺序; ID个数较多时使用临时表关联查询.
+     */
+    @Test
+    public void testFindAll() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        CacheTestService service = new CacheTestService(jdbcTemplate, new EntityCacheOptions());
+        List<Integer> idList = new ArrayList<>();
+        for (int i = 499; i >= 0; i--) {
+            idList.add(i);
+        }
+        idList.add(-1);
+        idList.add(0);
+        assertEquals("name-10", service.find(10).getName());
+        long startTime = System.nanoTime();
+        Map<Integer, CacheTestEntity> entityMap = service.findAll(idList);
+        long findAllNanos = System.nanoTime() - startTime;
+        assertEquals(500, entityMap.size());
+        assertEquals(idList.subList(0, 500), new ArrayList<>(entityMap.keySet()));
+        entityMap.forEach((id, entity) -> assertEquals("name-" + id, entity.getName()));
+        assertEquals(1, service.getLoadCount());
+        assertEquals(1, service.getBatchLoadCount());
+        assertEquals(500, service.getEntityCache().size());
+        assertTrue(service.getEntityCache().isNegativeCached(-1));
+        // 再次查询全部命中缓存
+        assertEquals(entityMap, service.findAll(idList));
+        assertEquals(1, service.getBatchLoadCount());
+        // 逐个查询对比
+        CacheTestService findService = new CacheTestService(jdbcTemplate, new EntityCacheOptions());
+        startTime = System.nanoTime();
+        for (Integer id: idList) {
+            findService.find(id);
+        }
+        System.out.printf("find 502 ids: findAll %.2f ms, find one by one %.2f ms%n"
+                , findAllNanos / 1e6, (System.nanoTime() - startTime) / 1e6);
+        // 分段IN查询(参数个数补齐至2的幂)
+        jdbcTemplate.setMaxVariableNumber(7);
+        assertEquals(idList.subList(0, 500), new ArrayList<>(service.findAllWithNoCache(idList).keySet()));
+        jdbcTemplate.setMaxVariableNumber(SQLite3JdbcTemplate.DEFAULT_MAX_VARIABLE_NUMBER);
+        // 临时表关联查询
+        jdbcTemplate.setIdTempTableThreshold(100);
+        List<Integer> allIdList = new ArrayList<>();
+        for (int i = ROW_COUNT + 10; i >= 0; i--) {
+            allIdList.add(i);
+        }
+        Map<Integer, CacheTestEntity> allEntityMap = service.findAllWithNoCache(allIdList);
+        assertEquals(ROW_COUNT, allEntityMap.size());
+        assertEquals(allIdList.subList(11, allIdList.size()), new ArrayList<>(allEntityMap.keySet()));
+        assertEquals(ROW_COUNT, service.findAll(allIdList).size());
+        assertEquals(ROW_COUNT, service.getEntityCache().size());
+        assertEquals(12, service.getEntityCache().negativeSize());
+    }
+
+    /**
+     * 合并加载: 并发未命中的不同ID合并为批量查询.
+     */
+    @Test
+    public void testBatchLoad() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        EntityCacheOptions cacheOptions = new EntityCacheOptions();
+        cacheOptions.setBatchLoadWindowMicros(20000);
+        cacheOptions.setBatchLoadMaxSize(16);
+        CacheTestService service = new CacheTestService(jdbcTemplate, cacheOptions);
+        int threadCount = 64;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<CacheTestEntity>> futureList = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                // 每个ID两个线程, 其中一半ID不存在
+                int id = i / 2 % 2 == 0 ? i / 2 : -i / 2;
+                futureList.add(executorService.submit(() -> {
+                    startLatch.await();
+                    return service.find(id);
+                }));
+            }
+            startLatch.countDown();
+            for (int i = 0; i < threadCount; i++) {
+                int id = i / 2 % 2 == 0 ? i / 2 : -i / 2;
+                CacheTestEntity entity = futureList.get(i).get();
+                if (id >= 0) {
+                    assertEquals("name-" + id, entity.getName());
+                } else {
+                    assertNull(entity);
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        System.out.printf("batch load: %d finds, %d batch loads%n", threadCount, service.getBatchLoadCount());
+        assertEquals(0, service.getLoadCount());
+        assertTrue(service.getBatchLoadCount() >= 2);
+        assertTrue(service.getBatchLoadCount() < threadCount / 2);
+        assertEquals(threadCount / 4, service.getEntityCache().size());
+        assertEquals(threadCount / 4, service.getEntityCache().negativeSize());
+        // 批量加载失败时同批次的查询均失败
+        EntityBatchLoader<Integer, String> batchLoader = new EntityBatchLoader<>(ids -> {
+            throw new IllegalStateException("load failed");
+        }, 1000, 10);
+        try {
+            batchLoader.load(1);
+            fail();
+        } catch (IllegalStateException exception) {
+            assertEquals("load failed", exception.getMessage());
+        }
+        // 批次已满时不等待至等待时间结束
+        AtomicInteger fullBatchCount = new AtomicInteger(0);
+        EntityBatchLoader<Integer, String> fullBatchLoader = new EntityBatchLoader<>(ids -> {
+            fullBatchCount.incrementAndGet();
+            Map<Integer, String> valueMap = new HashMap<>();
+            ids.forEach(id -> valueMap.put(id, "value-" + id));
+            return valueMap;
+        }, TimeUnit.SECONDS.toMicros(30), 2);
+        long startTime = System.nanoTime();
+        CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> fullBatchLoader.load(1));
+        Thread.sleep(50);
+        assertEquals("value-2", fullBatchLoader.load(2));
+        assertEquals("value-1", future.get(5, TimeUnit.SECONDS));
+        assertEquals(1, fullBatchCount.get());
+        assertTrue(System.nanoTime() - startTime < TimeUnit.SECONDS.toNanos(10));
+    }
+
+    /**
+     * 缓存统计及JMX MBean.
+     */
+    @Test
+    public void testCacheStats() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        EntityCacheOptions cacheOptions = new EntityCacheOptions();
+        cacheOptions.setMaxSize(10);
+        CacheTestService service = new CacheTestService(jdbcTemplate, cacheOptions);
+        for (int i = 0; i < 20; i++) {
+            service.find(i);
+        }
+        service.find(19);
+        service.find(-1);
+        service.find(-1);
+        service.findAll(Arrays.asList(18, 19, 20, 21, -1));
+        CacheStats cacheStats = service.getCacheStats();
+        System.out.println(cacheStats);
+        assertEquals(3, cacheStats.getHitCount());
+        assertEquals(2, cacheStats.getNegativeHitCount());
+        assertEquals(23, cacheStats.getMissCount());
+        assertEquals(22, cacheStats.getLoadSuccessCount());
+        assertEquals(0, cacheStats.getLoadFailureCount());
+        assertEquals(22, Arrays.stream(cacheStats.getLoadLatencyHistogram()).sum());
+        assertEquals(12, cacheStats.getEvictionCount());
+        assertEquals(10, cacheStats.getSize());
+        assertEquals(1, cacheStats.getNegativeSize());
+        assertEquals(5.0 / 28, cacheStats.getHitRate(), 1e-9);
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = service.registerCacheMBean("testCacheStats");
+        try {
+            assertEquals(3L, mBeanServer.getAttribute(objectName, "HitCount"));
+            assertEquals(10, mBeanServer.getAttribute(objectName, "Size"));
+            assertEquals(10, mBeanServer.getAttribute(objectName, "MaxSize"));
+        } finally {
+            service.unregisterCacheMBean();
+        }
+        assertFalse(mBeanServer.isRegistered(objectName));
+    }
+
+    /**
+     * 跨进程缓存失效: 其他连接修改数据库后清空缓存, 本连接池写入及数据库未修改时不清空.
+     */
+    @Test
+    public void testCacheInvalidationMonitor() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        CacheTestService service = new CacheTestService(jdbcTemplate, new EntityCacheOptions());
+        SQLite3CacheInvalidationMonitor monitor = new SQLite3CacheInvalidationMonitor(jdbcTemplate, 20);
+        monitor.register(service);
+        assertFalse(monitor.poll());
+        assertEquals("name-1", service.find(1).getName());
+        assertEquals("name-2", service.find(2).getName());
+        assertFalse(monitor.poll());
+        assertNotNull(service.getEntityCache().get(1));
+        // 本连接池写入(已写入缓存)不清空缓存
+        service.update(newEntity(2, "local-2"));
+        assertFalse(monitor.poll());
+        assertNotNull(service.getEntityCache().get(1));
+        assertEquals("local-2", service.getEntityCache().get(2).getName());
+        executeExternalUpdate("UPDATE CACHE_TEST SET NAME='remote-1' WHERE ID=1");
+        assertEquals("name-1", service.find(1).getName());
+        // 写连接处于事务中时不等待, 跳过本次查询
+        CountDownLatch inTransactionLatch = new CountDownLatch(1);
+        CountDownLatch pollFinishedLatch = new CountDownLatch(1);
+        Thread transactionThread = new Thread(() -> jdbcTemplate.doTransaction(() -> {
+            jdbcTemplate.executeUpdate("UPDATE CACHE_TEST SET NAME='local-3' WHERE ID=3");
+            inTransactionLatch.countDown();
+            try {
+                pollFinishedLatch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        transactionThread.start();
+        assertTrue(inTransactionLatch.await(10, TimeUnit.SECONDS));
+        assertFalse(monitor.poll());
+        assertEquals("name-1", service.find(1).getName());
+        pollFinishedLatch.countDown();
+        transactionThread.join();
+        assertTrue(monitor.poll());
+        assertNull(service.getEntityCache().get(2));
+        assertEquals("remote-1", service.find(1).getName());
+        // 定时查询
+        monitor.start();
+        try {
+            executeExternalUpdate("UPDATE CACHE_TEST SET NAME='remote-2' WHERE ID=1");
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!"remote-2".equals(service.find(1).getName()) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals("remote-2", service.find(1).getName());
+        } finally {
+            monitor.close();
+        }
+    }
+
+    /**
+     * 数据表版本号(按数据表开启): 仅清空被修改的数据表对应的缓存.
+     */
+    @Test
+    public void testCacheInvalidationMonitorTableVersion() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        if (jdbcTemplate.isTableExists("CACHE_TEST_OTHER")) {
+            jdbcTemplate.dropTable("CACHE_TEST_OTHER");
+        }
+        jdbcTemplate.executeUpdate("CREATE TABLE CACHE_TEST_OTHER(ID INTEGER PRIMARY KEY, NAME VARCHAR)");
+        jdbcTemplate.executeUpdate("INSERT INTO CACHE_TEST_OTHER(ID, NAME) VALUES(1, 'other-1')");
+        CacheTestService service = new CacheTestService(jdbcTemplate, new EntityCacheOptions());
+        OtherCacheTestService otherService = new OtherCacheTestService(jdbcTemplate);
+        SQLite3CacheInvalidationMonitor monitor = new SQLite3CacheInvalidationMonitor(jdbcTemplate, 1000);
+        monitor.register(service);
+        monitor.register(otherService);
+        // 数据表版本号按数据表开启, 注册时不创建触发器
+        assertFalse(jdbcTemplate.isTriggerExists("TOOLS_SQLITE3_TV_CACHE_TEST_OTHER_UPDATE"));
+        monitor.enableTableVersion(service);
+        monitor.enableTableVersion(otherService);
+        assertTrue(monitor.isTableVersionEnabled(otherService));
+        assertTrue(jdbcTemplate.isTriggerExists("TOOLS_SQLITE3_TV_CACHE_TEST_OTHER_UPDATE"));
+        assertFalse(monitor.poll());
+        assertEquals("name-1", service.find(1).getName());
+        assertEquals("other-1", otherService.find(1).getName());
+        executeExternalUpdate("UPDATE CACHE_TEST_OTHER SET NAME='remote-1' WHERE ID=1");
+        assertTrue(monitor.poll());
+        assertNotNull(service.getEntityCache().get(1));
+        assertNull(otherService.getEntityCache().get(1));
+        assertEquals("remote-1", otherService.find(1).getName());
+        executeExternalUpdate("DELETE FROM CACHE_TEST WHERE ID=1");
+        assertTrue(monitor.poll());
+        assertNull(service.find(1));
+        assertNotNull(otherService.getEntityCache().get(1));
+        // 关闭后删除触发器, 数据库被修改后即清空缓存
+        monitor.disableTableVersion(otherService);
+        assertFalse(monitor.isTableVersionEnabled(otherService));
+        assertFalse(jdbcTemplate.isTriggerExists("TOOLS_SQLITE3_TV_CACHE_TEST_OTHER_UPDATE"));
+        assertEquals(-1, SQLite3CacheInvalidationMonitor.queryTableVersion(jdbcTemplate, "CACHE_TEST_OTHER"));
+        executeExternalUpdate("UPDATE CACHE_TEST SET NAME='remote-2' WHERE ID=2");
+        assertTrue(monitor.poll());
+        assertNull(otherService.getEntityCache().get(1));
+        monitor.close();
+    }
+
+    /**
+     * 缓存快照: 导出后加载(水位一致时加载全表数据, 不查询数据库), 未开启数据表版本号时不导出/不加载, 水位变化后不加载.
+     */
+    @Test
+    public void testCacheSnapshot() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        Path snapshotFile = Paths.get("test/service-cache.snapshot");
+        Files.deleteIfExists(snapshotFile);
+        CacheTestService service = new CacheTestService(jdbcTemplate, new EntityCacheOptions());
+        assertFalse(service.loadCache(snapshotFile));
+        assertEquals(ROW_COUNT, service.listAll().size());
+        // 未开启数据表版本号(无修改计数): 不导出
+        try {
+            service.dumpCache(snapshotFile);
+            fail("table version not enabled");
+        } catch (SQLite3Exception exception) {
+            assertTrue(exception.getMessage().contains("enableTableVersion"));
+        }
+        assertFalse(Files.exists(snapshotFile));
+        SQLite3CacheInvalidationMonitor monitor = new SQLite3CacheInvalidationMonitor(jdbcTemplate, 1000);
+        monitor.enableTableVersion(service);
+        service.update(newEntity(1, "snapshot-1"));
+        service.dumpCache(snapshotFile);
+        assertTrue(Files.exists(snapshotFile));
+
+        CacheTestService loadedService = new CacheTestService(jdbcTemplate, new EntityCacheOptions());
+        assertTrue(loadedService.loadCache(snapshotFile));
+        assertEquals(ROW_COUNT, loadedService.getEntityCache().size());
+        assertEquals("snapshot-1", loadedService.find(1).getName());
+        assertEquals("name-2", loadedService.find(2).getName());
+        assertNull(loadedService.find(-1));
+        assertEquals(1, loadedService.getLoadCount());
+        assertEquals(ROW_COUNT, loadedService.listAll().size());
+        assertSame(loadedService.listAll(), loadedService.listAll());
+
+        // 快照导出后数据库已修改: 不加载
+        int userVersion = jdbcTemplate.queryForInt("PRAGMA user_version");
+        jdbcTemplate.executeUpdate("PRAGMA user_version=" + (userVersion + 1));
+        try {
+            CacheTestService staleService = new CacheTestService(jdbcTemplate, new EntityCacheOptions());
+            assertFalse(staleService.loadCache(snapshotFile));
+            assertEquals(0, staleService.getEntityCache().size());
+        } finally {
+            jdbcTemplate.executeUpdate("PRAGMA user_version=" + userVersion);
+        }
+        assertTrue(new CacheTestService(jdbcTemplate, new EntityCacheOptions()).loadCache(snapshotFile));
+        // 快照导出后通过本连接池修改数据: 不加载
+        loadedService.update(newEntity(2, "snapshot-2"));
+        CacheTestService staleService = new CacheTestService(jdbcTemplate, new EntityCacheOptions());
+        assertFalse(staleService.loadCache(snapshotFile));
+        assertEquals(0, staleService.getEntityCache().size());
+        assertEquals("snapshot-2", staleService.find(2).getName());
+    }
+
+    private static void executeExternalUpdate(String sql) throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:test/service-cache.db");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+
+    /**
+     * 堆外缓存: 全表数据缓存于堆外内存(读取时解码), 反复更新时压缩数据块不淘汰实体, 超出容量上限时淘汰实体且listAll查询数据库;
+     * 访问后过期时并发读取的实体不过期.
+     */
+    @Test
+    public void testOffHeapCache() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        EntityCacheOptions cacheOptions = new EntityCacheOptions();
+        cacheOptions.setOffHeapMaxBytes(1024 * 1024);
+        CacheTestService service = new CacheTestService(jdbcTemplate, cacheOptions);
+        assertEquals(ROW_COUNT, service.listAll().size());
+        assertEquals(ROW_COUNT, service.getEntityCache().size());
+        for (int i = 0; i < ROW_COUNT; i++) {
+            assertEquals("name-" + i, service.find(i).getName());
+        }
+        assertNotSame(service.find(1), service.find(1));
+        assertEquals(0, service.getLoadCount());
+        service.update(newEntity(1, "updated"));
+        service.insert(newEntity(ROW_COUNT, "new"));
+        assertEquals("updated", service.find(1).getName());
+        assertEquals(ROW_COUNT + 1, service.listAll().size());
+        service.deleteById(ROW_COUNT);
+        assertNull(service.find(ROW_COUNT));
+        assertEquals(0, service.getLoadCount());
+
+        // 反复写入(数据量远超容量上限, 有效数据未超出): 压缩数据块, 不淘汰实体
+        EntityCache<Integer, CacheTestEntity> entityCache = service.getEntityCache();
+        Map<Integer, String> nameMap = new HashMap<>();
+        entityCache.forEach(entity -> nameMap.put(entity.getId(), entity.getName()));
+        Random random = new Random(0);
+        for (int i = 0; i < 100000; i++) {
+            int id = random.nextInt(ROW_COUNT);
+            String name = "name-" + id + "-" + i;
+            entityCache.put(id, newEntity(id, name));
+            nameMap.put(id, name);
+        }
+        assertEquals(0, entityCache.getEvictionCount());
+        assertEquals(ROW_COUNT, entityCache.size());
+        nameMap.forEach((id, name) -> assertEquals(name, entityCache.get(id).getName()));
+        // 随机写入及移除(校验索引删除)
+        for (int i = 0; i < 100000; i++) {
+            int id = random.nextInt(ROW_COUNT * 2);
+            if (random.nextInt(3) == 0) {
+                entityCache.invalidate(id);
+                nameMap.remove(id);
+            } else {
+                String name = "random-" + i;
+                entityCache.put(id, newEntity(id, name));
+                nameMap.put(id, name);
+            }
+        }
+        assertEquals(nameMap.size(), entityCache.size());
+        for (int id = 0; id < ROW_COUNT * 2; id++) {
+            CacheTestEntity entity = entityCache.get(id);
+            assertEquals(nameMap.get(id), entity == null ? null : entity.getName());
+        }
+        AtomicInteger count = new AtomicInteger(0);
+        service.forEachCached(entity -> {
+            assertEquals(nameMap.get(entity.getId()), entity.getName());
+            count.incrementAndGet();
+        });
+        assertEquals(nameMap.size(), count.get());
+
+        // 超出容量上限: 淘汰实体, 不缓存全表数据
+        EntityCacheOptions smallOptions = new EntityCacheOptions();
+        smallOptions.setOffHeapMaxBytes(16 * 1024);
+        CacheTestService smallService = new CacheTestService(jdbcTemplate, smallOptions);
+        assertEquals(ROW_COUNT, smallService.listAll().size());
+        assertTrue(smallService.getEntityCache().getEvictionCount() > 0);
+        assertTrue(smallService.getEntityCache().size() < ROW_COUNT);
+        assertEquals(ROW_COUNT, smallService.listAll().size());
+        for (int i = 0; i < ROW_COUNT; i++) {
+            assertEquals(i == 1 ? "updated" : "name-" + i, smallService.find(i).getName());
+        }
+        assertTrue(smallService.getLoadCount() > 0);
+
+        // 访问后过期: 并发读取(更新访问时间)的实体不过期, 未访问的实体过期
+        EntityCacheOptions accessOptions = new EntityCacheOptions();
+        accessOptions.setOffHeapMaxBytes(1024 * 1024);
+        accessOptions.setExpireAfterAccessMillis(500);
+        EntityCache<Integer, CacheTestEntity> accessCache = new CacheTestService(jdbcTemplate, accessOptions).getEntityCache();
+        int entryCount = 2000;
+        int hotCount = 100;
+        for (int id = 0; id < entryCount; id++) {
+            accessCache.put(id, newEntity(id, "access-" + id));
+        }
+        long deadline = System.currentTimeMillis() + 1000;
+        AtomicInteger missCount = new AtomicInteger(0);
+        List<Thread> readThreadList = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread readThread = new Thread(() -> {
+                while (System.currentTimeMillis() < deadline) {
+                    for (int id = 0; id < hotCount; id++) {
+                        if (accessCache.get(id) == null) {
+                            missCount.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            readThreadList.add(readThread);
+            readThread.start();
+        }
+        for (Thread readThread: readThreadList) {
+            readThread.join();
+        }
+        assertEquals(0, missCount.get());
+        for (int id = 0; id < entryCount; id++) {
+            CacheTestEntity entity = accessCache.get(id);
+            if (id < hotCount) {
+                assertEquals("access-" + id, entity.getName());
+            } else {
+                assertNull(entity);
+            }
+        }
+    }
+
+    /**
+     * 二级索引: 缓存全表数据前查询数据库, 缓存后查询缓存索引(等值及范围查询), 写入后索引随之更新.
+     */
+    @Test
+    public void testEntityIndex() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = newJdbcTemplate();
+        if (jdbcTemplate.isTableExists("CACHE_TEST_INDEX")) {
+            jdbcTemplate.dropTable("CACHE_TEST_INDEX");
+        }
+        jdbcTemplate.executeUpdate("CREATE TABLE CACHE_TEST_INDEX(ID INTEGER PRIMARY KEY, NAME VARCHAR, SCORE INTEGER)");
+        List<IndexTestEntity> entityList = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            entityList.add(newIndexEntity(i, "group-" + (i % 10), i));
+        }
+        jdbcTemplate.insert(entityList);
+        IndexTestService service = new IndexTestService(jdbcTemplate);
+        assertEquals(10, service.findBy("NAME", "group-1").size());
+        assertEquals(Arrays.asList(10, 11, 12), getIds(service.findByRange("SCORE", 10, 13)));
+        assertEquals(2, service.getNoCacheQueryCount());
+
+        assertEquals(100, service.listAll().size());
+        List<IndexTestEntity> groupList = service.findBy("NAME", "group-1");
+        assertEquals(10, groupList.size());
+        assertTrue(groupList.stream().allMatch(entity -> "group-1".equals(entity.getName())));
+        assertEquals(Arrays.asList(10, 11, 12), getIds(service.findByRange("SCORE", 10, 13)));
+        assertEquals(Arrays.asList(10, 11, 12, 13), getIds(service.findByRange("SCORE", 10L, true, 13L, true)));
+        assertEquals(Arrays.asList(97, 98, 99), getIds(service.findByRange("SCORE", 96, false, null, false)));
+        assertTrue(service.findBy("NAME", "none").isEmpty());
+        // 哈希索引不支持范围查询: 查询数据库
+        assertEquals(10, service.findByRange("NAME", "group-1", true, "group-1", true).size());
+        assertEquals(3, service.getNoCacheQueryCount());
+
+        // 写入后更新索引
+        service.insert(newIndexEntity(100, "group-1", 1000));
+        service.update(newIndexEntity(1, "group-x", -1));
+        assertEquals(10, service.findBy("NAME", "group-1").size());
+        assertEquals(Arrays.asList(1), getIds(service.findBy("NAME", "group-x")));
+        assertEquals(Arrays.asList(1, 0), getIds(service.findByRange("SCORE", null, 1)));
+        assertEquals(Arrays.asList(100), getIds(service.findByRange("SCORE", 100, null)));
+        service.deleteById(1);
+        assertTrue(service.findBy("NAME", "group-x").isEmpty());
+        assertEquals(Arrays.asList(0), getIds(service.findByRange("SCORE", null, 1)));
+        assertEquals(3, service.getNoCacheQueryCount());
+        // 与数据库查询结果一致
+        assertEquals(new HashSet<>(getIds(service.findByWithNoCache("NAME", "group-2")))
+                , new HashSet<>(getIds(service.findBy("NAME", "group-2"))));
+        try {
+            service.findBy("NONE", "group-1");
+            fail();
+        } catch (SQLite3MappingException exception) {
+            // 字段不存在
+        }
+
+        // 堆外缓存超出容量上限淘汰的实体同时移除索引
+        EntityCacheOptions offHeapOptions = new EntityCacheOptions();
+        offHeapOptions.setOffHeapMaxBytes(16 * 1024);
+        entityList.clear();
+        for (int i = 1000; i < 2000; i++) {
+            entityList.add(newIndexEntity(i, "group-" + (i % 10) + "-" + String.join("", Collections.nCopies(10, "padding")), i));
+        }
+        jdbcTemplate.insert(entityList);
+        IndexTestService offHeapService = new IndexTestService(jdbcTemplate, offHeapOptions);
+        EntityCache<Integer, IndexTestEntity> entityCache = offHeapService.getEntityCache();
+        for (int i = 1000; i < 2000; i++) {
+            assertEquals(i, offHeapService.find(i).getScore());
+        }
+        assertTrue(entityCache.getEvictionCount() > 0);
+        assertEquals(entityCache.size(), entityCache.getIndexSize("NAME"));
+        assertEquals(entityCache.size(), entityCache.getIndexSize("SCORE"));
+    }
+
+    private static List<Integer> getIds(List<IndexTestEntity> entityList) {
+        List<Integer> idList = new ArrayList<>();
+        entityList.forEach(entity -> idList.add(entity.getId()));
+        return idList;
+    }
+
+    private static IndexTestEntity newIndexEntity(int id, String name, int score) {
+        IndexTestEntity entity = new IndexTestEntity();
+        entity.setId(id);
+        entity.setName(name);
+        entity.setScore(score);
+        return entity;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CacheTestEntity newEntity(int id, String name) {
+        CacheTestEntity entity = new CacheTestEntity();
+        entity.setId(id);
+        entity.setName(name);
+        return entity;
+    }
+
+    private static double[] zipfCdf(int n, double skew) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1 / Math.pow(i + 1, skew);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int nextZipf(double[] cdf, ThreadLocalRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+
+    private static SQLite3JdbcTemplate newJdbcTemplate() {
+        SQLite3JdbcTemplate jdbcTemplate = new SQLite3JdbcTemplate("test/service-cache.db");
+        if (jdbcTemplate.isTableExists("CACHE_TEST")) {
+            jdbcTemplate.dropTable("CACHE_TEST");
+        }
+        jdbcTemplate.executeUpdate("CREATE TABLE CACHE_TEST(ID INTEGER PRIMARY KEY, NAME VARCHAR)");
+        List<CacheTestEntity> entityList = new ArrayList<>(ROW_COUNT);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            CacheTestEntity entity = new CacheTestEntity();
+            entity.setId(i);
+            entity.setName("name-" + i);
+            entityList.add(entity);
+        }
+        jdbcTemplate.insert(entityList);
+        return jdbcTemplate;
+    }
+
+    public static class CacheTestService extends SQLite3Service<CacheTestEntity, Integer> {
+
+        private final long loadDelayMillis;
+        private final AtomicInteger loadCount = new AtomicInteger(0);
+        private final AtomicInteger batchLoadCount = new AtomicInteger(0);
+        /**
+         * 数据库查询后执行.
+         */
+        private volatile Runnable loadHook;
+        /**
+         * 数据库更新前执行.
+         */
+        private volatile Runnable writeHook;
+
+        public CacheTestService(SQLite3JdbcTemplate jdbcTemplate, EntityCacheOptions cacheOptions) {
+            this(jdbcTemplate, cacheOptions, 0);
+        }
+
+        public CacheTestService(SQLite3JdbcTemplate jdbcTemplate, EntityCacheOptions cacheOptions, long loadDelayMillis) {
+            super(jdbcTemplate, cacheOptions);
+            this.loadDelayMillis = loadDelayMillis;
+        }
+
+        @Override
+        public CacheTestEntity findWithNoCache(Integer id) {
+            loadCount.incrementAndGet();
+            if (loadDelayMillis > 0) {
+                try {
+                    Thread.sleep(loadDelayMillis);
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            CacheTestEntity entity = super.findWithNoCache(id);
+            Runnable hook = loadHook;
+            if (hook != null) {
+                hook.run();
+            }
+            return entity;
+        }
+
+        @Override
+        public Map<Integer, CacheTestEntity> findAllWithNoCache(Collection<Integer> ids) {
+            batchLoadCount.incrementAndGet();
+            return super.findAllWithNoCache(ids);
+        }
+
+        @Override
+        public CacheTestEntity updateWithNoCache(CacheTestEntity entity) {
+            Runnable hook = writeHook;
+            if (hook != null) {
+                hook.run();
+            }
+            return super.updateWithNoCache(entity);
+        }
+
+        public void setLoadHook(Runnable loadHook) {
+            this.loadHook = loadHook;
+        }
+
+        public void setWriteHook(Runnable writeHook) {
+            this.writeHook = writeHook;
+        }
+
+        public int getLoadCount() {
+            return loadCount.get();
+        }
+
+        public int getBatchLoadCount() {
+            return batchLoadCount.get();
+        }
+
+        @Override
+        protected Class<CacheTestEntity> getEntityClass() {
+            return CacheTestEntity.class;
+        }
+    }
+
+    @SQLite3Cache(maxSize = 10, evictionPolicy = CacheEvictionPolicy.TINY_LFU)
+    public static class AnnotatedCacheTestService extends SQLite3Service<CacheTestEntity, Integer> {
+
+        public AnnotatedCacheTestService(SQLite3JdbcTemplate jdbcTemplate) {
+            super(jdbcTemplate);
+        }
+
+        public AnnotatedCacheTestService(SQLite3JdbcTemplate jdbcTemplate, boolean cacheEnabled) {
+            super(jdbcTemplate, cacheEnabled);
+        }
+
+        @Override
+        protected Class<CacheTestEntity> getEntityClass() {
+            return CacheTestEntity.class;
+        }
+    }
+
+    public static class OtherCacheTestService extends SQLite3Service<OtherCacheTestEntity, Integer> {
+
+        public OtherCacheTestService(SQLite3JdbcTemplate jdbcTemplate) {
+            super(jdbcTemplate, new EntityCacheOptions());
+        }
+
+        @Override
+        protected Class<OtherCacheTestEntity> getEntityClass() {
+            return OtherCacheTestEntity.class;
+        }
+    }
+
+    public static class IndexTestService extends SQLite3Service<IndexTestEntity, Integer> {
+
+        private final AtomicInteger noCacheQueryCount = new AtomicInteger(0);
+
+        public IndexTestService(SQLite3JdbcTemplate jdbcTemplate) {
+            this(jdbcTemplate, new EntityCacheOptions());
+        }
+
+        public IndexTestService(SQLite3JdbcTemplate jdbcTemplate, EntityCacheOptions cacheOptions) {
+            super(jdbcTemplate, cacheOptions);
+        }
+
+        @Override
+        public List<IndexTestEntity> findByWithNoCache(String columnName, Object value) {
+            noCacheQueryCount.incrementAndGet();
+            return super.findByWithNoCache(columnName, value);
+        }
+
+        @Override
+        public List<IndexTestEntity> findByRangeWithNoCache(String columnName, Object fromValue, boolean fromInclusive
+                , Object toValue, boolean toInclusive) {
+            noCacheQueryCount.incrementAndGet();
+            return super.findByRangeWithNoCache(columnName, fromValue, fromInclusive, toValue, toInclusive);
+        }
+
+        public int getNoCacheQueryCount() {
+            return noCacheQueryCount.get();
+        }
+
+        @Override
+        protected Class<IndexTestEntity> getEntityClass() {
+            return IndexTestEntity.class;
+        }
+    }
+
+    @SQLite3Table(tableName = "CACHE_TEST_INDEX")
+    public static class IndexTestEntity {
+
+        @SQLite3Id
+        @SQLite3Column(columnName = "ID")
+        private int id;
+
+        @SQLite3Index
+        @SQLite3Column(columnName = "NAME")
+        private String name;
+
+        @SQLite3Index(type = CacheIndexType.SORTED)
+        @SQLite3Column(columnName = "SCORE")
+        private int score;
+
+        public int getId() {
+            return id;
+        }
+
+        public void setId(int id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public void setScore(int score) {
+            this.score = score;
+        }
+    }
+
+    @SQLite3Table(tableName = "CACHE_TEST_OTHER")
+    public static class OtherCacheTestEntity {
+
+        @SQLite3Id
+        @SQLite3Column(columnName = "ID")
+        private int id;
+
+        @SQLite3Column(columnName = "NAME")
+        private String name;
+
+        public int getId() {
+            return id;
+        }
+
+        public void setId(int id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    @SQLite3Table(tableName = "CACHE_TEST")
+    public static class CacheTestEntity {
+
+        @SQLite3Id
+        @SQLite3Column(columnName = "ID")
+        private int id;
+
+        @SQLite3Column(columnName = "NAME")
+        private String name;
+
+        public int getId() {
+            return id;
+        }
+
+        public void setId(int id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+}
@@ -1,16 +1,27 @@
 package io.github.jiashunx.tools.sqlite3;
 
 import io.github.jiashunx.tools.sqlite3.connection.SQLite3ConnectionManager;
+import io.github.jiashunx.tools.sqlite3.exception.SQLite3SQLException;
 import io.github.jiashunx.tools.sqlite3.mapping.SQLite3Column;
 import io.github.jiashunx.tools.sqlite3.mapping.SQLite3Id;
 import io.github.jiashunx.tools.sqlite3.mapping.SQLite3Table;
+import io.github.jiashunx.tools.sqlite3.model.TableModel;
+import io.github.jiashunx.tools.sqlite3.model.WriteAckMode;
+import io.github.jiashunx.tools.sqlite3.model.WriteQueueFullPolicy;
+import io.github.jiashunx.tools.sqlite3.service.SQLite3Service;
 import io.github.jiashunx.tools.sqlite3.table.SQLPackage;
 import io.github.jiashunx.tools.sqlite3.util.SQLite3SQLHelper;
+import io.github.jiashunx.tools.sqlite3.util.SQLite3Utils;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
  * @author jiashunx
@@ -133,6 +144,297 @@ public class SQLite3Test {
         Assert.assertEquals(5001, jdbcTemplate.queryForInt("SELECT COUNT(1) COUNT FROM TABLE_2"));
     }
 
+    /**
+     * 组提交测试: 并发写操作合并提交, 单个写操作失败不影响同批次其他写操作.
+     */
+    @Test
+    public void groupCommitTest() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = new SQLite3JdbcTemplate("test/group-commit.db");
+        if (jdbcTemplate.isTableExists("GROUP_COMMIT")) {
+            jdbcTemplate.dropTable("GROUP_COMMIT");
+        }
+        jdbcTemplate.executeUpdate("CREATE TABLE GROUP_COMMIT(NAME VARCHAR UNIQUE)");
+        jdbcTemplate.executeUpdate("INSERT INTO GROUP_COMMIT(NAME) VALUES('duplicate')");
+        jdbcTemplate.enableGroupCommit();
+        try {
+            int threadCount = 32, loopCount = 50;
+            AtomicInteger effectedRowCount = new AtomicInteger(0);
+            AtomicInteger failedCount = new AtomicInteger(0);
+            List<Thread> threadList = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                Thread thread = new Thread(() -> {
+                    for (int j = 0; j < loopCount; j++) {
+                        String name = j == 0 ? "duplicate" : UUID.randomUUID().toString();
+                        try {
+                            effectedRowCount.addAndGet(jdbcTemplate.executeUpdate("INSERT INTO GROUP_COMMIT(NAME) VALUES(?)", statement -> {
+                                statement.setString(1, name);
+                            }));
+                        } catch (SQLite3SQLException exception) {
+                            failedCount.incrementAndGet();
+                        }
+                    }
+                });
+                threadList.add(thread);
+                thread.start();
+            }
+            for (Thread thread: threadList) {
+                thread.join();
+            }
+            Assert.assertEquals(threadCount, failedCount.get());
+            Assert.assertEquals(threadCount * (loopCount - 1), effectedRowCount.get());
+            Assert.assertEquals(threadCount * (loopCount - 1) + 1, jdbcTemplate.queryForInt("SELECT COUNT(1) FROM GROUP_COMMIT"));
+            Assert.assertTrue(jdbcTemplate.getGroupCommitCount() < threadCount * loopCount);
+        } finally {
+            jdbcTemplate.shutdownWriteExecutor();
+        }
+    }
+
+    /**
+     * 异步写: 提交后返回CompletableFuture, 事务提交后完成; 队列已满时拒绝写任务.
+     */
+    @Test
+    public void asyncWriteTest() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = new SQLite3JdbcTemplate("test/async-write.db");
+        if (jdbcTemplate.isTableExists("ASYNC_WRITE")) {
+            jdbcTemplate.dropTable("ASYNC_WRITE");
+        }
+        jdbcTemplate.executeUpdate("CREATE TABLE ASYNC_WRITE(NAME VARCHAR UNIQUE)");
+        jdbcTemplate.configureWriteExecutor(64, 4, WriteAckMode.ON_COMMIT, WriteQueueFullPolicy.REJECT);
+        try {
+            List<CompletableFuture<Integer>> futureList = new ArrayList<>();
+            int rejectedCount = 0;
+            // 写线程执行期间持有写连接, 保证队列被填满
+            CompletableFuture<Integer> blocker = jdbcTemplate.executeUpdateAsync("INSERT INTO ASYNC_WRITE(NAME) VALUES('blocker')");
+            jdbcTemplate.doTransaction(() -> {
+                jdbcTemplate.executeUpdate("INSERT INTO ASYNC_WRITE(NAME) VALUES('tx')");
+                for (int i = 0; i < 10; i++) {
+                    String name = "name-" + i;
+                    futureList.add(jdbcTemplate.executeUpdateAsync("INSERT INTO ASYNC_WRITE(NAME) VALUES(?)", statement -> {
+                        statement.setString(1, name);
+                    }));
+                }
+            });
+            Assert.assertEquals(1, blocker.get(10, TimeUnit.SECONDS).intValue());
+            int successCount = 0;
+            for (CompletableFuture<Integer> future: futureList) {
+                try {
+                    successCount += future.get(10, TimeUnit.SECONDS);
+                } catch (ExecutionException exception) {
+                    Assert.assertTrue(exception.getCause() instanceof SQLite3SQLException);
+                    rejectedCount++;
+                }
+            }
+            Assert.assertTrue(rejectedCount > 0);
+            Assert.assertEquals(10, successCount + rejectedCount);
+            Assert.assertEquals(successCount + 2, jdbcTemplate.queryForInt("SELECT COUNT(1) FROM ASYNC_WRITE"));
+            // 执行失败(唯一约束冲突)的写任务异常完成
+            try {
+                jdbcTemplate.executeUpdateAsync("INSERT INTO ASYNC_WRITE(NAME) VALUES('tx')").get(10, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (ExecutionException exception) {
+                Assert.assertTrue(exception.getCause() instanceof SQLite3SQLException);
+            }
+        } finally {
+            jdbcTemplate.shutdownWriteExecutor();
+        }
+    }
+
+    /**
+     * 批量更新(addBatch/executeBatch): 分批执行结果汇总, 输出10k/100k/1M行的每秒写入行数.
+     */
+    @Test
+    public void batchUpdateTest() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = new SQLite3JdbcTemplate("test/batch-update.db");
+        if (jdbcTemplate.isTableExists("BATCH_UPDATE")) {
+            jdbcTemplate.dropTable("BATCH_UPDATE");
+        }
+        jdbcTemplate.executeUpdate("CREATE TABLE BATCH_UPDATE(ID INTEGER PRIMARY KEY, NAME VARCHAR, SCORE DOUBLE)");
+        String sql = "INSERT INTO BATCH_UPDATE(ID, NAME, SCORE) VALUES(?, ?, ?)";
+        for (int rowCount: new int[] { 10000, 100000, 1000000 }) {
+            jdbcTemplate.executeUpdate("DELETE FROM BATCH_UPDATE");
+            long startTime = System.nanoTime();
+            int effectedRowCount = jdbcTemplate.batchUpdate(sql, rowCount, (index, statement) -> {
+                statement.setInt(1, index);
+                statement.setString(2, "name-" + index);
+                statement.setDouble(3, index / 7.0D);
+            });
+            long costTime = System.nanoTime() - startTime;
+            System.out.printf("batch insert %d rows: %d ms, %d rows/sec%n", rowCount
+                    , TimeUnit.NANOSECONDS.toMillis(costTime), rowCount * TimeUnit.SECONDS.toNanos(1) / costTime);
+            Assert.assertEquals(rowCount, effectedRowCount);
+            Assert.assertEquals(rowCount, jdbcTemplate.queryTableRowCount("BATCH_UPDATE"));
+        }
+        // 自定义批量大小, 最后一批不足批量大小
+        Assert.assertEquals(1000, jdbcTemplate.batchUpdate("UPDATE BATCH_UPDATE SET SCORE=0 WHERE ID=?", 1001, 333, (index, statement) -> {
+            statement.setInt(1, 999000 + index);
+        }));
+        // 连续相同的sql合并执行, 按sql顺序返回各自影响的记录数
+        String[] sqlArr = new String[] { "DELETE FROM BATCH_UPDATE WHERE ID=?", "DELETE FROM BATCH_UPDATE WHERE ID=?"
+                , "DELETE FROM BATCH_UPDATE WHERE ID>=999998", "DELETE FROM BATCH_UPDATE WHERE ID=?" };
+        int[] effectedRows = jdbcTemplate.batchUpdate(sqlArr, (index, statement) -> {
+            if (index != 2) {
+                statement.setInt(1, index == 3 ? -1 : index);
+            }
+        });
+        Assert.assertArrayEquals(new int[] { 1, 1, 2, 0 }, effectedRows);
+        Assert.assertEquals(999996, jdbcTemplate.queryTableRowCount("BATCH_UPDATE"));
+    }
+
+    /**
+     * 多行插入: 单条sql插入行数受最大参数个数限制, 末段行数不足时使用对应行数的sql, 输出与逐行批量插入的耗时对比.
+     */
+    @Test
+    public void multiRowInsertTest() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = new SQLite3JdbcTemplate("test/multi-row-insert.db");
+        if (jdbcTemplate.isTableExists("LOG_TABLE")) {
+            jdbcTemplate.dropTable("LOG_TABLE");
+        }
+        jdbcTemplate.executeUpdate("CREATE TABLE LOG_TABLE(ID INTEGER, LEVEL VARCHAR, MESSAGE VARCHAR)");
+        int rowCount = 100003;
+        List<LogEntity> entityList = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            LogEntity entity = new LogEntity();
+            entity.setId(i);
+            entity.setLevel(i % 10 == 0 ? "WARN" : "INFO");
+            entity.setMessage("message-" + i);
+            entityList.add(entity);
+        }
+        for (int round = 0; round < 3; round++) {
+            jdbcTemplate.executeUpdate("DELETE FROM LOG_TABLE");
+            jdbcTemplate.setMultiRowInsertEnabled(false);
+            long startTime = System.nanoTime();
+            Assert.assertEquals(rowCount, jdbcTemplate.insert(entityList));
+            long singleRowTime = System.nanoTime() - startTime;
+            jdbcTemplate.executeUpdate("DELETE FROM LOG_TABLE");
+            jdbcTemplate.setMultiRowInsertEnabled(true);
+            startTime = System.nanoTime();
+            Assert.assertEquals(rowCount, jdbcTemplate.insert(entityList));
+            long multiRowTime = System.nanoTime() - startTime;
+            System.out.printf("insert %d rows: single-row %d ms, multi-row %d ms%n", rowCount
+                    , TimeUnit.NANOSECONDS.toMillis(singleRowTime), TimeUnit.NANOSECONDS.toMillis(multiRowTime));
+        }
+        Assert.assertEquals(rowCount, jdbcTemplate.queryTableRowCount("LOG_TABLE"));
+        Assert.assertEquals(rowCount / 10 + 1, jdbcTemplate.queryForInt("SELECT COUNT(1) FROM LOG_TABLE WHERE LEVEL='WARN'"));
+        Assert.assertEquals("message-" + (rowCount - 1), jdbcTemplate.queryForString("SELECT MESSAGE FROM LOG_TABLE WHERE ID=?", statement -> {
+            statement.setInt(1, rowCount - 1);
+        }));
+        // 最大参数个数小于单行参数个数时逐行插入
+        jdbcTemplate.setMaxVariableNumber(2);
+        Assert.assertEquals(2, jdbcTemplate.insert(entityList.subList(0, 2)));
+        Assert.assertEquals(rowCount + 2, jdbcTemplate.queryTableRowCount("LOG_TABLE"));
+    }
+
+    /**
+     * 插入或更新: 主键不存在时插入, 存在时更新, 同时更新实体缓存; 主键以外的唯一约束冲突时抛出异常, 不删除其他记录.
+     */
+    @Test
+    public void upsertTest() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = new SQLite3JdbcTemplate("test/upsert.db");
+        if (jdbcTemplate.isTableExists("LOG_TABLE")) {
+            jdbcTemplate.dropTable("LOG_TABLE");
+        }
+        jdbcTemplate.executeUpdate("CREATE TABLE LOG_TABLE(ID INTEGER PRIMARY KEY, LEVEL VARCHAR, MESSAGE VARCHAR UNIQUE)");
+        TableModel tableModel = SQLite3Utils.getClassTableModel(LogEntity.class);
+        Assert.assertTrue(tableModel.getUpsertSQL().startsWith(tableModel.getInsertSQL() + " ON CONFLICT(ID) DO UPDATE SET "));
+        Assert.assertTrue(tableModel.getUpsertSQL().contains("MESSAGE=excluded.MESSAGE"));
+        Assert.assertTrue(tableModel.getInsertOrIgnoreSQL().startsWith("INSERT OR IGNORE INTO LOG_TABLE("));
+        System.out.println("sqlite version: " + jdbcTemplate.queryForString("SELECT sqlite_version()")
+                + ", upsert clause supported: " + jdbcTemplate.isUpsertClauseSupported());
+        LogService logService = new LogService(jdbcTemplate);
+        Assert.assertNull(logService.find(1));
+        List<LogEntity> entityList = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            LogEntity entity = new LogEntity();
+            entity.setId(i);
+            entity.setLevel("INFO");
+            entity.setMessage("message-" + i);
+            entityList.add(entity);
+        }
+        logService.upsert(entityList);
+        Assert.assertEquals(10, jdbcTemplate.queryTableRowCount("LOG_TABLE"));
+        Assert.assertEquals("message-1", logService.find(1).getMessage());
+        LogEntity entity = new LogEntity();
+        entity.setId(1);
+        entity.setLevel("WARN");
+        entity.setMessage("changed");
+        logService.upsert(entity);
+        entity = new LogEntity();
+        entity.setId(10);
+        entity.setLevel("WARN");
+        entity.setMessage("message-10");
+        logService.upsert(entity);
+        Assert.assertEquals(11, jdbcTemplate.queryTableRowCount("LOG_TABLE"));
+        Assert.assertEquals("changed", logService.find(1).getMessage());
+        Assert.assertEquals("changed", logService.findWithNoCache(1).getMessage());
+        Assert.assertEquals(2, jdbcTemplate.queryForInt("SELECT COUNT(1) FROM LOG_TABLE WHERE LEVEL='WARN'"));
+        // 同一批次中主键重复: 后者更新前者
+        entityList.clear();
+        for (int i = 0; i < 2; i++) {
+            entity = new LogEntity();
+            entity.setId(11);
+            entity.setLevel("DEBUG");
+            entity.setMessage("message-11-" + i);
+            entityList.add(entity);
+        }
+        Assert.assertEquals(2, jdbcTemplate.upsert(entityList));
+        Assert.assertEquals("message-11-1", logService.findWithNoCache(11).getMessage());
+        // 唯一约束冲突(插入及更新): 抛出异常, 不删除其他记录, 缓存不变
+        for (int id: new int[]{12, 2}) {
+            LogEntity conflictEntity = new LogEntity();
+            conflictEntity.setId(id);
+            conflictEntity.setLevel("ERROR");
+            conflictEntity.setMessage("changed");
+            try {
+                logService.upsert(conflictEntity);
+                Assert.fail("unique constraint conflict expected");
+            } catch (SQLite3SQLException exception) {
+                // expected
+            }
+        }
+        Assert.assertEquals(12, jdbcTemplate.queryTableRowCount("LOG_TABLE"));
+        Assert.assertNull(logService.findWithNoCache(12));
+        Assert.assertEquals("changed", logService.find(1).getMessage());
+        Assert.assertEquals("message-2", logService.find(2).getMessage());
+        Assert.assertEquals("message-2", logService.findWithNoCache(2).getMessage());
+    }
+
+    /**
+     * 流式查询: 逐行回调/逐行映射, 关闭Stream后释放读连接.
+     */
+    @Test
+    public void streamQueryTest() throws Throwable {
+        SQLite3JdbcTemplate jdbcTemplate = new SQLite3JdbcTemplate("test/stream-query.db");
+        if (jdbcTemplate.isTableExists("MY_TABLE")) {
+            jdbcTemplate.dropTable("MY_TABLE");
+        }
+        jdbcTemplate.executeUpdate("CREATE TABLE MY_TABLE(MYID VARCHAR, MYNAME VARCHAR)");
+        int rowCount = 10000;
+        jdbcTemplate.batchUpdate("INSERT INTO MY_TABLE(MYID, MYNAME) VALUES(?, ?)", rowCount, (index, statement) -> {
+            statement.setString(1, String.valueOf(index));
+            statement.setString(2, "name-" + index);
+        });
+        AtomicInteger callbackCount = new AtomicInteger(0);
+        jdbcTemplate.query("SELECT * FROM MY_TABLE", resultSet -> {
+            Assert.assertEquals("name-" + resultSet.getString("MYID"), resultSet.getString("MYNAME"));
+            callbackCount.incrementAndGet();
+        });
+        Assert.assertEquals(rowCount, callbackCount.get());
+        try (Stream<MyEntity> stream = jdbcTemplate.queryForStream("SELECT * FROM MY_TABLE WHERE MYID<>?", statement -> {
+            statement.setString(1, "0");
+        }, MyEntity.class)) {
+            Assert.assertEquals(rowCount - 1, stream.filter(entity -> entity.getMyname().equals("name-" + entity.getMyid())).count());
+        }
+        // 未遍历完即关闭, 读连接归还后可再次查询
+        for (int i = 0; i < 20; i++) {
+            try (Stream<MyEntity> stream = jdbcTemplate.queryForStream("SELECT * FROM MY_TABLE", MyEntity.class)) {
+                Assert.assertTrue(stream.findFirst().isPresent());
+            }
+        }
+        // 流关闭后写操作不被阻塞
+        Assert.assertEquals(1, jdbcTemplate.executeUpdate("DELETE FROM MY_TABLE WHERE MYID='0'"));
+        Assert.assertEquals(rowCount - 1, jdbcTemplate.queryTableRowCount("MY_TABLE"));
+    }
+
     @Test
     public void mappingTest() {
         SQLite3JdbcTemplate jdbcTemplate0 = new SQLite3JdbcTemplate(SQLite3ConnectionManager.getConnectionPool("test/test.db"));
@@ -225,6 +527,24 @@ public class SQLite3Test {
         System.out.println(jdbcTemplate0.getTableDefineSQL("MY_TABLE2"));
         System.out.println(jdbcTemplate0.getViewDefineSQL("MY_TABLE2_VIEW"));
 
+        // 多种实体混合插入: 按实体类型分组批量执行, 同一事务提交
+        int tableRowCount = jdbcTemplate0.queryTableRowCount(tableName);
+        List<Object> mixedList = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            MyEntity mixedEntity = new MyEntity();
+            mixedEntity.setMyid(UUID.randomUUID().toString());
+            mixedEntity.setMyname("mixed-" + i);
+            mixedList.add(mixedEntity);
+            if (i % 3 == 0) {
+                MyEntity2 mixedEntity2 = new MyEntity2();
+                mixedEntity2.setId(UUID.randomUUID().toString());
+                mixedEntity2.setmNUMERIC(BigDecimal.ONE);
+                mixedList.add(mixedEntity2);
+            }
+        }
+        Assert.assertEquals(14, jdbcTemplate0.insert(mixedList));
+        Assert.assertEquals(tableRowCount + 10, jdbcTemplate0.queryTableRowCount(tableName));
+        Assert.assertEquals(table2RowCount + 4, jdbcTemplate0.queryTableRowCount(tableName2));
     }
 
     @SQLite3Table(tableName = "MY_TABLE")
@@ -253,6 +573,55 @@ public class SQLite3Test {
             this.myname = myname;
         }
     }
+    public static class LogService extends SQLite3Service<LogEntity, Integer> {
+
+        public LogService(SQLite3JdbcTemplate jdbcTemplate) {
+            super(jdbcTemplate);
+        }
+
+        @Override
+        protected Class<LogEntity> getEntityClass() {
+            return LogEntity.class;
+        }
+    }
+
+    @SQLite3Table(tableName = "LOG_TABLE")
+    public static class LogEntity {
+
+        @SQLite3Id
+        @SQLite3Column(columnName = "ID")
+        private int id;
+
+        @SQLite3Column(columnName = "LEVEL")
+        private String level;
+
+        @SQLite3Column(columnName = "MESSAGE")
+        private String message;
+
+        public int getId() {
+            return id;
+        }
+
+        public void setId(int id) {
+            this.id = id;
+        }
+
+        public String getLevel() {
+            return level;
+        }
+
+        public void setLevel(String level) {
+            this.level = level;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
     @SQLite3Table(tableName = "MY_TABLE2")
     public static class MyEntity2 {
 